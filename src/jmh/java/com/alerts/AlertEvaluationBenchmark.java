@@ -0,0 +1,75 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures how many patients per second {@link AlertGenerator#evaluateAll} evaluates with a
+ * given parallelism. Every operation uses a fresh generator, so every patient's full history
+ * of {@value #READINGS_PER_TYPE} readings per type is evaluated once; scores are per patient.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AlertEvaluationBenchmark {
+    private static final int PATIENTS = 5_000;
+    private static final int READINGS_PER_TYPE = 200;
+    private static final String[] TYPES = {"BloodPressureSystolic", "BloodPressureDiastolic", "BloodSaturation", "ECG"};
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private DataStorage storage;
+    private List<Patient> patients;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        Logger.getLogger("com.alerts").setLevel(Level.OFF);
+        storage = new DataStorage();
+        for (int patientId = 0; patientId < PATIENTS; patientId++) {
+            for (int i = 0; i < READINGS_PER_TYPE; i++) {
+                for (String type : TYPES) {
+                    storage.addPatientData(patientId, 100 + i % 3, type, 1000L * i);
+                }
+            }
+        }
+        patients = storage.getAllPatients();
+        pool = AlertGenerator.newEvaluationPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATIENTS)
+    public AlertGenerator evaluateAll() {
+        AlertGenerator generator = new AlertGenerator(storage);
+        generator.evaluateAll(patients, pool);
+        return generator;
+    }
+}
@@ -0,0 +1,123 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Measures the time from storing a critical reading until its alert is raised, with the
+ * {@link EvaluationScheduler} and with the former loop that evaluated every patient once a
+ * second. Before each operation, background patients receive normal readings and the alert
+ * patient a normal reading that resolves the previous alert, so every operation raises anew.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AlertLatencyBenchmark {
+    private static final int BACKGROUND_PATIENTS = 200;
+    private static final int ALERT_PATIENT = -1;
+
+    @Param({"event-driven", "polling"})
+    public String mode;
+
+    private final LinkedBlockingQueue<Boolean> raised = new LinkedBlockingQueue<>();
+    private final Logger alerts = Logger.getLogger("com.alerts");
+    private final Handler handler = new Handler() {
+        @Override
+        public void publish(LogRecord record) {
+            if (record.getMessage().startsWith("Alert triggered: Patient " + ALERT_PATIENT + ",")) {
+                raised.offer(Boolean.TRUE);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+    private DataStorage storage;
+    private ExecutorService executor;
+    private Thread poller;
+    private long time;
+
+    @Setup
+    public void setUp() {
+        alerts.setUseParentHandlers(false);
+        alerts.addHandler(handler);
+        storage = new DataStorage();
+        AlertGenerator generator = new AlertGenerator(storage);
+        executor = Executors.newSingleThreadExecutor();
+        if (mode.equals("event-driven")) {
+            storage.addRecordListener(new EvaluationScheduler(generator, executor));
+        } else {
+            poller = new Thread(() -> {
+                while (!Thread.currentThread().isInterrupted()) {
+                    for (Patient patient : storage.getAllPatients()) {
+                        generator.evaluateData(patient);
+                    }
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            });
+            poller.start();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (poller != null) {
+            poller.interrupt();
+        }
+        executor.shutdown();
+        alerts.removeHandler(handler);
+        alerts.setUseParentHandlers(true);
+    }
+
+    @Setup(Level.Invocation)
+    public void addBackgroundReadings() {
+        raised.clear();
+        time += 1000;
+        for (int p = 0; p < BACKGROUND_PATIENTS; p++) {
+            storage.addPatientData(p, 120, "BloodPressureSystolic", time);
+            storage.addPatientData(p, 98, "BloodSaturation", time);
+        }
+        storage.addPatientData(ALERT_PATIENT, 120, "BloodPressureSystolic", time);
+    }
+
+    @Benchmark
+    public void criticalReadingToAlert() throws InterruptedException {
+        storage.addPatientData(ALERT_PATIENT, 200, "BloodPressureSystolic", time + 500);
+        if (raised.poll(5, TimeUnit.SECONDS) == null) {
+            throw new IllegalStateException("No alert raised");
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.alerts;
+
+import com.alerts.rules.AlertRules;
+import com.data_management.DataStorage;
+import com.data_management.RetentionPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures the cost of one reading for each built-in rule on its own: every operation stores
+ * a reading of a signal the rule watches and evaluates the patient. The values vary so that
+ * the rule's state keeps changing, and raised alerts are not logged.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AlertRuleBenchmark {
+    private static final int PATIENT = 1;
+
+    @Param({"CriticalSystolic", "BloodPressureTrend", "LowSaturation", "RapidDropSaturation", "ECGPeak",
+            "HypotensiveHypoxemia"})
+    public String rule;
+
+    private DataStorage storage;
+    private AlertGenerator generator;
+    private String[] signals;
+    private double[] values;
+    private long timestamp;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Logger.getLogger("com.alerts").setLevel(Level.WARNING);
+        Properties properties = new Properties();
+        try (InputStream in = AlertRules.class.getResourceAsStream(AlertRules.DEFAULT_RESOURCE)) {
+            properties.load(in);
+        }
+        properties.setProperty("rules", rule);
+        String watched = properties.getProperty("rule." + rule + ".signals");
+        signals = watched != null ? watched.split(",")
+                : new String[]{properties.getProperty("rule." + rule + ".left"),
+                properties.getProperty("rule." + rule + ".right")};
+        values = signals[0].equals("ECG")
+                ? new double[]{0.1, -0.2, 0.3, 0.2, -0.1, 0.4, 0.1, -0.3, 1.5, 0.2, 0.0, -0.1, 0.2, 0.3, -0.2, 0.1}
+                : new double[]{120, 95, 88, 97, 140, 91, 99, 85, 130, 93, 180, 96, 110, 90, 100, 94};
+
+        storage = new DataStorage();
+        storage.getRetentionPolicies().setDefaultPolicy(RetentionPolicy.maxCount(1_000));
+        generator = new AlertGenerator(storage, new AlertStateTracker(), null, AlertRules.parse(properties));
+    }
+
+    @Benchmark
+    public void addAndEvaluate() {
+        int i = next++;
+        timestamp += 1_000;
+        storage.addPatientData(PATIENT, values[i & (values.length - 1)], signals[i % signals.length], timestamp);
+        generator.evaluateData(PATIENT);
+    }
+}
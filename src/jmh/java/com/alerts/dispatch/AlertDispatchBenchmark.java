@@ -0,0 +1,63 @@
+package com.alerts.dispatch;
+
+import com.alerts.decorator_pattern.ConcreteAlert;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of dispatching one alert as a primitive event, and as a
+ * {@link ConcreteAlert} object built the way the factories did before. Run with
+ * {@code -prof gc} to compare the bytes allocated per alert on the dispatching thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AlertDispatchBenchmark {
+    private AlertDispatcher dispatcher;
+    private int code;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        dispatcher = new AlertDispatcher(1 << 16, 1024);
+        dispatcher.addHandler(batch -> { });
+        dispatcher.start();
+        code = AlertCodes.intern("BloodOxygen", "LowSaturation");
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void dispatchPrimitive() {
+        int i = next++;
+        while (!dispatcher.dispatch(i, code, i, AlertPriority.HIGH)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Benchmark
+    public void dispatchObject() {
+        int i = next++;
+        ConcreteAlert alert = new ConcreteAlert(String.valueOf(i), "LowSaturation", i, "BloodOxygen");
+        while (!dispatcher.dispatch(alert, AlertPriority.HIGH)) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.cardio_generator.outputs;
+
+import com.protocol.ReadingCodec;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.handshake.ServerHandshake;
+import org.java_websocket.protocols.Protocol;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures {@link OutputStrategy#output} for each strategy. Console output goes to a
+ * discarding stream, file output to a temporary directory, and the TCP and WebSocket
+ * servers each have one connected client that reads and drops everything. The WebSocket
+ * server is measured with a text client and, on a second server, with a client that
+ * negotiated the binary {@link ReadingCodec} encoding, sending a numeric reading.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutputStrategyBenchmark {
+    private static final String LABEL = "HeartRate";
+    private static final String DATA = "72.0";
+    private static final double VALUE = 72.0;
+
+    private PrintStream originalOut;
+    private Path directory;
+    private ConsoleOutputStrategy console;
+    private FileOutputStrategy file;
+    private TcpOutputStrategy tcp;
+    private Socket tcpClient;
+    private Thread tcpDrain;
+    private WebSocketOutputStrategy webSocket;
+    private WebSocketClient webSocketClient;
+    private WebSocketOutputStrategy binaryWebSocket;
+    private WebSocketClient binaryWebSocketClient;
+    private long timestamp;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        console = new ConsoleOutputStrategy();
+
+        directory = Files.createTempDirectory("output-benchmark");
+        file = new FileOutputStrategy(directory.toString());
+
+        int tcpPort = freePort();
+        tcp = new TcpOutputStrategy(tcpPort);
+        tcpClient = connect(tcpPort);
+        tcpDrain = new Thread(() -> drain(tcpClient), "tcp-drain");
+        tcpDrain.setDaemon(true);
+        tcpDrain.start();
+
+        int webSocketPort = freePort();
+        webSocket = new WebSocketOutputStrategy(webSocketPort);
+        webSocketClient = discardingClient(webSocketPort, new Draft_6455());
+        connectWebSocket(webSocketClient);
+
+        int binaryWebSocketPort = freePort();
+        binaryWebSocket = new WebSocketOutputStrategy(binaryWebSocketPort);
+        binaryWebSocketClient = discardingClient(binaryWebSocketPort,
+                new Draft_6455(Collections.emptyList(), List.of(new Protocol(ReadingCodec.PROTOCOL))));
+        connectWebSocket(binaryWebSocketClient);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        System.setOut(originalOut);
+        webSocketClient.closeBlocking();
+        binaryWebSocketClient.closeBlocking();
+        tcpClient.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void console() {
+        console.output(1, ++timestamp, LABEL, DATA);
+    }
+
+    @Benchmark
+    public void file() {
+        file.output(1, ++timestamp, LABEL, DATA);
+    }
+
+    @Benchmark
+    public void tcp() {
+        tcp.output(1, ++timestamp, LABEL, DATA);
+    }
+
+    @Benchmark
+    public void webSocket() {
+        webSocket.output(1, ++timestamp, LABEL, DATA);
+    }
+
+    @Benchmark
+    public void webSocketBinary() {
+        binaryWebSocket.output(1, ++timestamp, LABEL, VALUE);
+    }
+
+    private static WebSocketClient discardingClient(int port, Draft draft) throws Exception {
+        return new WebSocketClient(new URI("ws://localhost:" + port), draft) {
+            @Override
+            public void onOpen(ServerHandshake handshake) {
+            }
+
+            @Override
+            public void onMessage(String message) {
+            }
+
+            @Override
+            public void onMessage(ByteBuffer bytes) {
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+            }
+
+            @Override
+            public void onError(Exception ex) {
+            }
+        };
+    }
+
+    private static void connectWebSocket(WebSocketClient client) throws InterruptedException {
+        // The server starts asynchronously, so the first attempts may be refused
+        for (int attempt = 0; attempt < 50; attempt++) {
+            boolean open = attempt == 0 ? client.connectBlocking() : client.reconnectBlocking();
+            if (open) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("WebSocket server did not accept the benchmark client");
+    }
+
+    private static Socket connect(int port) throws InterruptedException {
+        // The TCP server accepts its client on a background thread
+        for (int attempt = 0; attempt < 50; attempt++) {
+            try {
+                return new Socket("localhost", port);
+            } catch (IOException e) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("TCP server did not accept the benchmark client");
+    }
+
+    private static void drain(Socket socket) {
+        byte[] buffer = new byte[8192];
+        try (InputStream in = socket.getInputStream()) {
+            while (in.read(buffer) >= 0) {
+                // Discard
+            }
+        } catch (IOException e) {
+            // Closed on tear-down
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
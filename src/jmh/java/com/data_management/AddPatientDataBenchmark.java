@@ -0,0 +1,64 @@
+package com.data_management;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures {@link DataStorage#addPatientData} under contention: four threads ingest into one
+ * shared storage, either all into the same patient, which serializes them on its write
+ * lock, or spread over many patients. Retention caps every series so the heap stays flat.
+ * Timestamps come from one shared clock, so a patient receives rising timestamps whichever
+ * thread writes to it, as it would from a live feed, instead of late readings.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AddPatientDataBenchmark {
+    @Param({"1", "1000"})
+    public int patients;
+
+    private DataStorage storage;
+    private final AtomicInteger threadIds = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        storage = new DataStorage();
+        storage.getRetentionPolicies().setDefaultPolicy(RetentionPolicy.maxCount(10_000));
+    }
+
+    @State(Scope.Thread)
+    public static class Feed {
+        private int patient;
+        private int offset;
+
+        @Setup
+        public void setUp(AddPatientDataBenchmark benchmark) {
+            offset = benchmark.threadIds.getAndIncrement() * 7919;
+        }
+    }
+
+    @Benchmark
+    public void addPatientData(Feed feed) {
+        feed.patient = feed.patient + 1 == patients ? 0 : feed.patient + 1;
+        storage.addPatientData((feed.patient + feed.offset) % patients, 72.0, "HeartRate", clock.incrementAndGet());
+    }
+}
@@ -0,0 +1,63 @@
+package com.data_management;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares storing {@value #READINGS} readings one by one with storing them as one
+ * {@link RecordBatch}. The readings are spread round-robin over a number of patients, as a
+ * simulator stream interleaves them; scores are per reading.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchIngestBenchmark {
+    private static final int READINGS = 256;
+    private static final String[] TYPES = {"ECG", "HeartRate", "BloodSaturation", "BloodPressureSystolic"};
+
+    @Param({"1", "16", "256"})
+    public int patients;
+
+    private DataStorage storage;
+    private final RecordBatch batch = new RecordBatch(READINGS);
+    private long timestamp;
+
+    @Setup
+    public void setUp() {
+        storage = new DataStorage();
+        storage.getRetentionPolicies().setDefaultPolicy(RetentionPolicy.maxCount(1_000));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READINGS)
+    public void oneByOne() {
+        for (int i = 0; i < READINGS; i++) {
+            storage.addPatientData(i % patients, i, TYPES[i & (TYPES.length - 1)], timestamp++);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READINGS)
+    public void batched() {
+        for (int i = 0; i < READINGS; i++) {
+            batch.add(i % patients, i, TYPES[i & (TYPES.length - 1)], timestamp++);
+        }
+        storage.addPatientData(batch);
+        batch.clear();
+    }
+}
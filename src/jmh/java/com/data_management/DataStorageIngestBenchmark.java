@@ -0,0 +1,60 @@
+package com.data_management;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures how {@link DataStorage#addPatientData} throughput scales with the number of ingest
+ * threads. Each thread feeds its own range of patients, as separate data readers would, so
+ * the threads only share the storage's patient map. Runs with one thread per core; compare
+ * with {@code -t 1}, {@code -t 2}, ... for the scaling curve.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class DataStorageIngestBenchmark {
+    private static final int PATIENTS_PER_THREAD = 100;
+
+    private DataStorage storage;
+    private final AtomicInteger threadIds = new AtomicInteger();
+
+    @Setup
+    public void setUp() {
+        storage = new DataStorage();
+        storage.getRetentionPolicies().setDefaultPolicy(RetentionPolicy.maxCount(10_000));
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+        private int firstPatient;
+        private int patient;
+        private long timestamp;
+
+        @Setup
+        public void setUp(DataStorageIngestBenchmark benchmark) {
+            firstPatient = benchmark.threadIds.getAndIncrement() * PATIENTS_PER_THREAD;
+        }
+    }
+
+    @Benchmark
+    public void addPatientData(Reader reader) {
+        reader.patient = reader.patient + 1 == PATIENTS_PER_THREAD ? 0 : reader.patient + 1;
+        storage.addPatientData(reader.firstPatient + reader.patient, 0.5, "ECG", ++reader.timestamp);
+    }
+}
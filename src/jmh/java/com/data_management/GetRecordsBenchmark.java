@@ -0,0 +1,56 @@
+package com.data_management;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Patient#getRecords} for histories of different sizes, for the whole
+ * history and for the last minute of it. The patient has readings of three types, one per
+ * second each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetRecordsBenchmark {
+    private static final String[] TYPES = {"ECG", "BloodSaturation", "BloodPressureSystolic"};
+
+    @Param({"1000", "100000", "1000000"})
+    public int history;
+
+    private Patient patient;
+    private long newest;
+
+    @Setup
+    public void setUp() {
+        patient = new Patient(1);
+        for (int i = 0; i < history; i++) {
+            patient.addRecord(i % 100, TYPES[i % TYPES.length], (i / TYPES.length) * 1000L);
+        }
+        newest = ((history - 1) / TYPES.length) * 1000L;
+    }
+
+    @Benchmark
+    public List<PatientRecord> wholeHistory() {
+        return patient.getRecords(0, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<PatientRecord> lastMinute() {
+        return patient.getRecords(newest - 60_000, newest);
+    }
+}
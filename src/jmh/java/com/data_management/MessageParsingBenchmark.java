@@ -0,0 +1,116 @@
+package com.data_management;
+
+import com.data_management.data_reader_impl.FileDataReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures how the readers turn text into readings: one WebSocket message, and a CSV file of
+ * {@value #FILE_LINES} lines read by {@link FileDataReader}, line by line and in bulk mode. The readings go to a storage
+ * that only hands them to a blackhole, so storing does not count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageParsingBenchmark {
+    private static final int FILE_LINES = 1_000_000;
+    private static final String[] MESSAGES = {
+            "17,1700000000000,ECG,0.734561",
+            "17,1700000000500,BloodPressureSystolic,121.0",
+            "17,1700000001000,Saturation,97.0",
+            "17,1700000001500,HeartRate,72.0"
+    };
+
+    private final RecordParser parser = new RecordParser(RecordParser.Layout.MESSAGE);
+    private final RecordBatch batch = new RecordBatch(256);
+    private Path file;
+    private int next;
+    private DataStorage sink;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws IOException {
+        Logger.getLogger(FileDataReader.class.getPackage().getName()).setLevel(Level.WARNING);
+        sink = new DataStorage() {
+            @Override
+            public void addPatientData(int patientId, double measurementValue, String recordType, long timestamp) {
+                blackhole.consume(patientId);
+                blackhole.consume(measurementValue);
+                blackhole.consume(recordType);
+                blackhole.consume(timestamp);
+            }
+
+            @Override
+            public void addPatientData(RecordBatch batch) {
+                for (int i = 0; i < batch.size(); i++) {
+                    addPatientData(batch.getPatientId(i), batch.getMeasurementValue(i), batch.getRecordType(i),
+                            batch.getTimestamp(i));
+                }
+            }
+        };
+        file = Files.createTempFile("readings", ".csv");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("patientId,measurementValue,recordType,timestamp");
+            for (int i = 0; i < FILE_LINES; i++) {
+                out.println((i % 100) + "," + (60 + i % 40) + ".5,HeartRate," + (1700000000000L + i));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void webSocketMessage() {
+        String message = MESSAGES[next++ & (MESSAGES.length - 1)];
+        WebSocketClient.parseMessage(message, parser, batch);
+        if (batch.isFull()) {
+            sink.addPatientData(batch);
+            batch.clear();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void fileReader() throws IOException {
+        FileDataReader reader = new FileDataReader(file.toString());
+        try {
+            reader.readData(sink);
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void bulkFileReader() throws IOException {
+        FileDataReader reader = new FileDataReader(file.toString(), Runtime.getRuntime().availableProcessors());
+        try {
+            reader.readData(sink);
+        } finally {
+            reader.close();
+        }
+    }
+}
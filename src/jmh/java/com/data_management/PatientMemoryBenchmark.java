@@ -0,0 +1,86 @@
+package com.data_management;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the retained heap of {@value #READINGS} readings in the former
+ * {@code List<PatientRecord>} layout against the columnar {@link RecordSeries} layout used by
+ * {@link Patient}. Each operation builds one history; the {@code retainedMegabytes} counter
+ * is the heap still in use after a full collection, and the time only shows the cost of
+ * building it. JMH sums event counters over the measured iterations, so there is one.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class PatientMemoryBenchmark {
+    private static final int READINGS = 1_000_000;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Heap {
+        public double retainedMegabytes;
+        private long before;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedMegabytes = 0;
+        }
+
+        private void start() {
+            before = usedHeap();
+        }
+
+        private void stop() {
+            retainedMegabytes = (usedHeap() - before) / (1024.0 * 1024.0);
+        }
+    }
+
+    @Benchmark
+    public Object recordList(Heap heap) {
+        heap.start();
+        List<PatientRecord> records = new ArrayList<>();
+        for (int i = 0; i < READINGS; i++) {
+            // Record types parsed from the wire are fresh strings, not shared literals.
+            records.add(new PatientRecord(1, i, new String("ECG"), 1_700_000_000_000L + i));
+        }
+        heap.stop();
+        return records;
+    }
+
+    @Benchmark
+    public Object columnarPatient(Heap heap) {
+        heap.start();
+        Patient patient = new Patient(1);
+        for (int i = 0; i < READINGS; i++) {
+            patient.addRecord(i, new String("ECG"), 1_700_000_000_000L + i);
+        }
+        heap.stop();
+        return patient;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
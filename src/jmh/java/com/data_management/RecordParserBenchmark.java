@@ -0,0 +1,61 @@
+package com.data_management;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link RecordParser} with parsing by {@link String#split} and the
+ * {@code parseInt}/{@code parseLong}/{@code parseDouble} calls the readers used before, on
+ * a mix of messages like those the simulator sends. Run with {@code -prof gc} to compare
+ * the allocation per message as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecordParserBenchmark {
+    private static final String[] MESSAGES = {
+            "17,1700000000000,ECG,0.7345612309876543",
+            "17,1700000000500,SystolicPressure,121.0",
+            "17,1700000001000,Saturation,97.0",
+            "17,1700000001500,WhiteBloodCells,7.312458"
+    };
+
+    private final RecordParser parser = new RecordParser(RecordParser.Layout.MESSAGE);
+    private int next;
+
+    @Benchmark
+    public void split(Blackhole blackhole) {
+        String[] parts = MESSAGES[next++ & (MESSAGES.length - 1)].split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException();
+        }
+        blackhole.consume(Integer.parseInt(parts[0]));
+        blackhole.consume(Long.parseLong(parts[1]));
+        blackhole.consume(parts[2]);
+        blackhole.consume(Double.parseDouble(parts[3]));
+    }
+
+    @Benchmark
+    public void recordParser(Blackhole blackhole) {
+        if (!parser.parse(MESSAGES[next++ & (MESSAGES.length - 1)])) {
+            throw new IllegalArgumentException(parser.getError());
+        }
+        blackhole.consume(parser.getPatientId());
+        blackhole.consume(parser.getTimestamp());
+        blackhole.consume(parser.getLabel());
+        blackhole.consume(parser.getValue());
+    }
+}
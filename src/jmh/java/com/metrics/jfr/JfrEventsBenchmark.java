@@ -0,0 +1,68 @@
+package com.metrics.jfr;
+
+import com.data_management.DataStorage;
+import com.data_management.RetentionPolicy;
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the {@link StoreEvent} instrumentation costs
+ * {@link DataStorage#addPatientData} with the {@link JfrEvents} switch on: without a
+ * recording, with a recording that leaves the event disabled, and with one that enables
+ * it. Run with {@code -prof gc}; unless the event is recorded, a store allocates nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JfrEventsBenchmark {
+    @Param({"none", "disabled", "enabled"})
+    public String recording;
+
+    private DataStorage storage;
+    private Recording active;
+    private long timestamp;
+
+    @Setup
+    public void setUp() {
+        JfrEvents.setActive(true);
+        storage = new DataStorage();
+        storage.getRetentionPolicies().setDefaultPolicy(RetentionPolicy.maxCount(1_000));
+        if (!recording.equals("none")) {
+            active = new Recording();
+            if (recording.equals("enabled")) {
+                active.enable("com.signal_project.Store");
+            } else {
+                active.disable("com.signal_project.Store");
+            }
+            active.start();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (active != null) {
+            active.close();
+        }
+    }
+
+    @Benchmark
+    public void addPatientData() {
+        storage.addPatientData(1, 72.0, "HeartRate", ++timestamp);
+    }
+}
@@ -1,74 +1,599 @@
 package com.alerts;
 
+import com.alerts.cep.EventPattern;
 import com.alerts.decorator_pattern.ConcreteAlert;
+import com.alerts.dispatch.AlertCodes;
+import com.alerts.dispatch.AlertDispatcher;
+import com.alerts.dispatch.AlertPriority;
 import com.alerts.factory_pattern.AlertFactory;
 import com.alerts.factory_pattern.BloodOxygenAlertFactory;
 import com.alerts.factory_pattern.BloodPressureAlertFactory;
 import com.alerts.factory_pattern.ECGAlertFactory;
-import com.alerts.strategy_pattern.AlertStrategy;
-import com.alerts.strategy_pattern.BloodPressureStrategy;
-import com.alerts.strategy_pattern.HeartRateStrategy;
-import com.alerts.strategy_pattern.OxygenSaturationStrategy;
+import com.alerts.rules.AlertRules;
+import com.alerts.rules.CompiledRule;
+import com.alerts.rules.RuleSet;
+import com.alerts.strategy_pattern.AlertSink;
+import com.alerts.strategy_pattern.StreamingAlertStrategy;
 import com.data_management.DataStorage;
 import com.data_management.Patient;
-import com.data_management.PatientRecord;
+import com.data_management.PatientSnapshot;
+import com.data_management.RecordBatch;
+import com.data_management.StreamCursor;
+import com.metrics.Counter;
+import com.metrics.LatencyHistogram;
+import com.metrics.LatencyMetrics;
+import com.metrics.MetricsRegistry;
+import com.metrics.TimingStats;
+import com.metrics.jfr.EvaluationEvent;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.logging.Logger;
 
+/**
+ * Evaluates patient data against the alert rules and the cross-signal rules.
+ * Evaluation is incremental: for every patient the generator keeps a {@link StreamCursor}
+ * that remembers, per record type, which readings it has already streamed. A later call
+ * only passes on readings that arrived since, so the cost follows the amount of new data
+ * instead of the length of the history, and alerts for old records are not raised again.
+ * A reading that shares its timestamp with one already evaluated, or arrives late with an
+ * older timestamp, is still evaluated; late readings are passed on before the others.
+ * Cross-signal rules remember the newest timestamp they have joined instead, so a late
+ * reading older than that is not joined again.
+ *
+ * <p>The rules come from a {@link RuleSet}, by default the built-in one from
+ * {@link AlertRules#loadDefault()}. The single-signal rules are {@link StreamingAlertStrategy streaming}:
+ * new readings are pushed to them one at a time straight from the patient snapshot, and the
+ * look-back context lives in per-patient rule state instead of being re-read.
+ * Rules spanning two signals are {@link CrossSignalRule}s evaluated with a linear-time
+ * {@link TemporalJoin}. Multi-step {@link EventPattern}s follow the readings and the
+ * conditions raised by all rules. The events of an evaluation are collected and passed to
+ * the patterns in timestamp order once the cross-signal rules have been joined, so a
+ * condition they raise reaches the patterns before the newer readings of the same
+ * evaluation.</p>
+ *
+ * <p>{@link #updateRules(RuleSet)} swaps in a new rule set atomically while ingest and
+ * evaluation go on. Each patient switches at the start of its next evaluation. Rules whose
+ * definition is unchanged keep their windows; new or changed rules start with empty windows
+ * and only evaluate readings that arrive after the switch.</p>
+ *
+ * <p>Alerts pass through an {@link AlertStateTracker}, so a condition that persists over
+ * many readings is reported once when it opens and once when it resolves. Alerts triggered
+ * by {@code Alert} records are the exception: they are never resolved, so every one of them
+ * is raised.</p>
+ *
+ * <p>Alerts are logged on the evaluating thread, or, if the generator has an
+ * {@link AlertDispatcher}, handed to it for asynchronous delivery as primitive events.
+ * Resolutions take the same lane as the alert they resolve, so they are delivered after it.
+ * An alert or resolution the dispatcher has to drop because its lane is full is logged at
+ * {@link java.util.logging.Level#SEVERE} on the evaluating thread instead of being lost.</p>
+ *
+ * <p>Every evaluation is timed into the {@link LatencyMetrics#EVALUATE} histogram and the
+ * patient's {@link TimingStats}. The cost of the single rules is sampled on every 64th
+ * reading, that of the patterns on every 64th event, and that of the cross-signal rules on
+ * every evaluation, into the {@link LatencyMetrics#RULE_PREFIX rule} histograms.</p>
+ *
+ * <p>Different patients can be evaluated concurrently, see {@link #evaluateAll(List, ForkJoinPool)}
+ * and {@link EvaluationScheduler}; evaluations of the same patient must not overlap.</p>
+ */
 public class AlertGenerator {
     private static final Logger LOGGER = Logger.getLogger(AlertGenerator.class.getName());
+    private static final int SEQUENTIAL_THRESHOLD = 8;
+    private static final int RULE_SAMPLE_MASK = 63;
+    private static final LatencyHistogram EVALUATE_LATENCY =
+            LatencyMetrics.getInstance().histogram(LatencyMetrics.EVALUATE);
+    private static final LatencyHistogram INGEST_TO_ALERT_LATENCY =
+            LatencyMetrics.getInstance().histogram(LatencyMetrics.INGEST_TO_ALERT);
+    private static final Counter EVALUATIONS = MetricsRegistry.getInstance()
+            .counter("alert_evaluations_total", "Patient evaluations");
+    private static final Counter ALERTS_RAISED = MetricsRegistry.getInstance()
+            .counter("alerts_raised_total", "Alerts raised after deduplication");
+    private static final Counter ALERTS_RESOLVED = MetricsRegistry.getInstance()
+            .counter("alerts_resolved_total", "Alerts resolved");
+    private static final Map<String, AlertFactory> ALERT_FACTORIES = Map.of(
+            "BloodPressure", new BloodPressureAlertFactory(),
+            "BloodOxygen", new BloodOxygenAlertFactory(),
+            "ECG", new ECGAlertFactory()
+    );
     private DataStorage dataStorage;
-    private List<AlertStrategy> strategies;
+    private final AlertStateTracker alertStates;
+    private final AlertSink triggeredSink;
+    private final AlertDispatcher dispatcher;
+    private final AtomicReference<BoundRules> rules = new AtomicReference<>();
+    private final Map<Integer, PatientState> patientStates = new ConcurrentHashMap<>();
 
     public AlertGenerator(DataStorage dataStorage) {
+        this(dataStorage, new AlertStateTracker());
+    }
+
+    /**
+     * Constructs a generator whose alerts pass through the given alert-state layer, which
+     * suppresses duplicates and only lets opened and resolved alerts through.
+     *
+     * @param dataStorage the storage holding the patient data
+     * @param alertStates the tracker of open alerts
+     */
+    public AlertGenerator(DataStorage dataStorage, AlertStateTracker alertStates) {
+        this(dataStorage, alertStates, null);
+    }
+
+    /**
+     * Constructs a generator that hands its alerts to a dispatcher instead of logging them
+     * on the evaluating thread. Alerts are queued with the priority of the rule raising them.
+     *
+     * @param dataStorage the storage holding the patient data
+     * @param alertStates the tracker of open alerts
+     * @param dispatcher  the dispatcher delivering the alerts, or {@code null} to log them directly
+     */
+    public AlertGenerator(DataStorage dataStorage, AlertStateTracker alertStates, AlertDispatcher dispatcher) {
+        this(dataStorage, alertStates, dispatcher, AlertRules.loadDefault());
+    }
+
+    /**
+     * Constructs a generator evaluating the given rules.
+     *
+     * @param dataStorage the storage holding the patient data
+     * @param alertStates the tracker of open alerts
+     * @param dispatcher  the dispatcher delivering the alerts, or {@code null} to log them directly
+     * @param ruleSet     the alert rules
+     */
+    public AlertGenerator(DataStorage dataStorage, AlertStateTracker alertStates, AlertDispatcher dispatcher,
+                          RuleSet ruleSet) {
         this.dataStorage = dataStorage;
-        this.strategies = List.of(
-                new BloodPressureStrategy(),
-                new OxygenSaturationStrategy(),
-                new HeartRateStrategy()
-        );
+        this.alertStates = alertStates;
+        this.dispatcher = dispatcher;
+        this.triggeredSink = sinkFor("BloodPressure", AlertPriority.NORMAL);
+        updateRules(ruleSet);
+    }
+
+    /**
+     * Replaces the alert rules. The swap is atomic and does not wait for running
+     * evaluations; each patient moves to the new rules at its next evaluation.
+     * Open alerts stay open, so a condition kept by the new rules is not raised again.
+     *
+     * @param ruleSet the new rules
+     */
+    public void updateRules(RuleSet ruleSet) {
+        rules.set(new BoundRules(ruleSet));
+    }
+
+    public RuleSet getRules() {
+        return rules.get().ruleSet;
     }
 
     public void evaluateData(Patient patient) {
-        List<PatientRecord> records = dataStorage.getRecords(patient.getPatientId(), 0, Long.MAX_VALUE);
-        int patientId = patient.getPatientId();
-        AlertFactory bpFactory = new BloodPressureAlertFactory();
-        AlertFactory oxygenFactory = new BloodOxygenAlertFactory();
-        AlertFactory ecgFactory = new ECGAlertFactory();
-
-        for (AlertStrategy strategy : strategies) {
-            if (strategy instanceof BloodPressureStrategy) {
-                strategy.checkAlert(records, patientId, bpFactory);
-            } else if (strategy instanceof OxygenSaturationStrategy) {
-                strategy.checkAlert(records, patientId, oxygenFactory);
-            } else if (strategy instanceof HeartRateStrategy) {
-                strategy.checkAlert(records, patientId, ecgFactory);
+        evaluateData(patient.getPatientId());
+    }
+
+    /**
+     * Evaluates the given patients in parallel on a fork-join pool. The list is split into
+     * ranges that idle workers steal from each other, and every patient is evaluated by a
+     * single task, so the alerts of one patient are raised in the same order as with
+     * sequential evaluation. Returns once every patient has been evaluated.
+     * The list must not contain a patient twice.
+     *
+     * @param patients the patients to evaluate
+     * @param pool     the pool running the evaluations, e.g., from {@link #newEvaluationPool(int)}
+     */
+    public void evaluateAll(List<Patient> patients, ForkJoinPool pool) {
+        pool.invoke(new EvaluateRange(patients, 0, patients.size()));
+    }
+
+    /**
+     * Creates a pool for parallel evaluation. The pool runs submitted tasks in FIFO order,
+     * which suits event-style submission by an {@link EvaluationScheduler}.
+     *
+     * @param parallelism the number of worker threads, e.g., the number of cores
+     * @return a new fork-join pool
+     */
+    public static ForkJoinPool newEvaluationPool(int parallelism) {
+        return new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+
+    /**
+     * Evaluates the readings of a patient that arrived since the previous evaluation.
+     * Calls for the same patient must not overlap; calls for different patients may.
+     *
+     * @param patientId the unique identifier of the patient
+     */
+    public void evaluateData(int patientId) {
+        evaluateData(patientId, RecordBatch.NOT_RECEIVED);
+    }
+
+    /**
+     * Evaluates the readings of a patient that arrived since the previous evaluation, and
+     * records the time from receiving them until each alert this evaluation raises in the
+     * {@link LatencyMetrics#INGEST_TO_ALERT} histogram.
+     * Calls for the same patient must not overlap; calls for different patients may.
+     *
+     * @param patientId     the unique identifier of the patient
+     * @param receivedNanos the {@link System#nanoTime()} at which the oldest reading not
+     *                      evaluated yet was received, or {@link RecordBatch#NOT_RECEIVED}
+     *                      to record nothing
+     */
+    public void evaluateData(int patientId, long receivedNanos) {
+        long start = System.nanoTime();
+        EvaluationEvent evaluationEvent = EvaluationEvent.start();
+        PatientSnapshot snapshot = dataStorage.getSnapshot(patientId);
+        long watermark = snapshot.getWatermark();
+        PatientState state = patientStates.computeIfAbsent(patientId, PatientState::new);
+        state.receivedNanos = receivedNanos;
+        state.patternEvents.clear();
+        BoundRules bound = rules.get();
+        if (state.rules != bound) {
+            state.bind(bound);
+        }
+        List<CompiledRule<?>> compiledRules = bound.ruleSet.getRules();
+        long readingsBefore = state.streamedReadings;
+
+        snapshot.forEachNew(state.cursor, (recordType, timestamp, value) -> {
+            boolean sample = (++state.streamedReadings & RULE_SAMPLE_MASK) == 0;
+            bound.queuePattern(state, recordType, timestamp, value);
+            for (int r : bound.ruleSet.rulesFor(recordType)) {
+                if (sample) {
+                    long ruleStart = System.nanoTime();
+                    push(compiledRules.get(r), state.ruleStates[r], recordType, timestamp, value, bound.sinks[r]);
+                    bound.ruleLatencies[r].recordSince(ruleStart);
+                } else {
+                    push(compiledRules.get(r), state.ruleStates[r], recordType, timestamp, value, bound.sinks[r]);
+                }
             }
+            // Triggered alerts are one-shot events that are never resolved, so they bypass the tracker
+            if (recordType.equals("Alert")) {
+                triggeredSink.raise(patientId, "TriggeredAlert", timestamp);
+            }
+        });
+        if (watermark > state.evaluatedUpTo) {
+            state.evaluatedUpTo = watermark;
         }
 
-        // Hypotensive Hypoxemia Alert
-        for (PatientRecord bpRecord : records) {
-            if (bpRecord.getRecordType().equals("BloodPressureSystolic") && bpRecord.getMeasurementValue() < 90) {
-                for (PatientRecord satRecord : records) {
-                    if (satRecord.getRecordType().equals("BloodSaturation") &&
-                            satRecord.getMeasurementValue() < 92 &&
-                            Math.abs(bpRecord.getTimestamp() - satRecord.getTimestamp()) < 60000) {
-                        ConcreteAlert alert = bpFactory.createAlert(String.valueOf(patientId), "HypotensiveHypoxemia", bpRecord.getTimestamp());
-                        LOGGER.info("Alert triggered: Patient " + alert.getPatientId() + ", Condition: " +
-                                alert.getCondition() + ", Type: " + alert.getAlertType() + ", Timestamp: " + alert.getTimestamp());
+        // Cross-signal rules, e.g., Hypotensive Hypoxemia
+        List<CrossSignalRule> crossSignalRules = bound.ruleSet.getCrossSignalRules();
+        for (int r = 0; r < crossSignalRules.size(); r++) {
+            if (state.crossSignalUpTo[r] < watermark) {
+                long ruleStart = System.nanoTime();
+                crossSignalRules.get(r).evaluate(snapshot, state.crossSignalUpTo[r], bound.crossSignalSinks[r]);
+                bound.crossSignalLatencies[r].recordSince(ruleStart);
+                state.crossSignalUpTo[r] = watermark;
+            }
+        }
+        bound.feedPatterns(state);
+
+        long elapsed = System.nanoTime() - start;
+        EVALUATE_LATENCY.record(elapsed);
+        EVALUATIONS.increment();
+        EvaluationEvent.finish(evaluationEvent, patientId, state.streamedReadings - readingsBefore,
+                compiledRules.size() + bound.ruleSet.getCrossSignalRules().size() + bound.ruleSet.getPatterns().size());
+        state.evaluationTime.record(elapsed);
+    }
+
+    /**
+     * Returns the evaluation timings of a patient.
+     *
+     * @param patientId the unique identifier of the patient
+     * @return the timings, or {@code null} if the patient was never evaluated
+     */
+    public TimingStats getEvaluationStats(int patientId) {
+        PatientState state = patientStates.get(patientId);
+        return state == null ? null : state.evaluationTime;
+    }
+
+    /**
+     * Returns the patients that took the most evaluation time in total.
+     *
+     * @param limit the maximum number of patients
+     * @return the patient IDs, most expensive first
+     */
+    public List<Integer> getSlowestPatients(int limit) {
+        List<Integer> patientIds = new ArrayList<>(patientStates.keySet());
+        patientIds.sort(Comparator.comparingDouble(
+                (Integer patientId) -> patientStates.get(patientId).evaluationTime.getTotalMillis()).reversed());
+        return patientIds.subList(0, Math.min(limit, patientIds.size()));
+    }
+
+    private AlertSink sinkFor(String alertType, AlertPriority priority) {
+        AlertFactory factory = ALERT_FACTORIES.getOrDefault(alertType,
+                (patientId, condition, timestamp) -> new ConcreteAlert(patientId, condition, timestamp, alertType));
+        return new AlertSink() {
+            @Override
+            public void raise(int patientId, String condition, long timestamp) {
+                ALERTS_RAISED.increment();
+                recordIngestToAlert(patientId);
+                if (dispatcher == null) {
+                    triggerAlert(factory.createAlert(String.valueOf(patientId), condition, timestamp));
+                } else if (!dispatcher.dispatch(patientId, AlertCodes.intern(alertType, condition), timestamp, priority)) {
+                    LOGGER.severe("Alert dispatch queue full, alert triggered: Patient " + patientId
+                            + ", Condition: " + condition + ", Type: " + alertType + ", Timestamp: " + timestamp);
+                }
+            }
+
+            @Override
+            public void resolve(int patientId, String condition, long timestamp) {
+                ALERTS_RESOLVED.increment();
+                if (dispatcher == null) {
+                    LOGGER.info("Alert resolved: Patient " + patientId + ", Condition: " + condition
+                            + ", Timestamp: " + timestamp);
+                } else if (!dispatcher.dispatchResolution(patientId, AlertCodes.intern(alertType, condition),
+                        timestamp, priority)) {
+                    LOGGER.severe("Alert dispatch queue full, alert resolved: Patient " + patientId
+                            + ", Condition: " + condition + ", Timestamp: " + timestamp);
+                }
+            }
+        };
+    }
+
+    /**
+     * Records the time since the readings of the running evaluation of a patient were
+     * received; alerts are only raised from evaluations, on the evaluating thread.
+     */
+    private void recordIngestToAlert(int patientId) {
+        PatientState state = patientStates.get(patientId);
+        if (state != null && state.receivedNanos != RecordBatch.NOT_RECEIVED) {
+            INGEST_TO_ALERT_LATENCY.record(System.nanoTime() - state.receivedNanos);
+        }
+    }
+
+    private void triggerAlert(ConcreteAlert alert) {
+        LOGGER.info("Alert triggered: Patient " + alert.getPatientId() + ", Condition: " +
+                alert.getCondition() + ", Type: " + alert.getAlertType() + ", Timestamp: " + alert.getTimestamp());
+    }
+
+    public AlertStateTracker getAlertStates() {
+        return alertStates;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S> void push(StreamingAlertStrategy<S> strategy, Object state, String recordType,
+                                 long timestamp, double value, AlertSink sink) {
+        strategy.onRecord((S) state, recordType, timestamp, value, sink);
+    }
+
+    /**
+     * Evaluates a range of the patient list, splitting it in halves while it is larger
+     * than {@link #SEQUENTIAL_THRESHOLD} patients.
+     */
+    private final class EvaluateRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Patient> patients;
+        private final int from;
+        private final int to;
+
+        private EvaluateRange(List<Patient> patients, int from, int to) {
+            this.patients = patients;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    evaluateData(patients.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new EvaluateRange(patients, from, middle), new EvaluateRange(patients, middle, to));
+        }
+    }
+
+    /**
+     * A rule set with the sinks its alerts go to, built once per rule set so that every
+     * rule reports with its own alert type and priority. The sinks of rules whose condition
+     * is a pattern step also pass every raised condition on to the patterns.
+     */
+    private final class BoundRules {
+        private final RuleSet ruleSet;
+        private final AlertSink[] sinks;
+        private final AlertSink[] crossSignalSinks;
+        private final AlertSink[] patternSinks;
+        private final LatencyHistogram[] ruleLatencies;
+        private final LatencyHistogram[] crossSignalLatencies;
+        private final LatencyHistogram[] patternLatencies;
+
+        private BoundRules(RuleSet ruleSet) {
+            this.ruleSet = ruleSet;
+            List<CompiledRule<?>> compiledRules = ruleSet.getRules();
+            LatencyMetrics metrics = LatencyMetrics.getInstance();
+            this.sinks = new AlertSink[compiledRules.size()];
+            this.ruleLatencies = new LatencyHistogram[sinks.length];
+            for (int r = 0; r < sinks.length; r++) {
+                CompiledRule<?> rule = compiledRules.get(r);
+                ruleLatencies[r] = metrics.ruleHistogram(rule.getCondition());
+                AlertSink sink = alertStates.track(sinkFor(rule.getAlertType(), rule.getPriority()), rule.getPriority());
+                sinks[r] = ruleSet.patternsFor(rule.getCondition()).length == 0 ? sink : feedingPatterns(sink);
+            }
+            List<CrossSignalRule> crossSignalRules = ruleSet.getCrossSignalRules();
+            this.crossSignalSinks = new AlertSink[crossSignalRules.size()];
+            this.crossSignalLatencies = new LatencyHistogram[crossSignalSinks.length];
+            for (int r = 0; r < crossSignalSinks.length; r++) {
+                CrossSignalRule rule = crossSignalRules.get(r);
+                crossSignalLatencies[r] = metrics.ruleHistogram(rule.getCondition());
+                AlertSink sink = alertStates.track(sinkFor(rule.getAlertType(), rule.getPriority()), rule.getPriority());
+                crossSignalSinks[r] = ruleSet.patternsFor(rule.getCondition()).length == 0 ? sink : feedingPatterns(sink);
+            }
+            List<EventPattern> patterns = ruleSet.getPatterns();
+            this.patternSinks = new AlertSink[patterns.size()];
+            this.patternLatencies = new LatencyHistogram[patternSinks.length];
+            for (int p = 0; p < patternSinks.length; p++) {
+                EventPattern pattern = patterns.get(p);
+                patternLatencies[p] = metrics.ruleHistogram(pattern.getCondition());
+                patternSinks[p] = alertStates.track(sinkFor(pattern.getAlertType(), pattern.getPriority()), pattern.getPriority());
+            }
+        }
+
+        private void queuePattern(PatientState state, String eventType, long timestamp, double value) {
+            if (ruleSet.patternsFor(eventType).length != 0) {
+                state.patternEvents.add(eventType, timestamp, value);
+            }
+        }
+
+        /**
+         * Passes the queued events of an evaluation to the patterns, oldest first.
+         */
+        private void feedPatterns(PatientState state) {
+            PatternEvents events = state.patternEvents;
+            List<EventPattern> patterns = ruleSet.getPatterns();
+            for (int e = 0; e < events.size; e++) {
+                String eventType = events.types[e];
+                boolean sample = (++state.patternEventCount & RULE_SAMPLE_MASK) == 0;
+                for (int p : ruleSet.patternsFor(eventType)) {
+                    long patternStart = sample ? System.nanoTime() : 0;
+                    push(patterns.get(p), state.patternStates[p], eventType, events.timestamps[e], events.values[e],
+                            patternSinks[p]);
+                    if (sample) {
+                        patternLatencies[p].recordSince(patternStart);
+                    }
+                }
+            }
+            events.clear();
+        }
+
+        /**
+         * Wraps a rule's sink so that raised conditions also reach the patterns. Every raise
+         * counts, including those the alert-state layer suppresses as duplicates. A condition
+         * has no value, so pattern steps on conditions carry no limit.
+         */
+        private AlertSink feedingPatterns(AlertSink downstream) {
+            return new AlertSink() {
+                @Override
+                public void raise(int patientId, String condition, long timestamp) {
+                    downstream.raise(patientId, condition, timestamp);
+                    PatientState state = patientStates.get(patientId);
+                    if (state != null && state.rules == BoundRules.this) {
+                        queuePattern(state, condition, timestamp, Double.NaN);
                     }
                 }
+
+                @Override
+                public void resolve(int patientId, String condition, long timestamp) {
+                    downstream.resolve(patientId, condition, timestamp);
+                }
+            };
+        }
+    }
+
+    /**
+     * What the generator remembers about one patient between evaluations: the rules it was
+     * last evaluated with, their state, the readings already streamed and, per cross-signal
+     * rule, the newest timestamp already joined. It also holds when the readings of the
+     * running evaluation were received.
+     */
+    private static final class PatientState {
+        private final int patientId;
+        private final TimingStats evaluationTime = new TimingStats();
+        private BoundRules rules;
+        private Object[] ruleStates;
+        private Object[] patternStates;
+        private long[] crossSignalUpTo;
+        private final StreamCursor cursor = new StreamCursor();
+        private long evaluatedUpTo = Long.MIN_VALUE;
+        private long streamedReadings;
+        private long patternEventCount;
+        private final PatternEvents patternEvents = new PatternEvents();
+        private long receivedNanos = RecordBatch.NOT_RECEIVED;
+
+        private PatientState(int patientId) {
+            this.patientId = patientId;
+        }
+
+        /**
+         * Switches to other rules. Rules whose definition did not change keep their state and
+         * cross-signal position; the others start empty, and cross-signal rules start at the
+         * newest timestamp evaluated so far, so readings seen before are not alerted again.
+         */
+        private void bind(BoundRules rules) {
+            RuleSet previous = this.rules != null ? this.rules.ruleSet : null;
+            List<CompiledRule<?>> compiledRules = rules.ruleSet.getRules();
+            Object[] states = new Object[compiledRules.size()];
+            for (int r = 0; r < states.length; r++) {
+                CompiledRule<?> rule = compiledRules.get(r);
+                int old = previous == null ? -1 : indexOfUnchanged(rules.ruleSet, previous, previous.getRules(),
+                        rule, CompiledRule::getCondition);
+                states[r] = old >= 0 ? ruleStates[old] : rule.newState(patientId);
+            }
+            List<EventPattern> patterns = rules.ruleSet.getPatterns();
+            Object[] patternStates = new Object[patterns.size()];
+            for (int p = 0; p < patternStates.length; p++) {
+                EventPattern pattern = patterns.get(p);
+                int old = previous == null ? -1 : indexOfUnchanged(rules.ruleSet, previous, previous.getPatterns(),
+                        pattern, EventPattern::getCondition);
+                patternStates[p] = old >= 0 ? this.patternStates[old] : pattern.newState(patientId);
+            }
+            List<CrossSignalRule> crossSignalRules = rules.ruleSet.getCrossSignalRules();
+            long[] crossSignalUpTo = new long[crossSignalRules.size()];
+            for (int r = 0; r < crossSignalUpTo.length; r++) {
+                int old = previous == null ? -1 : indexOfUnchanged(rules.ruleSet, previous,
+                        previous.getCrossSignalRules(), crossSignalRules.get(r), CrossSignalRule::getCondition);
+                crossSignalUpTo[r] = old >= 0 ? this.crossSignalUpTo[old] : evaluatedUpTo;
+            }
+            this.ruleStates = states;
+            this.patternStates = patternStates;
+            this.crossSignalUpTo = crossSignalUpTo;
+            this.rules = rules;
+        }
+
+        /**
+         * Returns the position of a rule among the previous rules, if it is the same rule or
+         * has the same condition and definition there.
+         */
+        private static <R> int indexOfUnchanged(RuleSet current, RuleSet previous, List<R> previousRules, R rule,
+                                                Function<R, String> condition) {
+            String name = condition.apply(rule);
+            for (int i = 0; i < previousRules.size(); i++) {
+                R candidate = previousRules.get(i);
+                if (candidate == rule
+                        || condition.apply(candidate).equals(name) && current.isUnchanged(name, previous)) {
+                    return i;
+                }
             }
+            return -1;
         }
+    }
+
+    /**
+     * The events of one evaluation for the patterns, kept in timestamp order. Readings and
+     * the conditions raised from them arrive nearly in order, so an event is inserted by
+     * moving the few newer ones; events with the same timestamp keep the order they came in.
+     */
+    private static final class PatternEvents {
+        private String[] types = new String[16];
+        private long[] timestamps = new long[16];
+        private double[] values = new double[16];
+        private int size;
 
-        // Triggered Alerts
-        for (PatientRecord record : records) {
-            if (record.getRecordType().equals("Alert")) {
-                ConcreteAlert alert = bpFactory.createAlert(String.valueOf(patientId), "TriggeredAlert", record.getTimestamp());
-                LOGGER.info("Alert triggered: Patient " + alert.getPatientId() + ", Condition: " +
-                        alert.getCondition() + ", Type: " + alert.getAlertType() + ", Timestamp: " + alert.getTimestamp());
+        private void add(String type, long timestamp, double value) {
+            if (size == types.length) {
+                types = Arrays.copyOf(types, 2 * size);
+                timestamps = Arrays.copyOf(timestamps, 2 * size);
+                values = Arrays.copyOf(values, 2 * size);
+            }
+            int position = size;
+            while (position > 0 && timestamps[position - 1] > timestamp) {
+                position--;
             }
+            int newer = size - position;
+            System.arraycopy(types, position, types, position + 1, newer);
+            System.arraycopy(timestamps, position, timestamps, position + 1, newer);
+            System.arraycopy(values, position, values, position + 1, newer);
+            types[position] = type;
+            timestamps[position] = timestamp;
+            values[position] = value;
+            size++;
+        }
+
+        private void clear() {
+            Arrays.fill(types, 0, size, null);
+            size = 0;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,236 @@
+package com.alerts;
+
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.strategy_pattern.AlertSink;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sits between the alert strategies and the alert output and only lets state transitions
+ * through. Every (patient, condition) pair is either closed or open:
+ * <ul>
+ *     <li>a raise for a closed condition opens it and is passed on;</li>
+ *     <li>a raise for an open condition is a duplicate and is suppressed, unless the
+ *     condition was last raised more than the dedup window ago, in which case it counts as
+ *     a new episode and is passed on again;</li>
+ *     <li>a resolve for an open condition closes it and is passed on; a resolve for a
+ *     closed condition is ignored.</li>
+ * </ul>
+ * The open conditions of a patient form a small cache that is bounded per patient; when it
+ * is full, conditions not raised within the dedup window are dropped first, then the least
+ * recently raised one. In addition, each patient has a token bucket that limits how many
+ * alerts are opened per minute, so a patient whose readings flap around a threshold cannot
+ * flood the output. A rate-limited alert is remembered as open but not yet reported: its
+ * next raise is not a duplicate but tries again for a token, and its resolution is not passed
+ * on while it has not been reported. Alerts of {@link AlertPriority#HIGH} priority are not
+ * rate-limited.
+ *
+ * <p>All times are the timestamps of the readings, not the wall clock, so replaying stored
+ * data gives the same result as live evaluation.</p>
+ */
+public class AlertStateTracker {
+    public static final long DEFAULT_DEDUP_WINDOW_MILLIS = 300_000;
+    public static final int DEFAULT_MAX_OPEN_PER_PATIENT = 32;
+    public static final int DEFAULT_ALERTS_PER_MINUTE = 10;
+    private static final double MILLIS_PER_MINUTE = 60_000.0;
+
+    private final long dedupWindowMillis;
+    private final int maxOpenPerPatient;
+    private final int alertsPerMinute;
+    private final Map<Integer, PatientAlerts> patients = new ConcurrentHashMap<>();
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder resolved = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+
+    public AlertStateTracker() {
+        this(DEFAULT_DEDUP_WINDOW_MILLIS, DEFAULT_MAX_OPEN_PER_PATIENT, DEFAULT_ALERTS_PER_MINUTE);
+    }
+
+    /**
+     * @param dedupWindowMillis how long after its last raise an open condition keeps
+     *                          suppressing duplicates, in milliseconds
+     * @param maxOpenPerPatient the maximum number of open conditions tracked per patient
+     * @param alertsPerMinute   the number of alerts a patient may open per minute, which is
+     *                          also the burst allowed at once
+     */
+    public AlertStateTracker(long dedupWindowMillis, int maxOpenPerPatient, int alertsPerMinute) {
+        if (dedupWindowMillis < 0 || maxOpenPerPatient <= 0 || alertsPerMinute <= 0) {
+            throw new IllegalArgumentException("Invalid alert state configuration");
+        }
+        this.dedupWindowMillis = dedupWindowMillis;
+        this.maxOpenPerPatient = maxOpenPerPatient;
+        this.alertsPerMinute = alertsPerMinute;
+    }
+
+    /**
+     * Returns a sink that passes the transitions of the raises and resolves it receives on
+     * to the given sink, for alerts of {@link AlertPriority#NORMAL} priority.
+     *
+     * @param downstream the sink receiving opened and resolved alerts
+     * @return the tracking sink
+     */
+    public AlertSink track(AlertSink downstream) {
+        return track(downstream, AlertPriority.NORMAL);
+    }
+
+    /**
+     * Returns a sink that passes the transitions of the raises and resolves it receives on
+     * to the given sink.
+     *
+     * @param downstream the sink receiving opened and resolved alerts
+     * @param priority   the priority of the alerts; {@link AlertPriority#HIGH} ones bypass the rate limit
+     * @return the tracking sink
+     */
+    public AlertSink track(AlertSink downstream, AlertPriority priority) {
+        boolean rateLimited = priority != AlertPriority.HIGH;
+        return new AlertSink() {
+            @Override
+            public void raise(int patientId, String condition, long timestamp) {
+                if (open(patientId, condition, timestamp, rateLimited)) {
+                    downstream.raise(patientId, condition, timestamp);
+                }
+            }
+
+            @Override
+            public void resolve(int patientId, String condition, long timestamp) {
+                if (close(patientId, condition)) {
+                    downstream.resolve(patientId, condition, timestamp);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns whether a condition is currently open for a patient.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param condition the alert condition, e.g., "LowSaturation"
+     * @return {@code true} if the condition is open
+     */
+    public boolean isOpen(int patientId, String condition) {
+        PatientAlerts alerts = patients.get(patientId);
+        if (alerts == null) {
+            return false;
+        }
+        synchronized (alerts) {
+            return alerts.open.containsKey(condition);
+        }
+    }
+
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+
+    public long getResolvedCount() {
+        return resolved.sum();
+    }
+
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    private boolean open(int patientId, String condition, long timestamp, boolean rateLimit) {
+        PatientAlerts alerts = patients.get(patientId);
+        if (alerts == null) {
+            alerts = patients.computeIfAbsent(patientId, id -> new PatientAlerts(alertsPerMinute));
+        }
+        synchronized (alerts) {
+            OpenAlert alert = alerts.open.get(condition);
+            if (alert != null && alert.notified && timestamp - alert.lastRaised < dedupWindowMillis) {
+                alert.lastRaised = Math.max(alert.lastRaised, timestamp);
+                suppressed.increment();
+                return false;
+            }
+            if (alert == null) {
+                if (alerts.open.size() >= maxOpenPerPatient) {
+                    evictStale(alerts, timestamp);
+                }
+                alert = new OpenAlert();
+                alerts.open.put(condition, alert);
+            }
+            alert.lastRaised = timestamp;
+            alert.notified = !rateLimit || alerts.tryAcquire(timestamp, alertsPerMinute);
+            if (alert.notified) {
+                opened.increment();
+            } else {
+                rateLimited.increment();
+            }
+            return alert.notified;
+        }
+    }
+
+    private boolean close(int patientId, String condition) {
+        PatientAlerts alerts = patients.get(patientId);
+        if (alerts == null) {
+            return false;
+        }
+        synchronized (alerts) {
+            OpenAlert alert = alerts.open.remove(condition);
+            if (alert == null || !alert.notified) {
+                return false;
+            }
+            resolved.increment();
+            return true;
+        }
+    }
+
+    /**
+     * Makes room in a full cache: drops the conditions not raised within the dedup window,
+     * or the least recently raised one if all are recent.
+     */
+    private void evictStale(PatientAlerts alerts, long now) {
+        Iterator<OpenAlert> iterator = alerts.open.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().lastRaised >= dedupWindowMillis) {
+                iterator.remove();
+            }
+        }
+        if (alerts.open.size() >= maxOpenPerPatient) {
+            iterator = alerts.open.values().iterator();
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * The open conditions of one patient, in least recently raised order, and the
+     * patient's token bucket.
+     */
+    private static final class PatientAlerts {
+        private final LinkedHashMap<String, OpenAlert> open = new LinkedHashMap<>(16, 0.75f, true);
+        private double tokens;
+        private long refilledAt = Long.MIN_VALUE;
+
+        private PatientAlerts(int alertsPerMinute) {
+            this.tokens = alertsPerMinute;
+        }
+
+        private boolean tryAcquire(long timestamp, int alertsPerMinute) {
+            if (refilledAt == Long.MIN_VALUE) {
+                refilledAt = timestamp;
+            } else if (timestamp > refilledAt) {
+                tokens = Math.min(alertsPerMinute, tokens + (timestamp - refilledAt) * alertsPerMinute / MILLIS_PER_MINUTE);
+                refilledAt = timestamp;
+            }
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+
+    private static final class OpenAlert {
+        private long lastRaised;
+        private boolean notified;
+    }
+}
@@ -0,0 +1,75 @@
+package com.alerts;
+
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.strategy_pattern.AlertSink;
+import com.data_management.PatientSnapshot;
+
+import java.util.function.DoublePredicate;
+
+/**
+ * An alert condition that needs two different signals to be abnormal close together in
+ * time, e.g., low blood pressure and low saturation within a minute. The rule is evaluated
+ * with a {@link TemporalJoin} of the two series and raises one alert per qualifying reading
+ * of the first signal, at that reading's timestamp.
+ */
+public final class CrossSignalRule {
+    private final String condition;
+    private final String leftType;
+    private final DoublePredicate leftCondition;
+    private final String rightType;
+    private final DoublePredicate rightCondition;
+    private final long windowMillis;
+    private final String alertType;
+    private final AlertPriority priority;
+
+    /**
+     * @param condition      the condition name of the raised alerts
+     * @param leftType       the record type of the signal the alerts are reported on
+     * @param leftCondition  the test for an abnormal value of that signal
+     * @param rightType      the record type of the second signal
+     * @param rightCondition the test for an abnormal value of the second signal
+     * @param windowMillis   the exclusive maximum time between the two abnormal readings
+     * @param alertType      the type of the raised alerts, e.g., "BloodPressure"
+     * @param priority       the priority of the raised alerts
+     */
+    public CrossSignalRule(String condition, String leftType, DoublePredicate leftCondition,
+                           String rightType, DoublePredicate rightCondition, long windowMillis,
+                           String alertType, AlertPriority priority) {
+        this.condition = condition;
+        this.leftType = leftType;
+        this.leftCondition = leftCondition;
+        this.rightType = rightType;
+        this.rightCondition = rightCondition;
+        this.windowMillis = windowMillis;
+        this.alertType = alertType;
+        this.priority = priority;
+    }
+
+    /**
+     * Raises alerts for the matches in the snapshot that involve a reading newer than
+     * the given time.
+     *
+     * @param snapshot  the patient's readings
+     * @param afterTime the time up to which the rule was already evaluated, or
+     *                  {@link Long#MIN_VALUE} to evaluate everything
+     * @param sink      receives the alerts
+     */
+    public void evaluate(PatientSnapshot snapshot, long afterTime, AlertSink sink) {
+        int patientId = snapshot.getPatientId();
+        TemporalJoin.join(snapshot.getSeries(leftType), leftCondition,
+                snapshot.getSeries(rightType), rightCondition, windowMillis, afterTime,
+                timestamp -> sink.raise(patientId, condition, timestamp));
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public String getAlertType() {
+        return alertType;
+    }
+
+    public AlertPriority getPriority() {
+        return priority;
+    }
+}
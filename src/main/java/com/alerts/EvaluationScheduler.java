@@ -0,0 +1,182 @@
+package com.alerts;
+
+import com.data_management.RecordListener;
+import com.metrics.LatencyHistogram;
+import com.metrics.LatencyMetrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs alert evaluation when a patient receives new readings, instead of scanning every
+ * patient on a timer. Registered as a {@link RecordListener}, it marks the patient dirty
+ * and hands one evaluation task to the executor. Readings that arrive while that task is
+ * queued are covered by it, and any number of readings that arrive while it runs cause
+ * exactly one more evaluation, so bursts are coalesced and evaluations of the same patient
+ * never overlap. Idle patients cost nothing.
+ *
+ * <p>The scheduler measures the ingest-to-evaluation latency: the time from receiving the
+ * first reading that made a patient dirty until the evaluation covering it has finished,
+ * and records it in the {@link LatencyMetrics#SCHEDULE} histogram. It hands the same
+ * receive time to the {@link AlertGenerator}, which records the latency of the alerts the
+ * evaluation raises.</p>
+ *
+ * <p>If the executor rejects a task, e.g., because it was shut down, the patient goes back
+ * to idle and the rejection is logged; its next reading schedules it again.</p>
+ */
+public class EvaluationScheduler implements RecordListener {
+    private static final int IDLE = 0;
+    private static final int SCHEDULED = 1;
+    private static final int RUNNING = 2;
+    private static final int RUNNING_DIRTY = 3;
+    private static final Logger LOGGER = Logger.getLogger(EvaluationScheduler.class.getName());
+    private static final LatencyHistogram SCHEDULE_LATENCY =
+            LatencyMetrics.getInstance().histogram(LatencyMetrics.SCHEDULE);
+
+    private final Evaluator evaluator;
+    private final Executor executor;
+    private final Map<Integer, PatientTask> tasks = new ConcurrentHashMap<>();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * @param alertGenerator the generator evaluating the patients
+     * @param executor       runs the evaluations
+     */
+    public EvaluationScheduler(AlertGenerator alertGenerator, Executor executor) {
+        this.evaluator = alertGenerator::evaluateData;
+        this.executor = executor;
+    }
+
+    /**
+     * @param evaluator evaluates one patient, given its ID
+     * @param executor  runs the evaluations
+     */
+    public EvaluationScheduler(IntConsumer evaluator, Executor executor) {
+        this.evaluator = (patientId, receivedNanos) -> evaluator.accept(patientId);
+        this.executor = executor;
+    }
+
+    @Override
+    public void onRecordAdded(int patientId, String recordType, long timestamp) {
+        onRecordAdded(patientId, recordType, timestamp, System.nanoTime());
+    }
+
+    @Override
+    public void onRecordAdded(int patientId, String recordType, long timestamp, long receivedNanos) {
+        PatientTask task = tasks.get(patientId);
+        if (task == null) {
+            task = tasks.computeIfAbsent(patientId, PatientTask::new);
+        }
+        task.markDirty(receivedNanos);
+    }
+
+    public long getEvaluationCount() {
+        return evaluations.sum();
+    }
+
+    /**
+     * Returns the mean ingest-to-evaluation latency.
+     *
+     * @return the mean latency in milliseconds, or 0 before the first evaluation
+     */
+    public double getAverageLatencyMillis() {
+        long count = evaluations.sum();
+        return count == 0 ? 0 : totalLatencyNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the highest ingest-to-evaluation latency seen so far.
+     *
+     * @return the maximum latency in milliseconds
+     */
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * The evaluation task of one patient with its scheduling state. The state moves from
+     * IDLE to SCHEDULED when a reading arrives, to RUNNING when the task starts, and to
+     * RUNNING_DIRTY if another reading arrives before it finishes, in which case the task
+     * is scheduled again instead of going back to IDLE. The receive time of the reading is
+     * written before the state that publishes it, so the run that reads it after seeing the
+     * state never gets an older value.
+     */
+    private final class PatientTask implements Runnable {
+        private final int patientId;
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+        private volatile long dirtySince;
+
+        private PatientTask(int patientId) {
+            this.patientId = patientId;
+        }
+
+        private void markDirty(long receivedNanos) {
+            while (true) {
+                int current = state.get();
+                if (current == SCHEDULED || current == RUNNING_DIRTY) {
+                    return;
+                }
+                int next = current == IDLE ? SCHEDULED : RUNNING_DIRTY;
+                // No task is waiting to read it: the state is IDLE, or RUNNING after the read
+                dirtySince = receivedNanos;
+                if (state.compareAndSet(current, next)) {
+                    if (next == SCHEDULED) {
+                        submit();
+                    }
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            long since = dirtySince;
+            state.set(RUNNING);
+            try {
+                evaluator.evaluate(patientId, since);
+            } finally {
+                record(System.nanoTime() - since);
+                if (!state.compareAndSet(RUNNING, IDLE)) {
+                    state.set(SCHEDULED);
+                    submit();
+                }
+            }
+        }
+
+        private void submit() {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                state.compareAndSet(SCHEDULED, IDLE);
+                LOGGER.log(Level.WARNING, "Evaluation of patient " + patientId + " rejected", e);
+            }
+        }
+    }
+
+    /**
+     * Evaluates one patient, given its ID and when the oldest reading the evaluation
+     * covers was received.
+     */
+    @FunctionalInterface
+    private interface Evaluator {
+        void evaluate(int patientId, long receivedNanos);
+    }
+
+    private void record(long latencyNanos) {
+        evaluations.increment();
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        SCHEDULE_LATENCY.record(latencyNanos);
+    }
+}
@@ -0,0 +1,138 @@
+package com.alerts;
+
+import com.data_management.SeriesSnapshot;
+
+import java.util.function.DoublePredicate;
+import java.util.function.LongConsumer;
+
+/**
+ * Joins two time-ordered series on time proximity: a reading of the left series matches
+ * when the right series has a qualifying reading less than a given window away from it.
+ * Both series are walked once with two pointers bounding the right-hand window around the
+ * current left reading, and a running count of qualifying right readings inside it, so a
+ * join costs O(n + m) for n left and m right readings instead of comparing every pair.
+ * The join reads both series through a {@link SeriesSnapshot.Cut}, so its indices stay fixed,
+ * and checks every read. If the ring of a series wraps around during the join, that series
+ * is cut again and the join starts over from {@code afterTime}, skipping the left readings it
+ * already reported.
+ */
+public final class TemporalJoin {
+
+    private TemporalJoin() {
+    }
+
+    /**
+     * Reports every qualifying left reading that has a qualifying right reading with a
+     * timestamp less than {@code windowMillis} away, and where the left reading or the
+     * newest such right reading is newer than {@code afterTime}. Each left reading is
+     * reported at most once, in timestamp order, however many right readings it matches.
+     *
+     * @param left           the series whose readings are reported
+     * @param leftCondition  the condition a left value has to meet
+     * @param right          the series searched for nearby readings
+     * @param rightCondition the condition a right value has to meet
+     * @param windowMillis   the exclusive maximum distance between matching readings
+     * @param afterTime      only matches involving a reading newer than this time are
+     *                       reported; {@link Long#MIN_VALUE} reports all matches
+     * @param onMatch        receives the timestamp of each matching left reading
+     */
+    public static void join(SeriesSnapshot left, DoublePredicate leftCondition,
+                            SeriesSnapshot right, DoublePredicate rightCondition,
+                            long windowMillis, long afterTime, LongConsumer onMatch) {
+        if (left == null || right == null) {
+            return;
+        }
+        SeriesSnapshot.Cut leftCut = left.cut();
+        SeriesSnapshot.Cut rightCut = right.cut();
+        long lastReported = Long.MIN_VALUE;
+        int reportedAtLast = 0;
+        restart:
+        while (true) {
+            if (rightCut.size() == 0) {
+                return;
+            }
+            int l = afterTime == Long.MIN_VALUE ? 0 : leftCut.upperBound(afterTime - windowMillis);
+            if (!leftCut.isIntact(0)) {
+                leftCut = left.recut(leftCut);
+                continue;
+            }
+            if (l >= leftCut.size()) {
+                return;
+            }
+            int windowStart = rightCut.upperBound(leftCut.getTimestamp(l) - windowMillis);
+            if (!leftCut.isIntact(l)) {
+                leftCut = left.recut(leftCut);
+                continue;
+            }
+            if (!rightCut.isIntact(0)) {
+                rightCut = right.recut(rightCut);
+                continue;
+            }
+            int windowEnd = windowStart;
+            int matchesInWindow = 0;
+            long newestMatch = Long.MIN_VALUE;
+            int skipAtLast = reportedAtLast;
+            for (; l < leftCut.size(); l++) {
+                long leftTimestamp = leftCut.getTimestamp(l);
+                if (!leftCut.isIntact(l)) {
+                    leftCut = left.recut(leftCut);
+                    continue restart;
+                }
+                while (windowEnd < rightCut.size()) {
+                    long timestamp = rightCut.getTimestamp(windowEnd);
+                    double value = rightCut.getValue(windowEnd);
+                    if (!rightCut.isIntact(windowEnd)) {
+                        rightCut = right.recut(rightCut);
+                        continue restart;
+                    }
+                    if (timestamp >= leftTimestamp + windowMillis) {
+                        break;
+                    }
+                    if (rightCondition.test(value)) {
+                        matchesInWindow++;
+                        newestMatch = timestamp;
+                    }
+                    windowEnd++;
+                }
+                while (windowStart < windowEnd) {
+                    long timestamp = rightCut.getTimestamp(windowStart);
+                    double value = rightCut.getValue(windowStart);
+                    if (!rightCut.isIntact(windowStart)) {
+                        rightCut = right.recut(rightCut);
+                        continue restart;
+                    }
+                    if (timestamp > leftTimestamp - windowMillis) {
+                        break;
+                    }
+                    if (rightCondition.test(value)) {
+                        matchesInWindow--;
+                    }
+                    windowStart++;
+                }
+                if (matchesInWindow == 0 || (leftTimestamp <= afterTime && newestMatch <= afterTime)) {
+                    continue;
+                }
+                double leftValue = leftCut.getValue(l);
+                if (!leftCut.isIntact(l)) {
+                    leftCut = left.recut(leftCut);
+                    continue restart;
+                }
+                if (!leftCondition.test(leftValue) || leftTimestamp < lastReported) {
+                    continue;
+                }
+                if (leftTimestamp == lastReported) {
+                    if (skipAtLast > 0) {
+                        skipAtLast--;
+                        continue;
+                    }
+                    reportedAtLast++;
+                } else {
+                    lastReported = leftTimestamp;
+                    reportedAtLast = 1;
+                }
+                onMatch.accept(leftTimestamp);
+            }
+            return;
+        }
+    }
+}
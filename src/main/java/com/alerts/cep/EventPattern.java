@@ -0,0 +1,162 @@
+package com.alerts.cep;
+
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.strategy_pattern.AlertSink;
+import com.alerts.strategy_pattern.StreamingAlertStrategy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoublePredicate;
+
+/**
+ * A multi-step clinical pattern, e.g., a saturation drop followed within 5 minutes by a
+ * blood pressure trend and then by an ECG peak, matched over a patient's event stream with
+ * a nondeterministic finite automaton. State {@code k} of the automaton means that the
+ * steps {@code 0..k} have been seen; an event can start a new partial match and advance
+ * existing ones at the same time. The events are readings, named by their record type,
+ * and alert conditions raised by other rules.
+ *
+ * <p>Steps are limited by the time since the previous step only, so of two partial
+ * matches in the same state, the more recent one can complete everything the older one
+ * can, and for longer. The automaton therefore keeps just the newest partial match per
+ * state, which bounds the state of a patient by the length of the pattern no matter how
+ * many events arrive. A partial match expires when the next step has not followed in
+ * time, and is evicted by the next event of the patient. A completed match raises an
+ * alert at the time of its last event and is consumed; the partial matches it came from
+ * stay until they expire, so a repeated last step is reported again.</p>
+ *
+ * <p>Events must arrive in timestamp order per patient, as the alert generator streams
+ * them, except that a reading stored late arrives with an older timestamp; it only advances
+ * matches whose last step happened before it.</p>
+ */
+public final class EventPattern implements StreamingAlertStrategy<EventPattern.State> {
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final String condition;
+    private final String alertType;
+    private final AlertPriority priority;
+    private final String[] eventTypes;
+    private final DoublePredicate[] conditions;
+    private final long[] withinMillis;
+
+    /**
+     * @param condition the condition name of the raised alerts
+     * @param alertType the type of the raised alerts, e.g., "BloodOxygen"
+     * @param priority  the priority of the raised alerts
+     * @param steps     the steps in the order they have to occur, at least one
+     */
+    public EventPattern(String condition, String alertType, AlertPriority priority, List<PatternStep> steps) {
+        if (steps.isEmpty()) {
+            throw new IllegalArgumentException("A pattern needs at least one step");
+        }
+        this.condition = condition;
+        this.alertType = alertType;
+        this.priority = priority;
+        int length = steps.size();
+        this.eventTypes = new String[length];
+        this.conditions = new DoublePredicate[length];
+        this.withinMillis = new long[length];
+        for (int i = 0; i < length; i++) {
+            PatternStep step = steps.get(i);
+            eventTypes[i] = step.getEventType();
+            conditions[i] = step.getCondition();
+            withinMillis[i] = step.getWithinMillis();
+        }
+    }
+
+    @Override
+    public State newState(int patientId) {
+        return new State(patientId, eventTypes.length - 1);
+    }
+
+    @Override
+    public boolean accepts(String eventType) {
+        for (String type : eventTypes) {
+            if (type.equals(eventType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onRecord(State state, String eventType, long timestamp, double value, AlertSink sink) {
+        long[] matchedAt = state.matchedAt;
+        int last = eventTypes.length - 1;
+        // Advance from the most complete state down, so one event moves a match one step only
+        for (int k = matchedAt.length - 1; k >= 0; k--) {
+            long since = matchedAt[k];
+            if (since == NONE) {
+                continue;
+            }
+            if (timestamp - since > withinMillis[k + 1]) {
+                matchedAt[k] = NONE;
+                state.evicted++;
+            } else if (timestamp >= since && matches(k + 1, eventType, value)) {
+                if (k + 1 == last) {
+                    matchedAt[k] = NONE;
+                    sink.raise(state.patientId, condition, timestamp);
+                } else {
+                    matchedAt[k + 1] = Math.max(matchedAt[k + 1], timestamp);
+                }
+            }
+        }
+        if (matches(0, eventType, value)) {
+            if (last == 0) {
+                sink.raise(state.patientId, condition, timestamp);
+            } else {
+                matchedAt[0] = Math.max(matchedAt[0], timestamp);
+            }
+        }
+    }
+
+    private boolean matches(int step, String eventType, double value) {
+        return eventTypes[step].equals(eventType) && conditions[step].test(value);
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public String getAlertType() {
+        return alertType;
+    }
+
+    public AlertPriority getPriority() {
+        return priority;
+    }
+
+    public List<String> getEventTypes() {
+        return List.of(eventTypes);
+    }
+
+    /**
+     * The partial matches of one patient: per automaton state, the time of the newest
+     * partial match in it.
+     */
+    public static final class State {
+        private final int patientId;
+        private final long[] matchedAt;
+        private long evicted;
+
+        private State(int patientId, int states) {
+            this.patientId = patientId;
+            this.matchedAt = new long[states];
+            Arrays.fill(matchedAt, NONE);
+        }
+
+        public int getPartialMatchCount() {
+            int count = 0;
+            for (long time : matchedAt) {
+                if (time != NONE) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        public long getEvictedCount() {
+            return evicted;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.alerts.cep;
+
+import java.util.function.DoublePredicate;
+
+/**
+ * One step of an {@link EventPattern}: an event of a given type, optionally with a value
+ * condition, that has to follow the previous step within a time limit.
+ */
+public final class PatternStep {
+    private final String eventType;
+    private final DoublePredicate condition;
+    private final long withinMillis;
+
+    /**
+     * @param eventType    a record type, e.g., "BloodSaturation", or an alert condition
+     *                     raised by a rule, e.g., "RapidDropSaturation"
+     * @param condition    the test the event's value has to pass; alert conditions have
+     *                     no value and only match {@code value -> true}
+     * @param withinMillis the maximum time since the previous step, ignored for the first step
+     */
+    public PatternStep(String eventType, DoublePredicate condition, long withinMillis) {
+        this.eventType = eventType;
+        this.condition = condition;
+        this.withinMillis = withinMillis;
+    }
+
+    /**
+     * Constructs a step matching any event of the given type.
+     *
+     * @param eventType    a record type or an alert condition
+     * @param withinMillis the maximum time since the previous step, ignored for the first step
+     */
+    public PatternStep(String eventType, long withinMillis) {
+        this(eventType, value -> true, withinMillis);
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public DoublePredicate getCondition() {
+        return condition;
+    }
+
+    public long getWithinMillis() {
+        return withinMillis;
+    }
+}
@@ -0,0 +1,14 @@
+package com.alerts.decorator_pattern;
+
+/**
+ * An alert that keeps notifying until staff acknowledge it.
+ */
+public interface Acknowledgeable {
+
+    /**
+     * Marks the alert as acknowledged and cancels its pending repeats.
+     */
+    void acknowledge();
+
+    boolean isAcknowledged();
+}
@@ -8,6 +8,10 @@ public abstract class AlertDecorator implements Alert {
         this.decoratedAlert = decoratedAlert;
     }
 
+    public Alert getDecoratedAlert() {
+        return decoratedAlert;
+    }
+
     @Override
     public String getPatientId() {
         return decoratedAlert.getPatientId();
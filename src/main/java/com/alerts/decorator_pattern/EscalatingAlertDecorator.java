@@ -0,0 +1,92 @@
+package com.alerts.decorator_pattern;
+
+import com.alerts.timer.HashedWheelTimer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Re-notifies the decorated alert at a fixed interval until it is acknowledged, e.g., every
+ * two minutes. Once a number of repeats went unacknowledged, the alert is escalated: later
+ * notifications carry the escalated priority through a {@link PriorityAlertDecorator}.
+ * Repeats are scheduled on a {@link HashedWheelTimer}, so many open alerts cost one
+ * pending timeout each. Only the first {@link #trigger()} starts the notifications; later
+ * calls are ignored, so an alert never runs two repeat chains.
+ */
+public class EscalatingAlertDecorator extends AlertDecorator implements Acknowledgeable {
+    private static final Logger LOGGER = Logger.getLogger(EscalatingAlertDecorator.class.getName());
+    private final HashedWheelTimer timer;
+    private final long intervalMillis;
+    private final int repeatsBeforeEscalation;
+    private final Alert escalatedAlert;
+    private final String escalatedPriority;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean acknowledged;
+    private volatile HashedWheelTimer.Timeout pending;
+    private volatile int notifications;
+
+    /**
+     * @param decoratedAlert          the alert to repeat
+     * @param timer                   the timer scheduling the repeats
+     * @param intervalMillis          the time between notifications, in milliseconds
+     * @param repeatsBeforeEscalation the number of unacknowledged repeats before escalating
+     * @param escalatedPriority       the priority of notifications after escalation, e.g., "High"
+     */
+    public EscalatingAlertDecorator(Alert decoratedAlert, HashedWheelTimer timer, long intervalMillis,
+                                    int repeatsBeforeEscalation, String escalatedPriority) {
+        super(decoratedAlert);
+        this.timer = timer;
+        this.intervalMillis = intervalMillis;
+        this.repeatsBeforeEscalation = repeatsBeforeEscalation;
+        this.escalatedPriority = escalatedPriority;
+        this.escalatedAlert = new PriorityAlertDecorator(decoratedAlert, escalatedPriority);
+    }
+
+    @Override
+    public void trigger() {
+        if (started.compareAndSet(false, true)) {
+            notifyOnce();
+        }
+    }
+
+    @Override
+    public void acknowledge() {
+        acknowledged = true;
+        HashedWheelTimer.Timeout timeout = pending;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    @Override
+    public boolean isAcknowledged() {
+        return acknowledged;
+    }
+
+    /**
+     * Returns whether the alert has been escalated.
+     *
+     * @return {@code true} once more than the allowed repeats went unacknowledged
+     */
+    public boolean isEscalated() {
+        // The first notification is not a repeat
+        return notifications > repeatsBeforeEscalation + 1;
+    }
+
+    private void notifyOnce() {
+        if (acknowledged) {
+            return;
+        }
+        notifications++;
+        if (notifications == repeatsBeforeEscalation + 2) {
+            LOGGER.info("Escalated alert to priority " + escalatedPriority + " after "
+                    + repeatsBeforeEscalation + " unacknowledged repeats");
+        }
+        (isEscalated() ? escalatedAlert : decoratedAlert).trigger();
+        HashedWheelTimer.Timeout timeout = timer.schedule(this::notifyOnce, intervalMillis);
+        pending = timeout;
+        if (acknowledged) {
+            timeout.cancel();
+        }
+    }
+}
@@ -12,6 +12,10 @@ public class PriorityAlertDecorator extends AlertDecorator {
         this.priority = priority;
     }
 
+    public String getPriority() {
+        return priority;
+    }
+
     @Override
     public void trigger() {
         LOGGER.info("Priority: " + priority);
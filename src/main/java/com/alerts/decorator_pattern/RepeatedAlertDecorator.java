@@ -1,23 +1,86 @@
 package com.alerts.decorator_pattern;
 
 
+import com.alerts.timer.HashedWheelTimer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 
-public class RepeatedAlertDecorator extends AlertDecorator {
+/**
+ * Triggers the decorated alert several times. Without a timer, all repeats happen at once.
+ * With a {@link HashedWheelTimer}, the first notification happens immediately and the
+ * repeats follow at a fixed interval on the timer thread until the count is reached or the
+ * alert is acknowledged. Only the first {@link #trigger()} starts the timed repeats; later
+ * calls are ignored, while without a timer every call repeats the alert again.
+ */
+public class RepeatedAlertDecorator extends AlertDecorator implements Acknowledgeable {
     private static final Logger LOGGER = Logger.getLogger(RepeatedAlertDecorator.class.getName());
-    private int repeatCount;
+    private final int repeatCount;
+    private final long intervalMillis;
+    private final HashedWheelTimer timer;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean acknowledged;
+    private volatile HashedWheelTimer.Timeout pending;
+    private int repeated;
 
     public RepeatedAlertDecorator(Alert decoratedAlert, int repeatCount) {
+        this(decoratedAlert, repeatCount, 0, null);
+    }
+
+    /**
+     * @param decoratedAlert the alert to repeat
+     * @param repeatCount    the total number of notifications
+     * @param intervalMillis the time between notifications, in milliseconds
+     * @param timer          the timer scheduling the repeats, or {@code null} to repeat at once
+     */
+    public RepeatedAlertDecorator(Alert decoratedAlert, int repeatCount, long intervalMillis, HashedWheelTimer timer) {
         super(decoratedAlert);
         this.repeatCount = repeatCount;
+        this.intervalMillis = intervalMillis;
+        this.timer = timer;
     }
 
     @Override
     public void trigger() {
-        for (int i = 0; i < repeatCount; i++) {
-            LOGGER.info("Repeated alert " + (i + 1) + " of " + repeatCount);
-            decoratedAlert.trigger();
+        if (timer == null) {
+            for (int i = 0; i < repeatCount; i++) {
+                LOGGER.info("Repeated alert " + (i + 1) + " of " + repeatCount);
+                decoratedAlert.trigger();
+            }
+            return;
+        }
+        if (started.compareAndSet(false, true)) {
+            repeat();
         }
     }
-}
 
+    @Override
+    public void acknowledge() {
+        acknowledged = true;
+        HashedWheelTimer.Timeout timeout = pending;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    @Override
+    public boolean isAcknowledged() {
+        return acknowledged;
+    }
+
+    private void repeat() {
+        if (acknowledged || repeated >= repeatCount) {
+            return;
+        }
+        repeated++;
+        LOGGER.info("Repeated alert " + repeated + " of " + repeatCount);
+        decoratedAlert.trigger();
+        if (repeated < repeatCount) {
+            HashedWheelTimer.Timeout timeout = timer.schedule(this::repeat, intervalMillis);
+            pending = timeout;
+            if (acknowledged) {
+                timeout.cancel();
+            }
+        }
+    }
+}
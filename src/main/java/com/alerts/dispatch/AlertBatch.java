@@ -0,0 +1,129 @@
+package com.alerts.dispatch;
+
+import com.alerts.decorator_pattern.Alert;
+import com.alerts.decorator_pattern.ConcreteAlert;
+import com.alerts.decorator_pattern.PriorityAlertDecorator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of alert events handed to {@link AlertHandler}s. Events are stored as primitives:
+ * int patient ID, interned {@link AlertCodes condition code}, timestamp and priority.
+ * Handlers that only need those fields read them without creating objects; an
+ * {@link Alert} with its decorators is only built when a handler calls {@link #toAlert(int)}.
+ * Besides raised alerts, a batch carries the resolutions of alerts, marked by
+ * {@link #isResolution(int)}, in the order they were dispatched within their lane.
+ *
+ * <p>The dispatcher reuses one batch for all deliveries, so handlers must not keep a
+ * reference to it after {@code handle} returns.</p>
+ */
+public final class AlertBatch {
+    final int[] patientIds;
+    final int[] codes;
+    final long[] timestamps;
+    final long[] queuedAt;
+    final AlertPriority[] priorities;
+    final Alert[] alerts;
+    final boolean[] resolutions;
+    int size;
+
+    AlertBatch(int capacity) {
+        this.patientIds = new int[capacity];
+        this.codes = new int[capacity];
+        this.timestamps = new long[capacity];
+        this.queuedAt = new long[capacity];
+        this.priorities = new AlertPriority[capacity];
+        this.alerts = new Alert[capacity];
+        this.resolutions = new boolean[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getPatientId(int index) {
+        return patientIds[checkIndex(index)];
+    }
+
+    public int getConditionCode(int index) {
+        return codes[checkIndex(index)];
+    }
+
+    public String getCondition(int index) {
+        return AlertCodes.conditionOf(getConditionCode(index));
+    }
+
+    public String getAlertType(int index) {
+        return AlertCodes.alertTypeOf(getConditionCode(index));
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[checkIndex(index)];
+    }
+
+    public AlertPriority getPriority(int index) {
+        return priorities[checkIndex(index)];
+    }
+
+    /**
+     * Returns whether the event reports that an alert's condition resolved rather than a
+     * raised alert.
+     *
+     * @param index the index of the event
+     * @return {@code true} for a resolution
+     */
+    public boolean isResolution(int index) {
+        return resolutions[checkIndex(index)];
+    }
+
+    /**
+     * Returns the event as an {@link Alert}: the alert that was dispatched, or, for events
+     * dispatched as primitives, a new {@link ConcreteAlert} wrapped in a
+     * {@link PriorityAlertDecorator} unless its priority is {@link AlertPriority#NORMAL}.
+     *
+     * @param index the index of the event
+     * @return the alert
+     */
+    public Alert toAlert(int index) {
+        Alert alert = alerts[checkIndex(index)];
+        if (alert != null) {
+            return alert;
+        }
+        int code = codes[index];
+        Alert built = new ConcreteAlert(String.valueOf(patientIds[index]), AlertCodes.conditionOf(code),
+                timestamps[index], AlertCodes.alertTypeOf(code));
+        AlertPriority priority = priorities[index];
+        return priority == AlertPriority.NORMAL ? built : new PriorityAlertDecorator(built, priority.name());
+    }
+
+    /**
+     * Builds the {@link Alert} of every raised alert, see {@link #toAlert(int)}, skipping
+     * resolutions.
+     *
+     * @return a new list of the alerts
+     */
+    public List<Alert> toAlerts() {
+        List<Alert> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            if (!resolutions[i]) {
+                list.add(toAlert(i));
+            }
+        }
+        return list;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            alerts[i] = null;
+        }
+        size = 0;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return index;
+    }
+}
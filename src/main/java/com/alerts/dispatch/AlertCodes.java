@@ -0,0 +1,62 @@
+package com.alerts.dispatch;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns (alert type, condition) pairs as small int codes, so alert events can carry one
+ * int instead of two strings. Looking up a pair that was seen before allocates nothing.
+ * Codes are assigned on first use and stay valid for the life of the JVM.
+ */
+public final class AlertCodes {
+    private static final Map<String, Map<String, Integer>> CODES = new ConcurrentHashMap<>();
+    private static volatile String[] alertTypes = new String[0];
+    private static volatile String[] conditions = new String[0];
+
+    private AlertCodes() {
+    }
+
+    /**
+     * Returns the code of an alert type and condition, assigning one if needed.
+     *
+     * @param alertType the alert type, e.g., "BloodPressure"
+     * @param condition the condition, e.g., "CriticalSystolic"
+     * @return the code
+     */
+    public static int intern(String alertType, String condition) {
+        Map<String, Integer> byCondition = CODES.get(alertType);
+        if (byCondition != null) {
+            Integer code = byCondition.get(condition);
+            if (code != null) {
+                return code;
+            }
+        }
+        return assign(alertType, condition);
+    }
+
+    public static String alertTypeOf(int code) {
+        return alertTypes[code];
+    }
+
+    public static String conditionOf(int code) {
+        return conditions[code];
+    }
+
+    private static synchronized int assign(String alertType, String condition) {
+        Map<String, Integer> byCondition = CODES.computeIfAbsent(alertType, type -> new ConcurrentHashMap<>());
+        Integer existing = byCondition.get(condition);
+        if (existing != null) {
+            return existing;
+        }
+        int code = conditions.length;
+        String[] newTypes = Arrays.copyOf(alertTypes, code + 1);
+        String[] newConditions = Arrays.copyOf(conditions, code + 1);
+        newTypes[code] = alertType;
+        newConditions[code] = condition;
+        alertTypes = newTypes;
+        conditions = newConditions;
+        byCondition.put(condition, code);
+        return code;
+    }
+}
@@ -0,0 +1,279 @@
+package com.alerts.dispatch;
+
+import com.alerts.decorator_pattern.Alert;
+import com.metrics.LatencyHistogram;
+import com.metrics.LatencyMetrics;
+import com.metrics.jfr.DispatchEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers alerts to {@link AlertHandler}s on a dedicated thread, so that slow outputs do
+ * not stall alert evaluation. {@link #dispatch(Alert)} only puts the alert into the bounded
+ * queue of its {@link AlertPriority} lane and returns. The dispatch thread collects batches
+ * of up to {@code batchSize} alerts, taking from the high lane first, then the normal and
+ * the low lane, so urgent alerts overtake queued less urgent ones, and passes every batch to
+ * each handler. When a lane is full, new alerts for it are dropped and counted.
+ *
+ * <p>Lanes are {@link EventRing}s of preallocated primitive slots, and batches are one
+ * reused {@link AlertBatch}. Alerts dispatched with
+ * {@link #dispatch(int, int, long, AlertPriority)} are therefore queued and delivered
+ * without allocating; an {@link Alert} object is only built if a handler asks for it.</p>
+ *
+ * <p>Alerts of the same lane are delivered in the order they were dispatched. The dispatcher
+ * reports the depth and drops per lane and the time alerts spend between
+ * {@link #dispatch(Alert)} and the end of their delivery, also recorded in the
+ * {@link LatencyMetrics#DISPATCH} histogram.</p>
+ */
+public class AlertDispatcher {
+    private static final Logger LOGGER = Logger.getLogger(AlertDispatcher.class.getName());
+    private static final AlertPriority[] PRIORITIES = AlertPriority.values();
+    private static final LatencyHistogram DISPATCH_LATENCY =
+            LatencyMetrics.getInstance().histogram(LatencyMetrics.DISPATCH);
+
+    private final EventRing[] lanes = new EventRing[PRIORITIES.length];
+    private final LongAdder[] dropped = new LongAdder[PRIORITIES.length];
+    private final List<AlertHandler> handlers = new CopyOnWriteArrayList<>();
+    private final int batchSize;
+    private final Object signal = new Object();
+    private final Thread thread;
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private volatile boolean idle;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a dispatcher; call {@link #start()} to begin delivering.
+     *
+     * @param laneCapacity the maximum number of queued alerts per lane, rounded up to a power of two
+     * @param batchSize    the maximum number of alerts per batch
+     */
+    public AlertDispatcher(int laneCapacity, int batchSize) {
+        if (laneCapacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Lane capacity and batch size must be positive");
+        }
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            lanes[i] = new EventRing(laneCapacity);
+            dropped[i] = new LongAdder();
+        }
+        this.batchSize = batchSize;
+        this.thread = new Thread(this::run, "alert-dispatcher");
+        this.thread.setDaemon(true);
+    }
+
+    public void addHandler(AlertHandler handler) {
+        handlers.add(handler);
+    }
+
+    public void removeHandler(AlertHandler handler) {
+        handlers.remove(handler);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Queues an alert in the lane of its priority, see {@link AlertPriority#of(Alert)}.
+     *
+     * @param alert the alert to deliver
+     * @return {@code false} if the lane was full and the alert was dropped
+     */
+    public boolean dispatch(Alert alert) {
+        return dispatch(alert, AlertPriority.of(alert));
+    }
+
+    /**
+     * Queues an alert in the given lane.
+     *
+     * @param alert    the alert to deliver
+     * @param priority the lane
+     * @return {@code false} if the lane was full and the alert was dropped
+     */
+    public boolean dispatch(Alert alert, AlertPriority priority) {
+        int patientId;
+        try {
+            patientId = Integer.parseInt(alert.getPatientId());
+        } catch (NumberFormatException e) {
+            patientId = -1;
+        }
+        return enqueue(patientId, AlertCodes.intern(alert.getAlertType(), alert.getCondition()),
+                alert.getTimestamp(), alert, false, priority);
+    }
+
+    /**
+     * Queues an alert event given as primitives, without allocating.
+     *
+     * @param patientId     the unique identifier of the patient
+     * @param conditionCode the code of the alert type and condition, see {@link AlertCodes#intern}
+     * @param timestamp     the time of the alert, in milliseconds since UNIX epoch
+     * @param priority      the lane
+     * @return {@code false} if the lane was full and the alert was dropped
+     */
+    public boolean dispatch(int patientId, int conditionCode, long timestamp, AlertPriority priority) {
+        return enqueue(patientId, conditionCode, timestamp, null, false, priority);
+    }
+
+    /**
+     * Queues the resolution of an alert in the given lane, without allocating. Dispatched
+     * in the lane of the alert, the resolution is delivered after it.
+     *
+     * @param patientId     the unique identifier of the patient
+     * @param conditionCode the code of the alert type and condition, see {@link AlertCodes#intern}
+     * @param timestamp     the time of the resolution, in milliseconds since UNIX epoch
+     * @param priority      the lane
+     * @return {@code false} if the lane was full and the resolution was dropped
+     */
+    public boolean dispatchResolution(int patientId, int conditionCode, long timestamp, AlertPriority priority) {
+        return enqueue(patientId, conditionCode, timestamp, null, true, priority);
+    }
+
+    private boolean enqueue(int patientId, int code, long timestamp, Alert alert, boolean resolution,
+                            AlertPriority priority) {
+        if (!lanes[priority.ordinal()].offer(patientId, code, timestamp, alert, resolution, System.nanoTime())) {
+            dropped[priority.ordinal()].increment();
+            return false;
+        }
+        if (idle) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lets the dispatch thread deliver the alerts queued so far, then stops it, and waits
+     * for it to finish.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return {@code true} if the dispatch thread finished in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        thread.join(unit.toMillis(timeout));
+        return !thread.isAlive();
+    }
+
+    public int getQueueDepth(AlertPriority priority) {
+        return lanes[priority.ordinal()].size();
+    }
+
+    public long getDroppedCount(AlertPriority priority) {
+        return dropped[priority.ordinal()].sum();
+    }
+
+    public long getDispatchedCount() {
+        return dispatched.sum();
+    }
+
+    /**
+     * Returns the mean time from {@link #dispatch(Alert)} until the alert's batch was
+     * handled.
+     *
+     * @return the mean latency in milliseconds, or 0 before the first delivery
+     */
+    public double getAverageLatencyMillis() {
+        long count = dispatched.sum();
+        return count == 0 ? 0 : totalLatencyNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private void run() {
+        AlertBatch batch = new AlertBatch(batchSize);
+        while (true) {
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i].drainTo(batch, PRIORITIES[i]);
+            }
+            if (batch.size == 0) {
+                if (!running) {
+                    return;
+                }
+                awaitWork();
+                continue;
+            }
+            deliver(batch);
+            long now = System.nanoTime();
+            for (int i = 0; i < batch.size; i++) {
+                long latency = now - batch.queuedAt[i];
+                totalLatencyNanos.add(latency);
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                DISPATCH_LATENCY.record(latency);
+            }
+            dispatched.add(batch.size);
+            batch.clear();
+        }
+    }
+
+    private void deliver(AlertBatch batch) {
+        DispatchEvent dispatchEvent = DispatchEvent.start();
+        for (AlertHandler handler : handlers) {
+            try {
+                handler.handle(batch);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Alert handler failed", e);
+            }
+        }
+        if (dispatchEvent != null) {
+            DispatchEvent.finish(dispatchEvent, batch.size, singlePatient(batch), handlers.size());
+        }
+    }
+
+    /**
+     * Returns the patient all alerts of a batch belong to, or -1 if they belong to several.
+     */
+    private static int singlePatient(AlertBatch batch) {
+        int patientId = batch.patientIds[0];
+        for (int i = 1; i < batch.size; i++) {
+            if (batch.patientIds[i] != patientId) {
+                return -1;
+            }
+        }
+        return patientId;
+    }
+
+    /**
+     * Sleeps until an alert is queued. The dispatcher announces that it is idle before it
+     * checks the lanes a last time, so a dispatch either sees the flag and wakes it, or
+     * happened early enough for the check to see the alert.
+     */
+    private void awaitWork() {
+        synchronized (signal) {
+            idle = true;
+            try {
+                if (running && isEmpty()) {
+                    signal.wait(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                idle = false;
+            }
+        }
+    }
+
+    private boolean isEmpty() {
+        for (EventRing lane : lanes) {
+            if (lane.size() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
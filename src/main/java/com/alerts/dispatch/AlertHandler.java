@@ -0,0 +1,16 @@
+package com.alerts.dispatch;
+
+/**
+ * An output for alerts, such as a log, a pager or a ward display, called by the
+ * {@link AlertDispatcher} on its own thread with batches of alerts.
+ */
+@FunctionalInterface
+public interface AlertHandler {
+
+    /**
+     * Delivers a batch of alerts. Higher-priority alerts come first within a batch.
+     *
+     * @param batch the alerts to deliver; the batch is only valid during the call
+     */
+    void handle(AlertBatch batch);
+}
@@ -0,0 +1,45 @@
+package com.alerts.dispatch;
+
+import com.alerts.decorator_pattern.Alert;
+import com.alerts.decorator_pattern.AlertDecorator;
+import com.alerts.decorator_pattern.PriorityAlertDecorator;
+
+/**
+ * The lanes of the {@link AlertDispatcher}, from most to least urgent.
+ */
+public enum AlertPriority {
+    HIGH, NORMAL, LOW;
+
+    /**
+     * Parses a priority name case-insensitively.
+     *
+     * @param priority the name, e.g., "High"
+     * @return the matching priority, or {@link #NORMAL} if the name is unknown
+     */
+    public static AlertPriority parse(String priority) {
+        for (AlertPriority value : values()) {
+            if (value.name().equalsIgnoreCase(priority)) {
+                return value;
+            }
+        }
+        return NORMAL;
+    }
+
+    /**
+     * Returns the priority of an alert: the one given by the outermost
+     * {@link PriorityAlertDecorator} in its decorator chain, or {@link #NORMAL}.
+     *
+     * @param alert the alert
+     * @return the alert's priority
+     */
+    public static AlertPriority of(Alert alert) {
+        Alert current = alert;
+        while (current instanceof AlertDecorator) {
+            if (current instanceof PriorityAlertDecorator) {
+                return parse(((PriorityAlertDecorator) current).getPriority());
+            }
+            current = ((AlertDecorator) current).getDecoratedAlert();
+        }
+        return NORMAL;
+    }
+}
@@ -0,0 +1,73 @@
+package com.alerts.dispatch;
+
+import com.alerts.decorator_pattern.Alert;
+
+/**
+ * A bounded FIFO of alert events stored in preallocated parallel arrays, so queueing an
+ * event allocates nothing. Producers and the single consumer synchronize on the ring;
+ * the critical sections only copy a few primitives.
+ */
+final class EventRing {
+    private final int[] patientIds;
+    private final int[] codes;
+    private final long[] timestamps;
+    private final long[] queuedAt;
+    private final Alert[] alerts;
+    private final boolean[] resolutions;
+    private final int mask;
+    private long head;
+    private long tail;
+
+    /**
+     * @param capacity the maximum number of events, rounded up to a power of two
+     */
+    EventRing(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.patientIds = new int[size];
+        this.codes = new int[size];
+        this.timestamps = new long[size];
+        this.queuedAt = new long[size];
+        this.alerts = new Alert[size];
+        this.resolutions = new boolean[size];
+        this.mask = size - 1;
+    }
+
+    synchronized boolean offer(int patientId, int code, long timestamp, Alert alert, boolean resolution, long now) {
+        if (tail - head == alerts.length) {
+            return false;
+        }
+        int slot = (int) tail & mask;
+        patientIds[slot] = patientId;
+        codes[slot] = code;
+        timestamps[slot] = timestamp;
+        queuedAt[slot] = now;
+        alerts[slot] = alert;
+        resolutions[slot] = resolution;
+        tail++;
+        return true;
+    }
+
+    /**
+     * Moves events into the batch until it is full or the ring is empty.
+     */
+    synchronized void drainTo(AlertBatch batch, AlertPriority priority) {
+        int capacity = batch.patientIds.length;
+        while (head < tail && batch.size < capacity) {
+            int slot = (int) head & mask;
+            int target = batch.size++;
+            batch.patientIds[target] = patientIds[slot];
+            batch.codes[target] = codes[slot];
+            batch.timestamps[target] = timestamps[slot];
+            batch.queuedAt[target] = queuedAt[slot];
+            batch.priorities[target] = priority;
+            batch.alerts[target] = alerts[slot];
+            batch.resolutions[target] = resolutions[slot];
+            alerts[slot] = null;
+            head++;
+        }
+    }
+
+    synchronized int size() {
+        return (int) (tail - head);
+    }
+}
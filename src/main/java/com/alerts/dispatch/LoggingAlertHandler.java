@@ -0,0 +1,23 @@
+package com.alerts.dispatch;
+
+import java.util.logging.Logger;
+
+/**
+ * Delivers alerts by triggering them, which logs them through their decorator chain, and
+ * logs the resolutions.
+ */
+public class LoggingAlertHandler implements AlertHandler {
+    private static final Logger LOGGER = Logger.getLogger(LoggingAlertHandler.class.getName());
+
+    @Override
+    public void handle(AlertBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.isResolution(i)) {
+                LOGGER.info("Alert resolved: Patient " + batch.getPatientId(i) + ", Condition: "
+                        + batch.getCondition(i) + ", Timestamp: " + batch.getTimestamp(i));
+            } else {
+                batch.toAlert(i).trigger();
+            }
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.alerts.rules;
+
+import com.alerts.CrossSignalRule;
+import com.alerts.cep.EventPattern;
+import com.alerts.cep.PatternStep;
+import com.alerts.dispatch.AlertPriority;
+import com.protocol.ReadingCodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Loads alert rules from a properties file and compiles them into a {@link RuleSet}.
+ * The file lists the rules in evaluation order, and every rule is configured by
+ * properties prefixed with its name, which is also the condition of its alerts:
+ *
+ * <pre>
+ * rules=CriticalSystolic,ECGPeak
+ *
+ * rule.CriticalSystolic.type=threshold
+ * rule.CriticalSystolic.signals=BloodPressureSystolic
+ * rule.CriticalSystolic.above=180
+ * rule.CriticalSystolic.below=90
+ * rule.CriticalSystolic.alertType=BloodPressure
+ * rule.CriticalSystolic.priority=HIGH
+ *
+ * rule.ECGPeak.type=windowAggregate
+ * rule.ECGPeak.signals=ECG
+ * rule.ECGPeak.window=10
+ * rule.ECGPeak.factor=2
+ * rule.ECGPeak.alertType=ECG
+ * </pre>
+ *
+ * <p>The rule types and their properties are:</p>
+ * <ul>
+ *     <li>{@code threshold}: {@code above} and/or {@code below}, the limits of a normal reading;
+ *     at least one is required</li>
+ *     <li>{@code trend}: {@code step}, a positive number, and {@code readings}, the number of
+ *     consecutive readings that each rise or fall by more than the step, an integer of at least 2</li>
+ *     <li>{@code rateOfChange}: either {@code drop} or {@code rise}, a positive change against the
+ *     extreme of the preceding {@code windowMillis}</li>
+ *     <li>{@code windowAggregate}: {@code window}, a positive integer, and {@code factor}, a
+ *     positive number; a reading above the factor times the average of the preceding window
+ *     readings alerts</li>
+ *     <li>{@code crossSignal}: {@code left} and {@code right}, two record types, with
+ *     {@code leftAbove}/{@code leftBelow} and {@code rightAbove}/{@code rightBelow}, both
+ *     abnormal less than {@code windowMillis} apart</li>
+ *     <li>{@code pattern}: {@code steps}, a comma-separated sequence of record types or
+ *     conditions of other rules, each at most {@code withinMillis} after the previous one,
+ *     see {@link EventPattern}. A record type may carry a limit, e.g., {@code BloodSaturation<90};
+ *     a condition has no value to limit. A step must name a rule of the file that is not a
+ *     pattern, a record type watched by one of its rules, a label of the {@link ReadingCodec}
+ *     or {@code Alert}</li>
+ * </ul>
+ * <p>Apart from cross-signal rules and patterns, every rule needs {@code signals}, a comma-separated
+ * list of record types. {@code alertType} is required, {@code priority} defaults to
+ * {@code NORMAL}. Invalid definitions are rejected with an {@link IllegalArgumentException}
+ * naming the rule and the property, and so are rules listed twice.</p>
+ */
+public final class AlertRules {
+    /**
+     * The classpath resource with the built-in rules.
+     */
+    public static final String DEFAULT_RESOURCE = "/alert-rules.properties";
+
+    private AlertRules() {
+    }
+
+    /**
+     * Loads the built-in rules.
+     *
+     * @return the compiled rules
+     */
+    public static RuleSet loadDefault() {
+        try (InputStream in = AlertRules.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing resource " + DEFAULT_RESOURCE);
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return parse(properties);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads the rules from a file.
+     *
+     * @param file the properties file
+     * @return the compiled rules
+     * @throws IOException if the file cannot be read
+     */
+    public static RuleSet load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Properties properties = new Properties();
+            properties.load(reader);
+            return parse(properties);
+        }
+    }
+
+    /**
+     * Compiles rule definitions.
+     *
+     * @param properties the definitions, in the format described above
+     * @return the compiled rules
+     * @throws IllegalArgumentException if a definition is invalid
+     */
+    public static RuleSet parse(Properties properties) {
+        List<CompiledRule<?>> rules = new ArrayList<>();
+        List<CrossSignalRule> crossSignalRules = new ArrayList<>();
+        List<EventPattern> patterns = new ArrayList<>();
+        Map<String, String> definitions = new HashMap<>();
+        List<String> names = split(properties.getProperty("rules", ""));
+        Set<String> eventTypes = eventTypes(names, properties);
+        Set<String> seen = new HashSet<>();
+        for (String name : names) {
+            if (!seen.add(name)) {
+                throw new IllegalArgumentException("Rule " + name + ": listed twice in rules");
+            }
+            Definition rule = new Definition(name, properties);
+            definitions.put(name, rule.text());
+            String type = rule.required("type");
+            switch (type) {
+                case "threshold":
+                    double above = rule.number("above", Double.POSITIVE_INFINITY);
+                    double below = rule.number("below", Double.NEGATIVE_INFINITY);
+                    if (above == Double.POSITIVE_INFINITY && below == Double.NEGATIVE_INFINITY) {
+                        throw new IllegalArgumentException("Rule " + name + ": missing property above or below");
+                    }
+                    rules.add(new ThresholdRule(name, rule.required("alertType"), rule.priority(), rule.signals(),
+                            above, below));
+                    break;
+                case "trend":
+                    rules.add(new TrendRule(name, rule.required("alertType"), rule.priority(), rule.signals(),
+                            rule.positiveNumber("step"), rule.integer("readings", 2)));
+                    break;
+                case "rateOfChange":
+                    boolean rise = properties.getProperty(rule.key("rise")) != null;
+                    boolean drop = properties.getProperty(rule.key("drop")) != null;
+                    if (rise == drop) {
+                        throw new IllegalArgumentException("Rule " + name + ": "
+                                + (rise ? "both properties rise and drop" : "missing property drop or rise"));
+                    }
+                    rules.add(new RateOfChangeRule(name, rule.required("alertType"), rule.priority(),
+                            rule.signals(), rule.positiveNumber(rise ? "rise" : "drop"), rise,
+                            rule.positive("windowMillis")));
+                    break;
+                case "windowAggregate":
+                    rules.add(new WindowAggregateRule(name, rule.required("alertType"), rule.priority(),
+                            rule.signals(), rule.integer("window", 1), rule.positiveNumber("factor")));
+                    break;
+                case "crossSignal":
+                    crossSignalRules.add(new CrossSignalRule(name,
+                            rule.required("left"), rule.abnormal("left"),
+                            rule.required("right"), rule.abnormal("right"),
+                            rule.positive("windowMillis"), rule.required("alertType"), rule.priority()));
+                    break;
+                case "pattern":
+                    patterns.add(new EventPattern(name, rule.required("alertType"), rule.priority(),
+                            rule.steps(rule.positive("withinMillis"), eventTypes, names)));
+                    break;
+                default:
+                    throw rule.invalid("type");
+            }
+        }
+        return new RuleSet(rules, crossSignalRules, patterns, definitions);
+    }
+
+    /**
+     * Returns the names a pattern step may use besides the record types of the protocol:
+     * the rules of the file, the record types they watch and the simulator's alerts.
+     * Patterns are left out, since their alerts are not passed on to other patterns.
+     */
+    private static Set<String> eventTypes(List<String> names, Properties properties) {
+        Set<String> eventTypes = new HashSet<>();
+        eventTypes.add("Alert");
+        for (String name : names) {
+            if (!"pattern".equals(properties.getProperty("rule." + name + ".type", "").trim())) {
+                eventTypes.add(name);
+            }
+            for (String property : new String[]{"signals", "left", "right"}) {
+                eventTypes.addAll(split(properties.getProperty("rule." + name + "." + property, "")));
+            }
+        }
+        return eventTypes;
+    }
+
+    private static List<String> split(String list) {
+        List<String> items = new ArrayList<>();
+        for (String item : list.split(",")) {
+            if (!item.isBlank()) {
+                items.add(item.trim());
+            }
+        }
+        return items;
+    }
+
+    /**
+     * The properties of one rule, with checked access.
+     */
+    private static final class Definition {
+        private final String name;
+        private final Properties properties;
+
+        private Definition(String name, Properties properties) {
+            this.name = name;
+            this.properties = properties;
+        }
+
+        private String key(String property) {
+            return "rule." + name + "." + property;
+        }
+
+        /**
+         * Returns the rule's properties in a canonical form, to compare definitions across reloads.
+         */
+        private String text() {
+            String prefix = key("");
+            return properties.stringPropertyNames().stream()
+                    .filter(property -> property.startsWith(prefix))
+                    .sorted()
+                    .map(property -> property.substring(prefix.length()) + "=" + properties.getProperty(property).trim())
+                    .collect(Collectors.joining("\n"));
+        }
+
+        private String required(String property) {
+            String value = properties.getProperty(key(property));
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException("Rule " + name + ": missing property " + property);
+            }
+            return value.trim();
+        }
+
+        private double number(String property) {
+            String value = required(property);
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw invalid(property);
+            }
+        }
+
+        private double number(String property, double defaultValue) {
+            return properties.getProperty(key(property)) == null ? defaultValue : number(property);
+        }
+
+        private double positiveNumber(String property) {
+            double value = number(property);
+            if (!(value > 0 && value < Double.POSITIVE_INFINITY)) {
+                throw invalid(property);
+            }
+            return value;
+        }
+
+        private long positive(String property) {
+            double value = number(property);
+            if (value <= 0 || value != Math.rint(value)) {
+                throw invalid(property);
+            }
+            return (long) value;
+        }
+
+        private int integer(String property, int min) {
+            double value = number(property);
+            if (value < min || value > Integer.MAX_VALUE || value != Math.rint(value)) {
+                throw invalid(property);
+            }
+            return (int) value;
+        }
+
+        private List<String> signals() {
+            List<String> signals = split(required("signals"));
+            if (signals.isEmpty()) {
+                throw invalid("signals");
+            }
+            return signals;
+        }
+
+        private List<PatternStep> steps(long withinMillis, Set<String> eventTypes, List<String> conditions) {
+            List<PatternStep> steps = new ArrayList<>();
+            for (String step : split(required("steps"))) {
+                int operator = Math.max(step.indexOf('<'), step.indexOf('>'));
+                String eventType = operator < 0 ? step : step.substring(0, operator).trim();
+                if (!eventTypes.contains(eventType) && ReadingCodec.codeOf(eventType) == ReadingCodec.TEXT) {
+                    throw invalid("steps");
+                }
+                if (operator < 0) {
+                    steps.add(new PatternStep(step, withinMillis));
+                    continue;
+                }
+                if (conditions.contains(eventType)) {
+                    throw invalid("steps");
+                }
+                double limit;
+                try {
+                    limit = Double.parseDouble(step.substring(operator + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw invalid("steps");
+                }
+                DoublePredicate condition = step.charAt(operator) == '<'
+                        ? value -> value < limit
+                        : value -> value > limit;
+                steps.add(new PatternStep(eventType, condition, withinMillis));
+            }
+            if (steps.isEmpty()) {
+                throw invalid("steps");
+            }
+            return steps;
+        }
+
+        private AlertPriority priority() {
+            String value = properties.getProperty(key("priority"));
+            if (value == null) {
+                return AlertPriority.NORMAL;
+            }
+            return Arrays.stream(AlertPriority.values())
+                    .filter(priority -> priority.name().equalsIgnoreCase(value.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> invalid("priority"));
+        }
+
+        /**
+         * Builds the test for an abnormal reading of one side of a cross-signal rule.
+         */
+        private DoublePredicate abnormal(String side) {
+            double above = number(side + "Above", Double.POSITIVE_INFINITY);
+            double below = number(side + "Below", Double.NEGATIVE_INFINITY);
+            if (above == Double.POSITIVE_INFINITY && below == Double.NEGATIVE_INFINITY) {
+                throw new IllegalArgumentException("Rule " + name + ": missing property " + side + "Below");
+            }
+            return value -> value > above || value < below;
+        }
+
+        private IllegalArgumentException invalid(String property) {
+            return new IllegalArgumentException("Rule " + name + ": invalid value for property " + property
+                    + ": " + properties.getProperty(key(property)));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.alerts.rules;
+
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.strategy_pattern.StreamingAlertStrategy;
+
+import java.util.List;
+
+/**
+ * A single-signal alert rule compiled from its definition in an {@link AlertRules} file.
+ * Each rule kind is its own class whose parameters are final primitive fields, so evaluating
+ * a reading runs straight-line code without looking anything up in the definition.
+ * A rule may watch several record types; it then keeps separate state for each of them.
+ *
+ * @param <S> the type of the per-patient state
+ */
+public abstract class CompiledRule<S> implements StreamingAlertStrategy<S> {
+    private final String condition;
+    private final String alertType;
+    private final AlertPriority priority;
+    private final String[] signals;
+
+    protected CompiledRule(String condition, String alertType, AlertPriority priority, List<String> signals) {
+        this.condition = condition;
+        this.alertType = alertType;
+        this.priority = priority;
+        this.signals = signals.toArray(new String[0]);
+    }
+
+    @Override
+    public boolean accepts(String recordType) {
+        return indexOf(recordType) >= 0;
+    }
+
+    /**
+     * Returns the position of a record type among the rule's signals, used to select the
+     * per-signal state.
+     *
+     * @param recordType the type of record, e.g., "ECG"
+     * @return the index, or -1 if the rule does not watch the type
+     */
+    protected final int indexOf(String recordType) {
+        for (int i = 0; i < signals.length; i++) {
+            if (signals[i].equals(recordType)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    protected final int signalCount() {
+        return signals.length;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public String getAlertType() {
+        return alertType;
+    }
+
+    public AlertPriority getPriority() {
+        return priority;
+    }
+
+    public List<String> getSignals() {
+        return List.of(signals);
+    }
+}
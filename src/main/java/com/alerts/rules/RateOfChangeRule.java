@@ -0,0 +1,72 @@
+package com.alerts.rules;
+
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.strategy_pattern.AlertSink;
+import com.alerts.strategy_pattern.TimeWindowMax;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Raises an alert when a reading is at least a given amount below the highest reading of a
+ * preceding time window (a drop), or above the lowest one (a rise). The extreme is tracked
+ * with a {@link TimeWindowMax}; a rise is found by tracking the negated values. A reading
+ * older than the latest one of its signal is skipped, since the window only takes readings in
+ * timestamp order.
+ */
+final class RateOfChangeRule extends CompiledRule<RateOfChangeRule.State> {
+    private final double change;
+    private final double sign;
+    private final long windowMillis;
+
+    /**
+     * @param change       the minimum change that raises the alert, positive
+     * @param rise         {@code true} to watch for rises, {@code false} for drops
+     * @param windowMillis the length of the preceding window, in milliseconds
+     */
+    RateOfChangeRule(String condition, String alertType, AlertPriority priority, List<String> signals,
+                     double change, boolean rise, long windowMillis) {
+        super(condition, alertType, priority, signals);
+        this.change = change;
+        this.sign = rise ? -1 : 1;
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public State newState(int patientId) {
+        TimeWindowMax[] windows = new TimeWindowMax[signalCount()];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new TimeWindowMax(windowMillis);
+        }
+        return new State(patientId, windows);
+    }
+
+    @Override
+    public void onRecord(State state, String recordType, long timestamp, double value, AlertSink sink) {
+        int signal = indexOf(recordType);
+        if (timestamp < state.latest[signal]) {
+            return;
+        }
+        state.latest[signal] = timestamp;
+        TimeWindowMax window = state.windows[signal];
+        double signed = sign * value;
+        window.advanceTo(timestamp);
+        if (!window.isEmpty() && window.max() - signed >= change) {
+            sink.raise(state.patientId, getCondition(), timestamp);
+        }
+        window.add(timestamp, signed);
+    }
+
+    static final class State {
+        private final int patientId;
+        private final TimeWindowMax[] windows;
+        private final long[] latest;
+
+        private State(int patientId, TimeWindowMax[] windows) {
+            this.patientId = patientId;
+            this.windows = windows;
+            this.latest = new long[windows.length];
+            Arrays.fill(latest, Long.MIN_VALUE);
+        }
+    }
+}
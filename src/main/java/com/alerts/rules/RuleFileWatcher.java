@@ -0,0 +1,91 @@
+package com.alerts.rules;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reloads a rules file when it changes. The watcher checks the file's modification time
+ * on a background thread and, after a change, compiles the file and hands the new
+ * {@link RuleSet} to its consumer, e.g., {@link com.alerts.AlertGenerator#updateRules(RuleSet)}.
+ * Compiling happens on the watcher thread, so ingest and evaluation carry on meanwhile.
+ * If the changed file is invalid, the error is logged and the rules in use are kept.
+ */
+public class RuleFileWatcher {
+    private static final Logger LOGGER = Logger.getLogger(RuleFileWatcher.class.getName());
+
+    private final Path file;
+    private final Consumer<RuleSet> onReload;
+    private final ScheduledExecutorService executor;
+    private FileTime lastModified;
+
+    /**
+     * Constructs a watcher; call {@link #start(long)} to begin polling. The file's current
+     * version counts as already loaded.
+     *
+     * @param file     the rules file
+     * @param onReload receives the rules after each successful reload
+     */
+    public RuleFileWatcher(Path file, Consumer<RuleSet> onReload) {
+        this.file = file;
+        this.onReload = onReload;
+        this.lastModified = modifiedTime();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alert-rules-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts checking the file periodically.
+     *
+     * @param pollMillis the time between checks, in milliseconds
+     */
+    public void start(long pollMillis) {
+        executor.scheduleWithFixedDelay(this::checkForChanges, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reloads the file if it changed since the last check. Called by the polling thread;
+     * without {@link #start(long)}, the owner calls it instead.
+     *
+     * @return {@code true} if new rules were loaded
+     */
+    public synchronized boolean checkForChanges() {
+        FileTime modified = modifiedTime();
+        if (modified == null || modified.equals(lastModified)) {
+            return false;
+        }
+        lastModified = modified;
+        try {
+            RuleSet rules = AlertRules.load(file);
+            onReload.accept(rules);
+            LOGGER.info("Reloaded " + rules.getRules().size() + " alert rules and "
+                    + rules.getCrossSignalRules().size() + " cross-signal rules from " + file);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, "Keeping the current alert rules, failed to load " + file, e);
+            return false;
+        }
+    }
+
+    private FileTime modifiedTime() {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.alerts.rules;
+
+import com.alerts.CrossSignalRule;
+import com.alerts.cep.EventPattern;
+import com.alerts.strategy_pattern.StreamingAlertStrategy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable set of compiled alert rules, as loaded by {@link AlertRules}. The
+ * {@link com.alerts.AlertGenerator} holds one rule set at a time and replaces it as a whole
+ * on reload, so an evaluation always sees either the old or the new rules, never a mix.
+ *
+ * <p>For each record type, the set remembers which rules watch it, so routing a reading
+ * costs one map lookup instead of asking every rule. The same holds for the
+ * {@link EventPattern}s and the record types and alert conditions they follow.</p>
+ *
+ * <p>A set compiled from properties also keeps the definition of every rule, so that a
+ * reload can tell which rules are unchanged and keep their per-patient state.</p>
+ */
+public final class RuleSet {
+    private static final int[] NONE = new int[0];
+
+    private final List<CompiledRule<?>> rules;
+    private final List<CrossSignalRule> crossSignalRules;
+    private final List<EventPattern> patterns;
+    private final Map<String, String> definitions;
+    private final Map<String, int[]> rulesByType = new ConcurrentHashMap<>();
+    private final Map<String, int[]> patternsByType = new ConcurrentHashMap<>();
+
+    /**
+     * @param rules            the single-signal rules, in evaluation order
+     * @param crossSignalRules the rules spanning two signals
+     */
+    public RuleSet(List<CompiledRule<?>> rules, List<CrossSignalRule> crossSignalRules) {
+        this(rules, crossSignalRules, List.of());
+    }
+
+    /**
+     * @param rules            the single-signal rules, in evaluation order
+     * @param crossSignalRules the rules spanning two signals
+     * @param patterns         the multi-step patterns
+     */
+    public RuleSet(List<CompiledRule<?>> rules, List<CrossSignalRule> crossSignalRules,
+                   List<EventPattern> patterns) {
+        this(rules, crossSignalRules, patterns, Map.of());
+    }
+
+    /**
+     * @param rules            the single-signal rules, in evaluation order
+     * @param crossSignalRules the rules spanning two signals
+     * @param patterns         the multi-step patterns
+     * @param definitions      the definition of each rule, by condition
+     */
+    public RuleSet(List<CompiledRule<?>> rules, List<CrossSignalRule> crossSignalRules,
+                   List<EventPattern> patterns, Map<String, String> definitions) {
+        this.rules = List.copyOf(rules);
+        this.crossSignalRules = List.copyOf(crossSignalRules);
+        this.patterns = List.copyOf(patterns);
+        this.definitions = Map.copyOf(definitions);
+    }
+
+    public List<CompiledRule<?>> getRules() {
+        return rules;
+    }
+
+    public List<CrossSignalRule> getCrossSignalRules() {
+        return crossSignalRules;
+    }
+
+    public List<EventPattern> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * Returns whether a rule has the same definition here as in another set, so that state
+     * built up under the other set is valid for it. Rules without a definition, e.g., those
+     * of a set built in code, never count as unchanged.
+     *
+     * @param condition the condition of the rule
+     * @param other     the other rule set
+     * @return {@code true} if both sets define the rule identically
+     */
+    public boolean isUnchanged(String condition, RuleSet other) {
+        String definition = definitions.get(condition);
+        return definition != null && definition.equals(other.definitions.get(condition));
+    }
+
+    /**
+     * Returns the positions in {@link #getRules()} of the rules that watch a record type.
+     * The returned array must not be modified.
+     *
+     * @param recordType the type of record, e.g., "ECG"
+     * @return the indices of the rules, in evaluation order
+     */
+    public int[] rulesFor(String recordType) {
+        int[] indices = rulesByType.get(recordType);
+        if (indices == null) {
+            indices = rulesByType.computeIfAbsent(recordType, type -> find(rules, type));
+        }
+        return indices;
+    }
+
+    /**
+     * Returns the positions in {@link #getPatterns()} of the patterns that follow a record
+     * type or alert condition. The returned array must not be modified.
+     *
+     * @param eventType the type of record or the alert condition
+     * @return the indices of the patterns
+     */
+    public int[] patternsFor(String eventType) {
+        int[] indices = patternsByType.get(eventType);
+        if (indices == null) {
+            indices = patternsByType.computeIfAbsent(eventType, type -> find(patterns, type));
+        }
+        return indices;
+    }
+
+    private static int[] find(List<? extends StreamingAlertStrategy<?>> rules, String recordType) {
+        int count = 0;
+        int[] indices = new int[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i).accepts(recordType)) {
+                indices[count++] = i;
+            }
+        }
+        return count == 0 ? NONE : Arrays.copyOf(indices, count);
+    }
+}
@@ -0,0 +1,48 @@
+package com.alerts.rules;
+
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.strategy_pattern.AlertSink;
+
+import java.util.List;
+
+/**
+ * Raises an alert while a reading is above an upper or below a lower limit, and resolves it
+ * when a reading is back within both.
+ */
+final class ThresholdRule extends CompiledRule<ThresholdRule.State> {
+    private final double above;
+    private final double below;
+
+    /**
+     * @param above the upper limit, or {@link Double#POSITIVE_INFINITY} for none
+     * @param below the lower limit, or {@link Double#NEGATIVE_INFINITY} for none
+     */
+    ThresholdRule(String condition, String alertType, AlertPriority priority, List<String> signals,
+                  double above, double below) {
+        super(condition, alertType, priority, signals);
+        this.above = above;
+        this.below = below;
+    }
+
+    @Override
+    public State newState(int patientId) {
+        return new State(patientId);
+    }
+
+    @Override
+    public void onRecord(State state, String recordType, long timestamp, double value, AlertSink sink) {
+        if (value > above || value < below) {
+            sink.raise(state.patientId, getCondition(), timestamp);
+        } else {
+            sink.resolve(state.patientId, getCondition(), timestamp);
+        }
+    }
+
+    static final class State {
+        private final int patientId;
+
+        private State(int patientId) {
+            this.patientId = patientId;
+        }
+    }
+}
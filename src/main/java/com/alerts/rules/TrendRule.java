@@ -0,0 +1,77 @@
+package com.alerts.rules;
+
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.strategy_pattern.AlertSink;
+
+import java.util.List;
+
+/**
+ * Raises an alert when a number of consecutive readings of a signal each rise, or each fall,
+ * by more than a step, e.g., three readings each more than 10 mmHg apart. A reading older
+ * than the latest one of its signal is skipped rather than compared as the next step.
+ */
+final class TrendRule extends CompiledRule<TrendRule.State> {
+    private final double step;
+    private final int steps;
+
+    /**
+     * @param step     the change between two readings that counts as a step
+     * @param readings the number of consecutive readings forming a trend, at least 2
+     */
+    TrendRule(String condition, String alertType, AlertPriority priority, List<String> signals,
+              double step, int readings) {
+        super(condition, alertType, priority, signals);
+        this.step = step;
+        this.steps = readings - 1;
+    }
+
+    @Override
+    public State newState(int patientId) {
+        return new State(patientId, signalCount());
+    }
+
+    @Override
+    public void onRecord(State state, String recordType, long timestamp, double value, AlertSink sink) {
+        int signal = indexOf(recordType);
+        if (state.seen[signal]) {
+            if (timestamp < state.latest[signal]) {
+                return;
+            }
+            double change = value - state.previous[signal];
+            if (change > step) {
+                state.rising[signal]++;
+                state.falling[signal] = 0;
+            } else if (change < -step) {
+                state.falling[signal]++;
+                state.rising[signal] = 0;
+            } else {
+                state.rising[signal] = 0;
+                state.falling[signal] = 0;
+            }
+            if (state.rising[signal] >= steps || state.falling[signal] >= steps) {
+                sink.raise(state.patientId, getCondition(), timestamp);
+            }
+        }
+        state.seen[signal] = true;
+        state.latest[signal] = timestamp;
+        state.previous[signal] = value;
+    }
+
+    static final class State {
+        private final int patientId;
+        private final boolean[] seen;
+        private final long[] latest;
+        private final double[] previous;
+        private final int[] rising;
+        private final int[] falling;
+
+        private State(int patientId, int signals) {
+            this.patientId = patientId;
+            this.seen = new boolean[signals];
+            this.latest = new long[signals];
+            this.previous = new double[signals];
+            this.rising = new int[signals];
+            this.falling = new int[signals];
+        }
+    }
+}
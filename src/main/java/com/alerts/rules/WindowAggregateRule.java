@@ -0,0 +1,66 @@
+package com.alerts.rules;
+
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.strategy_pattern.AlertSink;
+import com.alerts.strategy_pattern.SlidingWindow;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Raises an alert when a reading exceeds a multiple of the average of the readings before
+ * it, e.g., an ECG value above twice the average of the previous 10. The average comes from
+ * a {@link SlidingWindow} and is only used once the window is full. A reading older than the
+ * latest one of its signal is skipped, as the window holds the readings in timestamp order.
+ */
+final class WindowAggregateRule extends CompiledRule<WindowAggregateRule.State> {
+    private final int windowSize;
+    private final double factor;
+
+    /**
+     * @param windowSize the number of preceding readings averaged
+     * @param factor     the multiple of the average a reading has to exceed
+     */
+    WindowAggregateRule(String condition, String alertType, AlertPriority priority, List<String> signals,
+                        int windowSize, double factor) {
+        super(condition, alertType, priority, signals);
+        this.windowSize = windowSize;
+        this.factor = factor;
+    }
+
+    @Override
+    public State newState(int patientId) {
+        SlidingWindow[] windows = new SlidingWindow[signalCount()];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new SlidingWindow(windowSize);
+        }
+        return new State(patientId, windows);
+    }
+
+    @Override
+    public void onRecord(State state, String recordType, long timestamp, double value, AlertSink sink) {
+        int signal = indexOf(recordType);
+        if (timestamp < state.latest[signal]) {
+            return;
+        }
+        state.latest[signal] = timestamp;
+        SlidingWindow window = state.windows[signal];
+        if (window.isFull() && value > window.average() * factor) {
+            sink.raise(state.patientId, getCondition(), timestamp);
+        }
+        window.add(value);
+    }
+
+    static final class State {
+        private final int patientId;
+        private final SlidingWindow[] windows;
+        private final long[] latest;
+
+        private State(int patientId, SlidingWindow[] windows) {
+            this.patientId = patientId;
+            this.windows = windows;
+            this.latest = new long[windows.length];
+            Arrays.fill(latest, Long.MIN_VALUE);
+        }
+    }
+}
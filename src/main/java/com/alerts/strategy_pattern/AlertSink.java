@@ -0,0 +1,19 @@
+package com.alerts.strategy_pattern;
+
+/**
+ * Receives the alerts raised by a {@link StreamingAlertStrategy}.
+ */
+@FunctionalInterface
+public interface AlertSink {
+    AlertSink NONE = (patientId, condition, timestamp) -> { };
+
+    void raise(int patientId, String condition, long timestamp);
+
+    /**
+     * Signals that a reading showed the condition is no longer present. Strategies call this
+     * for conditions that persist over several readings, so that an alert-state layer can
+     * close the alert; sinks that do not track state ignore it.
+     */
+    default void resolve(int patientId, String condition, long timestamp) {
+    }
+}
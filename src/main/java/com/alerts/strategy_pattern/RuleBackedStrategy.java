@@ -0,0 +1,113 @@
+package com.alerts.strategy_pattern;
+
+import com.alerts.decorator_pattern.ConcreteAlert;
+import com.alerts.factory_pattern.AlertFactory;
+import com.alerts.rules.AlertRules;
+import com.alerts.rules.CompiledRule;
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * An alert strategy made of rules of the built-in {@link AlertRules} set, selected by their
+ * conditions, so that the strategies and the {@link com.alerts.AlertGenerator} raise the same
+ * alerts from the same definitions. The per-patient state holds the state of every rule.
+ */
+public abstract class RuleBackedStrategy implements AlertStrategy, StreamingAlertStrategy<RuleBackedStrategy.State> {
+    private static final Logger LOGGER = Logger.getLogger(RuleBackedStrategy.class.getName());
+
+    private final CompiledRule<?>[] rules;
+
+    /**
+     * @param conditions the conditions of the built-in rules to evaluate
+     * @throws IllegalStateException if the built-in rules lack one of the conditions
+     */
+    protected RuleBackedStrategy(String... conditions) {
+        List<CompiledRule<?>> selected = new ArrayList<>();
+        for (String condition : conditions) {
+            CompiledRule<?> match = null;
+            for (CompiledRule<?> rule : BuiltIn.RULES) {
+                if (rule.getCondition().equals(condition)) {
+                    match = rule;
+                }
+            }
+            if (match == null) {
+                throw new IllegalStateException("Built-in rules have no rule " + condition);
+            }
+            selected.add(match);
+        }
+        this.rules = selected.toArray(new CompiledRule<?>[0]);
+    }
+
+    @Override
+    public void checkAlert(List<PatientRecord> records, int patientId, AlertFactory alertFactory) {
+        State state = newState(patientId);
+        AlertSink sink = (id, condition, timestamp) ->
+                triggerAlert(alertFactory.createAlert(String.valueOf(id), condition, timestamp));
+        for (PatientRecord record : records) {
+            if (accepts(record.getRecordType())) {
+                onRecord(state, record.getRecordType(), record.getTimestamp(), record.getMeasurementValue(), sink);
+            }
+        }
+    }
+
+    @Override
+    public State newState(int patientId) {
+        Object[] ruleStates = new Object[rules.length];
+        for (int r = 0; r < rules.length; r++) {
+            ruleStates[r] = rules[r].newState(patientId);
+        }
+        return new State(ruleStates);
+    }
+
+    @Override
+    public boolean accepts(String recordType) {
+        for (CompiledRule<?> rule : rules) {
+            if (rule.accepts(recordType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onRecord(State state, String recordType, long timestamp, double value, AlertSink sink) {
+        for (int r = 0; r < rules.length; r++) {
+            if (rules[r].accepts(recordType)) {
+                push(rules[r], state.ruleStates[r], recordType, timestamp, value, sink);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S> void push(StreamingAlertStrategy<S> rule, Object state, String recordType,
+                                 long timestamp, double value, AlertSink sink) {
+        rule.onRecord((S) state, recordType, timestamp, value, sink);
+    }
+
+    private void triggerAlert(ConcreteAlert alert) {
+        LOGGER.info("Alert triggered: Patient " + alert.getPatientId() + ", Condition: " +
+                alert.getCondition() + ", Type: " + alert.getAlertType() + ", Timestamp: " + alert.getTimestamp());
+    }
+
+    /**
+     * The built-in rules, parsed once on first use. Compiled rules keep their state per
+     * patient outside, so all strategies can share them.
+     */
+    private static final class BuiltIn {
+        private static final List<CompiledRule<?>> RULES = AlertRules.loadDefault().getRules();
+    }
+
+    /**
+     * The state of each rule of the strategy for one patient.
+     */
+    public static final class State {
+        private final Object[] ruleStates;
+
+        private State(Object[] ruleStates) {
+            this.ruleStates = ruleStates;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.alerts.strategy_pattern;
+
+/**
+ * A fixed-size window over the most recent values with a running sum, so adding a value
+ * and reading the average both take constant time.
+ * The sum is rebuilt from the window each time it wraps around, which keeps
+ * floating-point drift from the running additions and subtractions bounded.
+ */
+public class SlidingWindow {
+    private final double[] values;
+    private int next;
+    private int count;
+    private double sum;
+
+    public SlidingWindow(int size) {
+        this.values = new double[size];
+    }
+
+    public void add(double value) {
+        if (count == values.length) {
+            sum -= values[next];
+        } else {
+            count++;
+        }
+        values[next] = value;
+        sum += value;
+        next++;
+        if (next == values.length) {
+            next = 0;
+            sum = 0;
+            for (int i = 0; i < count; i++) {
+                sum += values[i];
+            }
+        }
+    }
+
+    public boolean isFull() {
+        return count == values.length;
+    }
+
+    public double average() {
+        return count == 0 ? 0 : sum / count;
+    }
+}
@@ -0,0 +1,30 @@
+package com.alerts.strategy_pattern;
+
+/**
+ * A push-based alert strategy that receives one reading at a time.
+ * Everything the strategy needs to remember about a patient, such as previous values or
+ * running window sums, lives in a per-patient state object created by {@link #newState(int)}
+ * and passed back on every call. Implementations keep the work per reading constant and do
+ * not allocate on the per-reading path.
+ *
+ * @param <S> the type of the per-patient state
+ */
+public interface StreamingAlertStrategy<S> {
+
+    /**
+     * Creates the state for a patient that has not been seen before.
+     */
+    S newState(int patientId);
+
+    /**
+     * Returns whether readings of the given record type are relevant to this strategy.
+     */
+    boolean accepts(String recordType);
+
+    /**
+     * Processes the next reading of an accepted record type. Readings of one patient arrive
+     * in timestamp order, except for readings stored late: those arrive once, before the
+     * newer readings of the same evaluation, and may be older than readings already processed.
+     */
+    void onRecord(S state, String recordType, long timestamp, double value, AlertSink sink);
+}
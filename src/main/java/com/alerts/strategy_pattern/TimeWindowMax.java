@@ -0,0 +1,69 @@
+package com.alerts.strategy_pattern;
+
+/**
+ * Tracks the maximum of the values seen within a sliding time window using a monotonic
+ * deque: values that can never be the maximum again are dropped as newer, larger values
+ * arrive, so adding a value and reading the maximum cost amortized constant time.
+ * The deque is a primitive ring buffer that only grows when the window holds more
+ * candidates than ever before.
+ */
+public class TimeWindowMax {
+    private final long windowMillis;
+    private long[] timestamps = new long[16];
+    private double[] values = new double[16];
+    private int head;
+    private int size;
+
+    public TimeWindowMax(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Drops the values that are older than the window relative to the given time.
+     */
+    public void advanceTo(long timestamp) {
+        long oldest = timestamp - windowMillis;
+        while (size > 0 && timestamps[head] < oldest) {
+            head = (head + 1) & (timestamps.length - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Adds a value; timestamps must not decrease from one call to the next.
+     */
+    public void add(long timestamp, double value) {
+        int mask = timestamps.length - 1;
+        while (size > 0 && values[(head + size - 1) & mask] <= value) {
+            size--;
+        }
+        if (size == timestamps.length) {
+            grow();
+            mask = timestamps.length - 1;
+        }
+        int tail = (head + size) & mask;
+        timestamps[tail] = timestamp;
+        values[tail] = value;
+        size++;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double max() {
+        return values[head];
+    }
+
+    private void grow() {
+        long[] newTimestamps = new long[timestamps.length * 2];
+        double[] newValues = new double[values.length * 2];
+        for (int i = 0; i < size; i++) {
+            newTimestamps[i] = timestamps[(head + i) & (timestamps.length - 1)];
+            newValues[i] = values[(head + i) & (values.length - 1)];
+        }
+        timestamps = newTimestamps;
+        values = newValues;
+        head = 0;
+    }
+}
@@ -0,0 +1,265 @@
+package com.alerts.timer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A hashed timing wheel for large numbers of timeouts with coarse precision, such as alert
+ * repeats and escalations. Time is divided into ticks of {@code tickMillis}; the wheel is an
+ * array of buckets, and a timeout due in {@code n} ticks lives in bucket
+ * {@code (current + n) % wheelSize} with {@code n / wheelSize} remaining rounds. Each bucket
+ * is a doubly-linked list, so scheduling and cancelling cost O(1) regardless of how many
+ * timeouts are pending, and every tick only visits the timeouts of one bucket.
+ *
+ * <p>{@link #schedule(Runnable, long)} and {@link Timeout#cancel()} may be called from any
+ * thread; they only put the timeout on a queue that the wheel drains on its next tick. Tasks
+ * run on the wheel's worker thread and should be short. A timeout fires no earlier than its
+ * delay and at most about one tick late.</p>
+ */
+public class HashedWheelTimer {
+    private static final Logger LOGGER = Logger.getLogger(HashedWheelTimer.class.getName());
+
+    private final long tickMillis;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final LongSupplier clockMillis;
+    private final long startMillis;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private long tick;
+    private volatile boolean running;
+
+    /**
+     * Constructs a timer driven by the system clock; call {@link #start()} to begin ticking.
+     *
+     * @param tickMillis the duration of one tick, in milliseconds
+     * @param wheelSize  the number of buckets, rounded up to a power of two
+     */
+    public HashedWheelTimer(long tickMillis, int wheelSize) {
+        this(tickMillis, wheelSize, () -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+    }
+
+    /**
+     * Constructs a timer driven by the given clock. Without {@link #start()}, time only
+     * advances when {@link #expireDue()} is called, which suits simulations and tests.
+     *
+     * @param tickMillis  the duration of one tick, in milliseconds
+     * @param wheelSize   the number of buckets, rounded up to a power of two
+     * @param clockMillis a monotonic clock in milliseconds
+     */
+    public HashedWheelTimer(long tickMillis, int wheelSize, LongSupplier clockMillis) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.clockMillis = clockMillis;
+        this.startMillis = clockMillis.getAsLong();
+        this.worker = new Thread(this::run, "alert-timer");
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * Starts the worker thread that advances the wheel once per tick.
+     */
+    public void start() {
+        running = true;
+        worker.start();
+    }
+
+    /**
+     * Stops the worker thread. Pending timeouts do not fire.
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @param task        the task to run on the timer thread
+     * @param delayMillis the delay in milliseconds
+     * @return the handle to cancel the timeout
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        Timeout timeout = new Timeout(this, task, clockMillis.getAsLong() + Math.max(0, delayMillis));
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Advances the wheel to the current time and runs the tasks that became due. Called by
+     * the worker thread; without a started worker, the owner calls it instead. Must not be
+     * called concurrently.
+     */
+    public void expireDue() {
+        long now = clockMillis.getAsLong();
+        while (startMillis + (tick + 1) * tickMillis <= now) {
+            removeCancelled();
+            transferScheduled();
+            wheel[(int) tick & mask].expire();
+            tick++;
+        }
+    }
+
+    private void run() {
+        while (running) {
+            expireDue();
+            long nextTick = startMillis + (tick + 1) * tickMillis;
+            long sleep = nextTick - clockMillis.getAsLong();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.state != Timeout.PENDING) {
+                continue;
+            }
+            long dueTick = (timeout.deadline - startMillis) / tickMillis;
+            timeout.remainingRounds = (dueTick - tick) / wheel.length;
+            wheel[(int) Math.max(dueTick, tick) & mask].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * A scheduled task. Cancelling is O(1): the timeout is marked and unlinked from its
+     * bucket on the next tick.
+     */
+    public static final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private volatile int state = PENDING;
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the timeout if it has not fired yet.
+         *
+         * @return {@code true} if this call cancelled it
+         */
+        public boolean cancel() {
+            synchronized (this) {
+                if (state != PENDING) {
+                    return false;
+                }
+                state = CANCELLED;
+            }
+            timer.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private void expire() {
+            synchronized (this) {
+                if (state != PENDING) {
+                    return;
+                }
+                state = EXPIRED;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Timer task failed", e);
+            }
+        }
+    }
+
+    /**
+     * The timeouts hashed to one slot of the wheel. Only touched by the ticking thread.
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+            }
+            tail = timeout;
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        private void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
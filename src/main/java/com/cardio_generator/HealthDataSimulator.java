@@ -2,6 +2,7 @@ package com.cardio_generator;
 
 import com.cardio_generator.generators.*;
 import com.cardio_generator.outputs.*;
+import com.metrics.MetricsHttpServer;
 import java.util.*;
 import java.io.IOException;
 import java.nio.file.*;
@@ -31,6 +32,7 @@ public class HealthDataSimulator {
     public static void main(String[] args) throws IOException {
         HealthDataSimulator simulator = getInstance();
         simulator.parseArguments(args);
+        MetricsHttpServer.startFromSystemProperties();
         scheduler = Executors.newScheduledThreadPool(patientCount * 4);
         List<Integer> patientIds = simulator.initializePatientIds(patientCount);
         Collections.shuffle(patientIds);
@@ -1,8 +1,15 @@
 package com.cardio_generator.outputs;
 
+import com.metrics.Counter;
+import com.metrics.MetricsRegistry;
+
 public class ConsoleOutputStrategy implements OutputStrategy {
+    private static final Counter MESSAGES = MetricsRegistry.getInstance()
+            .counter("simulator_console_messages_total", "Readings printed to the console");
+
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
+        MESSAGES.increment();
         System.out.printf("Patient ID: %d, Timestamp: %d, Label: %s, Data: %s%n", patientId, timestamp, label, data);
     }
 }
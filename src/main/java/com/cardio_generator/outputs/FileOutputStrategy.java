@@ -1,5 +1,8 @@
 package com.cardio_generator.outputs;
 
+import com.metrics.Counter;
+import com.metrics.MetricsRegistry;
+
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.nio.file.Files;
@@ -19,6 +22,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * @author [Your Name or Author Name]
  */
 public class FileOutputStrategy implements OutputStrategy {
+    private static final Counter MESSAGES = MetricsRegistry.getInstance()
+            .counter("simulator_file_messages_total", "Readings written to files");
+    private static final Counter ERRORS = MetricsRegistry.getInstance()
+            .counter("simulator_file_errors_total", "Readings that could not be written to files");
 
     /** The base directory where output files are stored. */
     private String baseDirectory;
@@ -51,6 +58,7 @@ public class FileOutputStrategy implements OutputStrategy {
         try {
             Files.createDirectories(Paths.get(baseDirectory));
         } catch (IOException e) {
+            ERRORS.increment();
             System.err.println("Error creating base directory: " + e.getMessage());
             return;
         }
@@ -60,7 +68,9 @@ public class FileOutputStrategy implements OutputStrategy {
         try (PrintWriter out = new PrintWriter(
                 Files.newBufferedWriter(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
             out.printf("Patient ID: %d, Timestamp: %d, Label: %s, Data: %s%n", patientId, timestamp, label, data);
+            MESSAGES.increment();
         } catch (Exception e) {
+            ERRORS.increment();
             System.err.println("Error writing to file " + filePath + ": " + e.getMessage());
         }
     }
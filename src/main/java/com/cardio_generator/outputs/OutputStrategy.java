@@ -21,4 +21,18 @@ public interface OutputStrategy {
      * @param data       The actual health data to output, formatted as a string (e.g., "120/80" for blood pressure).
      */
     void output(int patientId, long timestamp, String label, String data);
+
+    /**
+     * Outputs a numeric health reading. By default, the value is formatted with
+     * {@link Double#toString(double)} and passed to {@link #output(int, long, String, String)};
+     * strategies with a binary encoding override this to send the value without formatting it.
+     *
+     * @param patientId  The unique identifier of the patient associated with the data. Must be a positive integer.
+     * @param timestamp  The time at which the data was generated, represented as milliseconds since epoch.
+     * @param label      A string identifying the type of data (e.g., "ECG", "Cholesterol").
+     * @param value      The measured value.
+     */
+    default void output(int patientId, long timestamp, String label, double value) {
+        output(patientId, timestamp, label, Double.toString(value));
+    }
 }
\ No newline at end of file
@@ -1,10 +1,19 @@
 
 package com.cardio_generator.outputs;
 
+import com.metrics.Counter;
+import com.metrics.MetricsRegistry;
+import com.protocol.ReadingCodec;
+
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Executors;
 
 /**
@@ -15,9 +24,17 @@ import java.util.concurrent.Executors;
  * <p>This class is used in the cardiovascular data simulator when the output is configured to stream data to a TCP client
  * (e.g., using the "--output tcp:<port>" command-line argument).</p>
  *
+ * <p>A client that sends the line {@value ReadingCodec#PROTOCOL} within {@value #HELLO_TIMEOUT_MILLIS} ms of
+ * connecting receives the same line back, followed by readings in the binary {@link ReadingCodec} encoding.
+ * Other clients receive text lines as before.</p>
+ *
  * @author [Your Name or Author Name]
  */
 public class TcpOutputStrategy implements OutputStrategy {
+    private static final Counter MESSAGES = MetricsRegistry.getInstance()
+            .counter("simulator_tcp_messages_total", "Readings sent to the TCP client");
+    private static final Counter DROPPED = MetricsRegistry.getInstance()
+            .counter("simulator_tcp_dropped_total", "Readings dropped while no TCP client was connected");
 
     /** The server socket that listens for client connections. */
     private ServerSocket serverSocket;
@@ -25,8 +42,14 @@ public class TcpOutputStrategy implements OutputStrategy {
     /** The socket connected to the client. */
     private Socket clientSocket;
 
-    /** The writer used to send data to the connected client. */
-    private PrintWriter out;
+    /** How long a new client has to ask for the binary encoding. */
+    private static final int HELLO_TIMEOUT_MILLIS = 500;
+
+    /** The writer used to send text data to the connected client. */
+    private volatile PrintWriter out;
+
+    /** The stream used to send binary data, if the client asked for it. */
+    private volatile OutputStream binaryOut;
 
     /**
      * Constructs a {@code TcpOutputStrategy} that starts a TCP server on the specified port.
@@ -45,8 +68,16 @@ public class TcpOutputStrategy implements OutputStrategy {
             Executors.newSingleThreadExecutor().submit(() -> {
                 try {
                     clientSocket = serverSocket.accept();
-                    out = new PrintWriter(clientSocket.getOutputStream(), true);
-                    System.out.println("Client connected: " + clientSocket.getInetAddress());
+                    if (asksForBinary(clientSocket)) {
+                        OutputStream stream = new BufferedOutputStream(clientSocket.getOutputStream());
+                        stream.write((ReadingCodec.PROTOCOL + "\n").getBytes(StandardCharsets.US_ASCII));
+                        stream.flush();
+                        binaryOut = stream;
+                    } else {
+                        out = new PrintWriter(clientSocket.getOutputStream(), true);
+                    }
+                    System.out.println("Client connected: " + clientSocket.getInetAddress()
+                            + (binaryOut != null ? ", binary readings" : ""));
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
@@ -68,9 +99,63 @@ public class TcpOutputStrategy implements OutputStrategy {
      */
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
-        if (out != null) {
+        if (binaryOut != null) {
+            send(ReadingCodec.encode(patientId, timestamp, label, data));
+        } else if (out != null) {
             String message = String.format("%d,%d,%s,%s", patientId, timestamp, label, data);
             out.println(message);
+            MESSAGES.increment();
+        } else {
+            DROPPED.increment();
+        }
+    }
+
+    /**
+     * Sends a numeric reading, without formatting it if the client receives binary readings.
+     *
+     * @param patientId  The unique identifier of the patient associated with the data.
+     * @param timestamp  The time at which the data was generated, represented as milliseconds since epoch.
+     * @param label      A string identifying the type of data (e.g., "ECG").
+     * @param value      The measured value.
+     */
+    @Override
+    public void output(int patientId, long timestamp, String label, double value) {
+        if (binaryOut != null) {
+            send(ReadingCodec.encode(patientId, timestamp, label, value));
+        } else {
+            output(patientId, timestamp, label, Double.toString(value));
+        }
+    }
+
+    private void send(byte[] reading) {
+        try {
+            // BufferedOutputStream writes a whole array under its lock, so readings never interleave
+            binaryOut.write(reading);
+            binaryOut.flush();
+            MESSAGES.increment();
+        } catch (IOException e) {
+            DROPPED.increment();
+        }
+    }
+
+    /**
+     * Waits briefly for the client to ask for the binary encoding with a line holding the
+     * protocol name.
+     */
+    private static boolean asksForBinary(Socket socket) throws IOException {
+        socket.setSoTimeout(HELLO_TIMEOUT_MILLIS);
+        StringBuilder line = new StringBuilder();
+        try {
+            InputStream in = socket.getInputStream();
+            int b;
+            while ((b = in.read()) >= 0 && b != '\n' && line.length() <= ReadingCodec.PROTOCOL.length()) {
+                line.append((char) b);
+            }
+        } catch (SocketTimeoutException e) {
+            // A text client that does not send anything
+        } finally {
+            socket.setSoTimeout(0);
         }
+        return ReadingCodec.PROTOCOL.equals(line.toString().trim());
     }
 }
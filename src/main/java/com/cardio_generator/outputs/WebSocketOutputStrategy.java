@@ -1,48 +1,119 @@
 package com.cardio_generator.outputs;
 
+import com.metrics.Counter;
+import com.metrics.MetricsRegistry;
+import com.protocol.ReadingCodec;
 import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.protocols.IProtocol;
+import org.java_websocket.protocols.Protocol;
 import org.java_websocket.server.WebSocketServer;
 
 import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * An OutputStrategy that broadcasts patient health data to WebSocket clients in real-time.
  * Starts a WebSocket server on the specified port and sends data in the format: patientId,timestamp,label,data.
+ *
+ * <p>Clients that ask for the {@value ReadingCodec#PROTOCOL} subprotocol receive every
+ * reading as a binary frame in the {@link ReadingCodec} encoding instead. The encoding is
+ * chosen per connection, so text and binary clients can be served at the same time; each
+ * form is only built if a client needs it.</p>
  */
 public class WebSocketOutputStrategy implements OutputStrategy {
     private static final Logger LOGGER = Logger.getLogger(WebSocketOutputStrategy.class.getName());
+    private static final Counter MESSAGES = MetricsRegistry.getInstance()
+            .counter("simulator_websocket_messages_total", "Messages sent to WebSocket clients");
+    private static final Counter ERRORS = MetricsRegistry.getInstance()
+            .counter("simulator_websocket_errors_total", "Messages that failed to reach a WebSocket client");
     private final WebSocketServer server;
 
     public WebSocketOutputStrategy(int port) {
-        server = new SimpleWebSocketServer(new InetSocketAddress(port));
+        // The binary protocol comes first, so the server picks it whenever the client offers it
+        List<IProtocol> protocols = List.of(new Protocol(ReadingCodec.PROTOCOL), new Protocol(""));
+        Draft draft = new Draft_6455(Collections.emptyList(), protocols);
+        server = new SimpleWebSocketServer(new InetSocketAddress(port), List.of(draft));
+        // Lets a restarted simulator bind the port while connections of the previous run linger
+        server.setReuseAddr(true);
         LOGGER.info("WebSocket server created on port: " + port);
         server.start();
     }
 
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
-        String message = String.format("%d,%d,%s,%s", patientId, timestamp, label, data);
+        broadcast(patientId, timestamp, label, data, 0);
+    }
+
+    @Override
+    public void output(int patientId, long timestamp, String label, double value) {
+        broadcast(patientId, timestamp, label, null, value);
+    }
+
+    /**
+     * Closes the client connections and stops the server, freeing its port.
+     *
+     * @throws InterruptedException if interrupted while waiting for the server thread to end
+     */
+    public void stop() throws InterruptedException {
+        server.stop();
+        LOGGER.info("WebSocket server stopped");
+    }
+
+    /**
+     * Sends a reading to every client, in the encoding negotiated for its connection.
+     *
+     * @param data  the data as text, or {@code null} if the reading is the numeric value
+     * @param value the value, if data is {@code null}
+     */
+    private void broadcast(int patientId, long timestamp, String label, String data, double value) {
+        String message = null;
+        byte[] frame = null;
         synchronized (server.getConnections()) {
             for (WebSocket conn : server.getConnections()) {
                 try {
-                    conn.send(message);
-                    LOGGER.fine("Sent message to " + conn.getRemoteSocketAddress() + ": " + message);
+                    if (isBinary(conn)) {
+                        if (frame == null) {
+                            frame = data != null ? ReadingCodec.encode(patientId, timestamp, label, data)
+                                    : ReadingCodec.encode(patientId, timestamp, label, value);
+                        }
+                        conn.send(frame);
+                    } else {
+                        if (message == null) {
+                            message = patientId + "," + timestamp + "," + label + ","
+                                    + (data != null ? data : Double.toString(value));
+                        }
+                        conn.send(message);
+                    }
+                    MESSAGES.increment();
+                    if (LOGGER.isLoggable(Level.FINE)) {
+                        LOGGER.fine("Sent reading to " + conn.getRemoteSocketAddress() + ": " + patientId + "," + label);
+                    }
                 } catch (Exception e) {
+                    ERRORS.increment();
                     LOGGER.warning("Failed to send message to " + conn.getRemoteSocketAddress() + ": " + e.getMessage());
                 }
             }
         }
     }
 
+    private static boolean isBinary(WebSocket conn) {
+        IProtocol protocol = conn.getProtocol();
+        return protocol != null && ReadingCodec.PROTOCOL.equals(protocol.getProvidedProtocol());
+    }
+
     private static class SimpleWebSocketServer extends WebSocketServer {
-        public SimpleWebSocketServer(InetSocketAddress address) {
-            super(address);
+        public SimpleWebSocketServer(InetSocketAddress address, List<Draft> drafts) {
+            super(address, drafts);
         }
 
         @Override
         public void onOpen(WebSocket conn, org.java_websocket.handshake.ClientHandshake handshake) {
-            LOGGER.info("New connection: " + conn.getRemoteSocketAddress());
+            LOGGER.info("New connection: " + conn.getRemoteSocketAddress() + (isBinary(conn) ? ", binary readings" : ""));
         }
 
         @Override
@@ -1,20 +1,57 @@
 package com.data_management;
 
 import com.alerts.AlertGenerator;
+import com.alerts.AlertStateTracker;
+import com.alerts.EvaluationScheduler;
+import com.alerts.dispatch.AlertDispatcher;
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.dispatch.LoggingAlertHandler;
+import com.alerts.rules.AlertRules;
+import com.alerts.rules.RuleFileWatcher;
+import com.metrics.Counter;
+import com.metrics.LatencyHistogram;
+import com.metrics.LatencyMetrics;
+import com.metrics.MetricsHttpServer;
+import com.metrics.MetricsRegistry;
+import com.metrics.jfr.StoreEvent;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Logger;
 
+/**
+ * Stores patient data and gives access to it by patient and time range.
+ * Patients live in a concurrent map and every {@link Patient} owns its write lock,
+ * so readers for different patients ingest in parallel and only writes for the same
+ * patient are serialized. Reads take no lock and never block writers.
+ * How long readings are kept is configured per record type through
+ * {@link #getRetentionPolicies()}; by default every reading is kept.
+ * Components that react to new data register a {@link RecordListener} instead of polling.
+ */
 public class DataStorage {
     private static final Logger LOGGER = Logger.getLogger(DataStorage.class.getName());
+    private static final LatencyHistogram STORE_LATENCY = LatencyMetrics.getInstance().histogram(LatencyMetrics.STORE);
+    private static final Counter RECORDS_INGESTED = MetricsRegistry.getInstance()
+            .counter("storage_records_ingested_total", "Readings added to storage");
     private static DataStorage instance;
-    private final Map<Integer, Patient> patientMap;
+    private final ConcurrentMap<Integer, Patient> patientMap;
+    private final RetentionPolicies retentionPolicies;
+    private final List<RecordListener> recordListeners;
 
     public DataStorage() {
-        this.patientMap = new HashMap<>();
+        this.patientMap = new ConcurrentHashMap<>();
+        this.retentionPolicies = new RetentionPolicies();
+        this.recordListeners = new CopyOnWriteArrayList<>();
     }
 
     public static synchronized DataStorage getInstance() {
@@ -24,9 +61,72 @@ public class DataStorage {
         return instance;
     }
 
-    public synchronized void addPatientData(int patientId, double measurementValue, String recordType, long timestamp) {
-        Patient patient = patientMap.computeIfAbsent(patientId, Patient::new);
+    public void addPatientData(int patientId, double measurementValue, String recordType, long timestamp) {
+        long start = System.nanoTime();
+        StoreEvent storeEvent = StoreEvent.start();
+        Patient patient = patientMap.get(patientId);
+        if (patient == null) {
+            patient = patientMap.computeIfAbsent(patientId, id -> new Patient(id, retentionPolicies));
+        }
         patient.addRecord(measurementValue, recordType, timestamp);
+        STORE_LATENCY.recordSince(start);
+        StoreEvent.finish(storeEvent, patientId, recordType, 1);
+        RECORDS_INGESTED.increment();
+        for (RecordListener listener : recordListeners) {
+            listener.onRecordAdded(patientId, recordType, timestamp, start);
+        }
+    }
+
+    /**
+     * Stores a batch of readings. The readings are grouped by patient, and the readings of
+     * each patient are added under one acquisition of its write lock, in the order they
+     * were added to the batch, so a high-rate reader pays the map lookup, the lock and the
+     * metrics once per patient and batch instead of once per reading. Listeners are still
+     * notified once per reading, after the whole batch is stored, with the time the reading
+     * was {@link RecordBatch#stampReceived received}, or else the time the batch was handed
+     * over. Grouping rewrites the batch's grouping arrays, but the readings are left in place,
+     * so the caller can clear and reuse the batch.
+     *
+     * @param batch the readings to store
+     */
+    public void addPatientData(RecordBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        batch.groupByPatient();
+        for (int group = 0; group < batch.getGroupCount(); group++) {
+            StoreEvent storeEvent = StoreEvent.start();
+            int patientId = batch.getGroupPatientId(group);
+            Patient patient = patientMap.get(patientId);
+            if (patient == null) {
+                patient = patientMap.computeIfAbsent(patientId, id -> new Patient(id, retentionPolicies));
+            }
+            int count = patient.addRecords(batch, batch.getGroupHead(group));
+            StoreEvent.finish(storeEvent, patientId, null, count);
+        }
+        STORE_LATENCY.recordSince(start);
+        RECORDS_INGESTED.add(batch.size());
+        for (RecordListener listener : recordListeners) {
+            for (int i = 0; i < batch.size(); i++) {
+                long received = batch.getReceivedNanos(i);
+                listener.onRecordAdded(batch.getPatientId(i), batch.getRecordType(i), batch.getTimestamp(i),
+                        received == RecordBatch.NOT_RECEIVED ? start : received);
+            }
+        }
+    }
+
+    /**
+     * Registers a listener that is notified after every stored reading.
+     *
+     * @param listener the listener to add
+     */
+    public void addRecordListener(RecordListener listener) {
+        recordListeners.add(listener);
+    }
+
+    public void removeRecordListener(RecordListener listener) {
+        recordListeners.remove(listener);
     }
 
     public List<PatientRecord> getRecords(int patientId, long startTime, long endTime) {
@@ -34,29 +134,116 @@ public class DataStorage {
         return patient != null ? patient.getRecords(startTime, endTime) : new ArrayList<>();
     }
 
+    /**
+     * Returns a consistent snapshot of a patient's readings without blocking ingest.
+     *
+     * @param patientId the unique identifier for the patient
+     * @return the patient's snapshot, or an empty snapshot if the patient is unknown
+     */
+    public PatientSnapshot getSnapshot(int patientId) {
+        Patient patient = patientMap.get(patientId);
+        return patient != null ? patient.snapshot() : PatientSnapshot.empty(patientId);
+    }
+
     public List<Patient> getAllPatients() {
         return new ArrayList<>(patientMap.values());
     }
 
+    /**
+     * Returns the retention policies applied to series created from now on.
+     *
+     * @return the mutable retention configuration of this storage
+     */
+    public RetentionPolicies getRetentionPolicies() {
+        return retentionPolicies;
+    }
+
+    /**
+     * Registers gauges for the size of this storage: patients, retained readings, the most
+     * readings held for one patient, and the memory of the column arrays. The gauges walk
+     * all patients when read, which suits a scrape every few seconds.
+     *
+     * @param registry the registry to add the gauges to
+     */
+    public void registerMetrics(MetricsRegistry registry) {
+        registry.gauge("storage_patients", "Patients in storage", patientMap::size);
+        registry.gauge("storage_records", "Readings retained in storage",
+                () -> patientMap.values().stream().mapToLong(Patient::getRecordCount).sum());
+        registry.gauge("storage_records_per_patient_max", "Most readings retained for one patient",
+                () -> patientMap.values().stream().mapToInt(Patient::getRecordCount).max().orElse(0));
+        registry.gauge("storage_allocated_bytes", "Memory of the record column arrays",
+                () -> patientMap.values().stream().mapToLong(Patient::getAllocatedBytes).sum());
+    }
+
     public static void main(String[] args) {
         DataStorage dataStorage = DataStorage.getInstance();
-        AlertGenerator alertGenerator = new AlertGenerator(dataStorage);
+        RetentionPolicies retention = dataStorage.getRetentionPolicies();
+        retention.setDefaultPolicy(RetentionPolicy.maxAge(Duration.ofDays(7)));
+        retention.setPolicy("ECG", RetentionPolicy.maxAge(Duration.ofHours(24)).withMaxCount(200_000));
+        retention.setPolicy("Cholesterol", RetentionPolicy.maxAge(Duration.ofDays(30)));
+        retention.setPolicy("WhiteBloodCells", RetentionPolicy.maxAge(Duration.ofDays(30)));
+        retention.setPolicy("RedBloodCells", RetentionPolicy.maxAge(Duration.ofDays(30)));
+        AlertDispatcher alertDispatcher = new AlertDispatcher(10_000, 256);
+        alertDispatcher.addHandler(new LoggingAlertHandler());
+        alertDispatcher.start();
+        AlertStateTracker alertStates = new AlertStateTracker();
+        AlertGenerator alertGenerator = new AlertGenerator(dataStorage, alertStates, alertDispatcher);
+        // -Dalerts.rules=<file> replaces the built-in rules; the file is reloaded when it changes
+        String rulesFile = System.getProperty("alerts.rules");
+        if (rulesFile != null) {
+            Path rulesPath = Paths.get(rulesFile);
+            try {
+                alertGenerator.updateRules(AlertRules.load(rulesPath));
+                new RuleFileWatcher(rulesPath, alertGenerator::updateRules).start(5000);
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.severe("Failed to load alert rules from " + rulesFile + ", using the built-in rules: "
+                        + e.getMessage());
+            }
+        }
+        // Patients are evaluated in parallel; -Dalerts.parallelism=N overrides the core count
+        int parallelism = Integer.getInteger("alerts.parallelism", Runtime.getRuntime().availableProcessors());
+        ExecutorService evaluationExecutor = AlertGenerator.newEvaluationPool(parallelism);
+        EvaluationScheduler evaluationScheduler = new EvaluationScheduler(alertGenerator, evaluationExecutor);
+        dataStorage.addRecordListener(evaluationScheduler);
+
+        // Metrics are exported over JMX, and on http://localhost:<port>/metrics with -Dmetrics.port=<port>
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        dataStorage.registerMetrics(metrics);
+        for (AlertPriority priority : AlertPriority.values()) {
+            String lane = priority.name().toLowerCase(Locale.ROOT);
+            metrics.gauge("alert_queue_depth_" + lane, "Alerts waiting in the " + lane + " dispatch lane",
+                    () -> alertDispatcher.getQueueDepth(priority));
+            metrics.gauge("alert_dropped_" + lane, "Alerts dropped from the full " + lane + " dispatch lane",
+                    () -> alertDispatcher.getDroppedCount(priority));
+        }
+        metrics.gauge("alerts_suppressed", "Duplicate alerts suppressed", alertStates::getSuppressedCount);
+        metrics.gauge("alerts_rate_limited", "Alerts suppressed by the rate limit", alertStates::getRateLimitedCount);
+        metrics.gauge("alert_evaluations_scheduled", "Evaluations run by the scheduler",
+                evaluationScheduler::getEvaluationCount);
+        MetricsHttpServer.startFromSystemProperties();
+        // -Dingest.workers=N and -Dingest.overflow=BLOCK|DROP_OLDEST|DROP_BY_PRIORITY tune the WebSocket ingest
+        OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        String overflow = System.getProperty("ingest.overflow");
+        if (overflow != null) {
+            try {
+                overflowPolicy = OverflowPolicy.valueOf(overflow.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                LOGGER.warning("Unknown ingest.overflow " + overflow + ", expected one of "
+                        + Arrays.toString(OverflowPolicy.values()) + "; using BLOCK");
+            }
+        }
         try {
-            DataReader reader = new WebSocketClient("ws://localhost:8080");
+            IngestOptions ingestOptions = IngestOptions.defaults()
+                    .withWorkers(Integer.getInteger("ingest.workers", 1))
+                    .withOverflowPolicy(overflowPolicy);
+            WebSocketClient reader = new WebSocketClient("ws://localhost:8080", ingestOptions);
+            metrics.gauge("websocket_queue_depth", "WebSocket messages waiting for an ingest worker",
+                    reader::getQueueDepth);
+            metrics.gauge("websocket_dropped", "WebSocket messages dropped from a full ingest queue",
+                    reader::getDroppedCount);
+            metrics.gauge("websocket_dropped_low_priority", "Low-priority WebSocket messages dropped",
+                    reader::getDroppedLowPriorityCount);
             reader.readData(dataStorage);
-            new Thread(() -> {
-                while (true) {
-                    for (Patient patient : dataStorage.getAllPatients()) {
-                        alertGenerator.evaluateData(patient);
-                    }
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        LOGGER.severe("Alert evaluation interrupted: " + e.getMessage());
-                        break;
-                    }
-                }
-            }).start();
         } catch (Exception e) {
             LOGGER.severe("Failed to start WebSocketClient: " + e.getMessage());
         }
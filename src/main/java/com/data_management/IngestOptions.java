@@ -0,0 +1,149 @@
+package com.data_management;
+
+import java.util.Arrays;
+
+/**
+ * Configures how the {@link WebSocketClient} receives messages and passes them to storage:
+ * the number of ingest workers, the capacity of their queues, the {@link OverflowPolicy}
+ * when the queues are full, the number of readings stored together, the record types
+ * {@link OverflowPolicy#DROP_BY_PRIORITY} drops first, and whether to ask the server for
+ * binary readings. Options are immutable; each {@code withX} method returns a changed copy.
+ */
+public final class IngestOptions {
+    private static final IngestOptions DEFAULTS =
+            new IngestOptions(1, 65_536, OverflowPolicy.BLOCK, 256, new String[]{"ECG"}, true);
+
+    private final int workers;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final String[] lowPriorityTypes;
+    private final boolean binaryProtocol;
+
+    private IngestOptions(int workers, int queueCapacity, OverflowPolicy overflowPolicy, int batchSize,
+                          String[] lowPriorityTypes, boolean binaryProtocol) {
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+        this.lowPriorityTypes = lowPriorityTypes;
+        this.binaryProtocol = binaryProtocol;
+    }
+
+    /**
+     * Returns the default options: one worker, 65,536 queued messages, blocking when the
+     * queue is full, batches of 256 readings, ECG as the low-priority type, since it
+     * arrives at the highest rate and a dropped sample only thins out the waveform, and
+     * binary readings if the server offers them.
+     *
+     * @return the default options
+     */
+    public static IngestOptions defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns a copy with the given number of workers. The messages of a patient are
+     * always handled by the same worker, so they are stored in the order they arrived.
+     *
+     * @param workers the number of ingest threads
+     * @return the changed options
+     * @throws IllegalArgumentException if the number is not positive
+     */
+    public IngestOptions withWorkers(int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Number of workers must be positive: " + workers);
+        }
+        return new IngestOptions(workers, queueCapacity, overflowPolicy, batchSize, lowPriorityTypes, binaryProtocol);
+    }
+
+    /**
+     * Returns a copy with the given queue capacity, which is split evenly between the
+     * workers, each queue being rounded up to a power of two.
+     *
+     * @param queueCapacity the maximum number of queued messages
+     * @return the changed options
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public IngestOptions withQueueCapacity(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+        }
+        return new IngestOptions(workers, queueCapacity, overflowPolicy, batchSize, lowPriorityTypes, binaryProtocol);
+    }
+
+    public IngestOptions withOverflowPolicy(OverflowPolicy overflowPolicy) {
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("Overflow policy must not be null");
+        }
+        return new IngestOptions(workers, queueCapacity, overflowPolicy, batchSize, lowPriorityTypes, binaryProtocol);
+    }
+
+    /**
+     * Returns a copy that stores up to the given number of readings together.
+     *
+     * @param batchSize the number of readings per batch, or 1 to store every reading at once
+     * @return the changed options
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public IngestOptions withBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        return new IngestOptions(workers, queueCapacity, overflowPolicy, batchSize, lowPriorityTypes, binaryProtocol);
+    }
+
+    /**
+     * Returns a copy with the record types that {@link OverflowPolicy#DROP_BY_PRIORITY}
+     * drops first.
+     *
+     * @param recordTypes the low-priority record types, e.g., "ECG"
+     * @return the changed options
+     */
+    public IngestOptions withLowPriorityTypes(String... recordTypes) {
+        return new IngestOptions(workers, queueCapacity, overflowPolicy, batchSize, recordTypes.clone(), binaryProtocol);
+    }
+
+    /**
+     * Returns a copy that does or does not ask the server for readings in the binary
+     * {@link com.protocol.ReadingCodec} encoding. A server that does not support it sends
+     * text either way.
+     *
+     * @param binaryProtocol whether to ask for binary readings
+     * @return the changed options
+     */
+    public IngestOptions withBinaryProtocol(boolean binaryProtocol) {
+        return new IngestOptions(workers, queueCapacity, overflowPolicy, batchSize, lowPriorityTypes, binaryProtocol);
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public String[] getLowPriorityTypes() {
+        return lowPriorityTypes.clone();
+    }
+
+    public boolean isBinaryProtocol() {
+        return binaryProtocol;
+    }
+
+    @Override
+    public String toString() {
+        return "IngestOptions{workers=" + workers + ", queueCapacity=" + queueCapacity + ", overflowPolicy="
+                + overflowPolicy + ", batchSize=" + batchSize + ", lowPriorityTypes="
+                + Arrays.toString(lowPriorityTypes) + ", binaryProtocol=" + binaryProtocol + '}';
+    }
+}
@@ -0,0 +1,259 @@
+package com.data_management;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The queue between the thread reading the WebSocket and one ingest worker. Messages are
+ * held in {@link MessageRing}s, so neither side takes a lock while messages flow; the
+ * monitor of the queue is only used to let an idle worker, or a producer blocked by
+ * {@link OverflowPolicy#BLOCK}, sleep until the other side makes progress.
+ *
+ * <p>For {@link OverflowPolicy#DROP_BY_PRIORITY}, all messages stay in one FIFO, so the
+ * readings of a patient are stored in the order they arrived whatever their priority. A
+ * low-priority message is queued in a {@link Droppable} holder; to make room, the producer
+ * empties the oldest holder the worker has not taken yet, and the worker skips the empty
+ * holder when it reaches it. Empty holders do not count towards the capacity, so the ring
+ * has room for as many of them as for messages. A queue has a single producer, the reading
+ * thread, and a single consumer.</p>
+ */
+final class IngestQueue {
+    private final MessageRing messages;
+    private final OverflowPolicy policy;
+    private final int capacity;
+    /**
+     * The queued low-priority holders, oldest first; only the producer uses it.
+     */
+    private final ArrayDeque<Droppable> lowPriority;
+    private final AtomicInteger emptied = new AtomicInteger();
+    private final Object signal = new Object();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder droppedLowPriority = new LongAdder();
+    private volatile boolean consumerIdle;
+    private volatile boolean producerBlocked;
+
+    /**
+     * @param capacity the maximum number of queued messages, rounded up to a power of two
+     * @param policy   what to do with a message when the queue is full
+     */
+    IngestQueue(int capacity, OverflowPolicy policy) {
+        boolean byPriority = policy == OverflowPolicy.DROP_BY_PRIORITY;
+        MessageRing ring = new MessageRing(capacity);
+        this.capacity = ring.capacity();
+        this.messages = byPriority ? new MessageRing(2 * this.capacity) : ring;
+        this.lowPriority = byPriority ? new ArrayDeque<>() : null;
+        this.policy = policy;
+    }
+
+    /**
+     * Queues a message received now, applying the overflow policy if the queue is full.
+     *
+     * @param message       the message
+     * @param isLowPriority whether the message may be dropped first, see {@link OverflowPolicy#DROP_BY_PRIORITY}
+     * @return {@code false} if the message was dropped
+     * @throws InterruptedException if interrupted while blocked by {@link OverflowPolicy#BLOCK}
+     */
+    boolean offer(Object message, boolean isLowPriority) throws InterruptedException {
+        return offer(message, System.nanoTime(), isLowPriority);
+    }
+
+    /**
+     * Queues a message, applying the overflow policy if the queue is full.
+     *
+     * @param message       the message
+     * @param receivedNanos the {@link System#nanoTime()} at which the message was received
+     * @param isLowPriority whether the message may be dropped first, see {@link OverflowPolicy#DROP_BY_PRIORITY}
+     * @return {@code false} if the message was dropped
+     * @throws InterruptedException if interrupted while blocked by {@link OverflowPolicy#BLOCK}
+     */
+    boolean offer(Object message, long receivedNanos, boolean isLowPriority) throws InterruptedException {
+        switch (policy) {
+            case BLOCK:
+                while (!messages.offer(message, receivedNanos)) {
+                    awaitSpace();
+                }
+                break;
+            case DROP_OLDEST:
+                while (!messages.offer(message, receivedNanos)) {
+                    if (messages.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+                break;
+            default:
+                if (size() >= capacity && !makeRoom(isLowPriority)
+                        || !offerByPriority(message, receivedNanos, isLowPriority)) {
+                    dropped.increment();
+                    if (isLowPriority) {
+                        droppedLowPriority.increment();
+                    }
+                    return false;
+                }
+        }
+        if (consumerIdle) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the oldest message, skipping the holders of dropped low-priority messages.
+     *
+     * @return the message, or {@code null} if the queue is empty
+     */
+    Object poll() {
+        return poll(null);
+    }
+
+    /**
+     * Removes the oldest message, skipping the holders of dropped low-priority messages,
+     * and hands out the time it was received.
+     *
+     * @param receivedNanos receives the {@link System#nanoTime()} at which the message was
+     *                      received in its first element, unless {@code null}
+     * @return the message, or {@code null} if the queue is empty
+     */
+    Object poll(long[] receivedNanos) {
+        Object message = messages.poll(receivedNanos);
+        while (message instanceof Droppable) {
+            Object held = ((Droppable) message).getAndSet(null);
+            if (held != null) {
+                message = held;
+                break;
+            }
+            emptied.decrementAndGet();
+            message = messages.poll(receivedNanos);
+        }
+        if (message != null && producerBlocked) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Sleeps until a message is queued, {@link #wake()} is called or the timeout passes.
+     * The worker announces that it is idle before it checks the queue a last time, so an
+     * offer either sees the flag and wakes it, or happened early enough for the check to
+     * see the message.
+     *
+     * @param timeoutMillis the longest time to sleep
+     * @throws InterruptedException if interrupted while sleeping
+     */
+    void awaitMessages(long timeoutMillis) throws InterruptedException {
+        synchronized (signal) {
+            consumerIdle = true;
+            try {
+                if (size() == 0) {
+                    signal.wait(timeoutMillis);
+                }
+            } finally {
+                consumerIdle = false;
+            }
+        }
+    }
+
+    /**
+     * Wakes the worker, e.g., to let it notice that it should stop.
+     */
+    void wake() {
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    int size() {
+        return Math.max(0, messages.size() - emptied.get());
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of messages lost to the overflow policy, whether dropped on
+     * arrival or replaced by a newer message.
+     *
+     * @return the number of dropped messages
+     */
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    long getDroppedLowPriorityCount() {
+        return droppedLowPriority.sum();
+    }
+
+    /**
+     * Drops the oldest low-priority message to make room for a new message of higher
+     * priority. Only the producer adds messages, so once a message is gone, the new one fits.
+     */
+    private boolean makeRoom(boolean isLowPriority) {
+        if (isLowPriority) {
+            return false;
+        }
+        for (Droppable oldest; (oldest = lowPriority.poll()) != null; ) {
+            // The worker may be taking the same message; whoever empties the holder has it
+            if (oldest.getAndSet(null) != null) {
+                emptied.incrementAndGet();
+                dropped.increment();
+                droppedLowPriority.increment();
+                return true;
+            }
+        }
+        // The worker may have taken a message in the meantime
+        return size() < capacity;
+    }
+
+    /**
+     * Appends a message for {@link OverflowPolicy#DROP_BY_PRIORITY}, a low-priority one in
+     * a holder that {@link #makeRoom} can empty later.
+     *
+     * @return {@code false} if the ring is full of emptied holders the worker has not reached yet
+     */
+    private boolean offerByPriority(Object message, long receivedNanos, boolean isLowPriority) {
+        if (!isLowPriority) {
+            return messages.offer(message, receivedNanos);
+        }
+        // Forget the holders the worker has taken; they are the oldest
+        while (!lowPriority.isEmpty() && lowPriority.peek().get() == null) {
+            lowPriority.poll();
+        }
+        Droppable holder = new Droppable(message);
+        if (!messages.offer(holder, receivedNanos)) {
+            return false;
+        }
+        lowPriority.add(holder);
+        return true;
+    }
+
+    private void awaitSpace() throws InterruptedException {
+        synchronized (signal) {
+            producerBlocked = true;
+            try {
+                if (size() >= capacity) {
+                    signal.wait(100);
+                }
+            } finally {
+                producerBlocked = false;
+            }
+        }
+    }
+
+    /**
+     * A queued low-priority message, emptied by whichever side gets to it first: the worker
+     * taking it or the producer dropping it.
+     */
+    private static final class Droppable extends AtomicReference<Object> {
+        private static final long serialVersionUID = 1L;
+
+        private Droppable(Object message) {
+            super(message);
+        }
+    }
+}
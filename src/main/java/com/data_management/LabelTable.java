@@ -0,0 +1,107 @@
+package com.data_management;
+
+import java.util.logging.Logger;
+
+/**
+ * Interns record type labels, so that parsing a label that was seen before returns the same
+ * {@code String} without allocating. Labels are looked up by a range of characters in an
+ * open-addressing table that readers access without locking; a new label is added under a
+ * lock to a copy of the table, which is then published. The table holds at most
+ * {@value #MAX_LABELS} labels; later labels are still returned, but not interned, so a
+ * stream of garbage labels cannot grow it without bound.
+ */
+final class LabelTable {
+    static final int MAX_LABELS = 1024;
+
+    private static final Logger LOGGER = Logger.getLogger(LabelTable.class.getName());
+    private static volatile String[] table = new String[64];
+    private static int size;
+    private static boolean full;
+
+    private LabelTable() {
+    }
+
+    /**
+     * Returns the interned label equal to a range of characters whose hash the caller
+     * computed while scanning them.
+     *
+     * @param text  the text holding the label
+     * @param start the index of the first character of the label
+     * @param end   the index after the last character of the label
+     * @param hash  the {@link String#hashCode()} of the label
+     * @return the label
+     */
+    static String intern(CharSequence text, int start, int end, int hash) {
+        String[] labels = table;
+        String label = find(labels, hash, text, start, end);
+        return label != null ? label : add(text.subSequence(start, end).toString(), hash);
+    }
+
+    private static String find(String[] labels, int hash, CharSequence text, int start, int end) {
+        int mask = labels.length - 1;
+        for (int slot = spread(hash) & mask; labels[slot] != null; slot = (slot + 1) & mask) {
+            String label = labels[slot];
+            if (label.hashCode() == hash && matches(label, text, start, end)) {
+                return label;
+            }
+        }
+        return null;
+    }
+
+    private static synchronized String add(String label, int hash) {
+        String existing = find(table, hash, label, 0, label.length());
+        if (existing != null) {
+            return existing;
+        }
+        if (size == MAX_LABELS) {
+            if (!full) {
+                full = true;
+                LOGGER.warning("More than " + MAX_LABELS + " record types, new labels are no longer interned");
+            }
+            return label;
+        }
+        String[] labels = table.clone();
+        if (2 * (size + 1) > labels.length) {
+            labels = rehash(labels, 2 * labels.length);
+        }
+        insert(labels, label);
+        size++;
+        table = labels;
+        return label;
+    }
+
+    private static String[] rehash(String[] labels, int capacity) {
+        String[] rehashed = new String[capacity];
+        for (String label : labels) {
+            if (label != null) {
+                insert(rehashed, label);
+            }
+        }
+        return rehashed;
+    }
+
+    private static void insert(String[] labels, String label) {
+        int mask = labels.length - 1;
+        int slot = spread(label.hashCode()) & mask;
+        while (labels[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        labels[slot] = label;
+    }
+
+    private static boolean matches(String label, CharSequence text, int start, int end) {
+        if (label.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < label.length(); i++) {
+            if (label.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
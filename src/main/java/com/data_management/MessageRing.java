@@ -0,0 +1,130 @@
+package com.data_management;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded FIFO of messages, the text of a text frame or the payload of a binary frame,
+ * that producers and consumers use without locking. Every slot carries a sequence number
+ * that tells whose turn it is: a producer claims the slot at the tail by advancing the
+ * tail with a compare-and-set once the slot's sequence says it is free, writes the message
+ * and then publishes it by advancing the sequence; a consumer does the same at the head.
+ * Any number of threads may offer and poll at the same time.
+ *
+ * <p>Next to its message, a slot holds a stamp, a number the producer passes along with
+ * the message, e.g., the {@link System#nanoTime()} at which it was received.</p>
+ */
+final class MessageRing {
+    private final Object[] messages;
+    private final long[] stamps;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * @param capacity the maximum number of messages, rounded up to a power of two
+     */
+    MessageRing(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.messages = new Object[size];
+        this.stamps = new long[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Appends a message with a stamp of 0.
+     *
+     * @param message the message
+     * @return {@code false} if the ring was full
+     */
+    boolean offer(Object message) {
+        return offer(message, 0);
+    }
+
+    /**
+     * Appends a message.
+     *
+     * @param message the message
+     * @param stamp   the stamp handed out with the message by {@link #poll(long[])}
+     * @return {@code false} if the ring was full
+     */
+    boolean offer(Object message, long stamp) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    messages[slot] = message;
+                    stamps[slot] = stamp;
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest message.
+     *
+     * @return the message, or {@code null} if the ring was empty
+     */
+    Object poll() {
+        return poll(null);
+    }
+
+    /**
+     * Removes the oldest message and hands out its stamp.
+     *
+     * @param stamp receives the stamp of the message in its first element, unless {@code null}
+     * @return the message, or {@code null} if the ring was empty
+     */
+    Object poll(long[] stamp) {
+        long position = head.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    Object message = messages[slot];
+                    messages[slot] = null;
+                    if (stamp != null) {
+                        stamp[0] = stamps[slot];
+                    }
+                    sequences.set(slot, position + messages.length);
+                    return message;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of queued messages; while other threads offer or poll, the result
+     * is a snapshot that may already be outdated.
+     *
+     * @return the number of messages
+     */
+    int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, messages.length));
+    }
+
+    int capacity() {
+        return messages.length;
+    }
+}
@@ -0,0 +1,23 @@
+package com.data_management;
+
+/**
+ * What the {@link WebSocketClient} does with a message when its ingest queue is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Stops reading from the socket until a worker has made room, so no message is lost and
+     * the server is slowed down instead.
+     */
+    BLOCK,
+    /**
+     * Drops the oldest queued message to make room for the new one, keeping the freshest
+     * readings.
+     */
+    DROP_OLDEST,
+    /**
+     * Drops low-priority messages first: a new low-priority message is dropped, while a new
+     * message of another type replaces the oldest queued low-priority message, and is only
+     * dropped itself if none is queued.
+     */
+    DROP_BY_PRIORITY
+}
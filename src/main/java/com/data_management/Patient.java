@@ -1,33 +1,59 @@
 package com.data_management;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a patient and manages their medical records.
  * This class stores patient-specific data, allowing for the addition and
  * retrieval
  * of medical records based on specified criteria.
+ * Readings are kept in one columnar {@link RecordSeries} per record type;
+ * {@link PatientRecord} objects are only built when records are retrieved.
+ *
+ * <p>Each patient owns its own write lock, so readings for different patients can be
+ * ingested in parallel. Reads never take the lock: they work on a {@link PatientSnapshot}
+ * cut at the patient's published watermark, so slow readers never hold up ingest.</p>
  */
 public class Patient {
     private int patientId;
-    private List<PatientRecord> patientRecords;
+    private final Object writeLock = new Object();
+    private final Map<String, RecordSeries> seriesByType;
+    private volatile RecordSeries[] seriesInOrder;
+    private volatile long watermark = Long.MIN_VALUE;
+    private final RetentionPolicies retentionPolicies;
 
     /**
      * Constructs a new Patient with a specified ID.
-     * Initializes an empty list of patient records.
+     * Initializes an empty set of record series.
      *
      * @param patientId the unique identifier for the patient
      */
     public Patient(int patientId) {
+        this(patientId, new RetentionPolicies());
+    }
+
+    /**
+     * Constructs a new Patient with a specified ID whose series follow the given
+     * retention policies.
+     *
+     * @param patientId         the unique identifier for the patient
+     * @param retentionPolicies the policies deciding how long readings of each type are kept
+     */
+    public Patient(int patientId, RetentionPolicies retentionPolicies) {
         this.patientId = patientId;
-        this.patientRecords = new ArrayList<>();
+        this.retentionPolicies = retentionPolicies;
+        this.seriesByType = new ConcurrentHashMap<>();
+        this.seriesInOrder = new RecordSeries[0];
     }
 
     /**
-     * Adds a new record to this patient's list of medical records.
-     * The record is created with the specified measurement value, record type, and
-     * timestamp.
+     * Adds a new record to this patient's medical records.
+     * The reading is appended to the series for its record type, which is created
+     * on first use. Calls for the same patient are serialized on the patient's own
+     * write lock.
      *
      * @param measurementValue the measurement value to store in the record
      * @param recordType       the type of record, e.g., "HeartRate",
@@ -36,14 +62,81 @@ public class Patient {
      *                         milliseconds since UNIX epoch
      */
     public void addRecord(double measurementValue, String recordType, long timestamp) {
-        PatientRecord record = new PatientRecord(this.patientId, measurementValue, recordType, timestamp);
-        this.patientRecords.add(record);
+        synchronized (writeLock) {
+            seriesFor(recordType).add(timestamp, measurementValue);
+            if (timestamp > watermark) {
+                watermark = timestamp;
+            }
+        }
+    }
+
+    /**
+     * Adds the readings of this patient from a batch under one acquisition of the write
+     * lock. The readings are taken from {@code first} along the links of
+     * {@link RecordBatch#nextOfPatient(int)}, in the order they were added to the batch, and
+     * the watermark moves once, after all of them are in their series.
+     *
+     * @param batch the batch, grouped by patient
+     * @param first the index of the first reading of this patient in the batch
+     * @return the number of readings added
+     */
+    int addRecords(RecordBatch batch, int first) {
+        int count = 0;
+        synchronized (writeLock) {
+            String lastType = null;
+            RecordSeries series = null;
+            long newest = watermark;
+            for (int i = first; i >= 0; i = batch.nextOfPatient(i)) {
+                String recordType = batch.getRecordType(i);
+                if (recordType != lastType) {
+                    series = seriesFor(recordType);
+                    lastType = recordType;
+                }
+                long timestamp = batch.getTimestamp(i);
+                series.add(timestamp, batch.getMeasurementValue(i));
+                if (timestamp > newest) {
+                    newest = timestamp;
+                }
+                count++;
+            }
+            watermark = newest;
+        }
+        return count;
+    }
+
+    private RecordSeries seriesFor(String recordType) {
+        RecordSeries series = seriesByType.get(recordType);
+        if (series == null) {
+            series = new RecordSeries(patientId, recordType, retentionPolicies.policyFor(recordType), writeLock);
+            RecordSeries[] grown = Arrays.copyOf(seriesInOrder, seriesInOrder.length + 1);
+            grown[grown.length - 1] = series;
+            seriesInOrder = grown;
+            seriesByType.put(recordType, series);
+        }
+        return series;
+    }
+
+    /**
+     * Returns an immutable view of this patient's readings up to the published watermark,
+     * the newest timestamp added so far. Readings are published to their series before the
+     * watermark moves past them, so every series in the snapshot is complete up to it.
+     *
+     * @return a consistent snapshot of this patient's readings
+     */
+    public PatientSnapshot snapshot() {
+        long published = watermark;
+        RecordSeries[] series = seriesInOrder;
+        SeriesSnapshot[] snapshots = new SeriesSnapshot[series.length];
+        for (int s = 0; s < series.length; s++) {
+            snapshots[s] = series[s].snapshot().upTo(published);
+        }
+        return new PatientSnapshot(patientId, published, snapshots);
     }
 
     /**
      * Retrieves a list of PatientRecord objects for this patient that fall within a
      * specified time range.
-     * The method filters records based on the start and end times provided.
+     * The records are read from a fresh {@link #snapshot()} and ordered by timestamp.
      *
      * @param startTime the start of the time range, in milliseconds since UNIX
      *                  epoch
@@ -52,17 +145,45 @@ public class Patient {
      *         range
      */
     public List<PatientRecord> getRecords(long startTime, long endTime) {
-        // TODO Implement and test this method
+        return snapshot().getRecords(startTime, endTime);
+    }
 
-        List<PatientRecord> recordsInRange = new ArrayList<>();
-        for (PatientRecord record : patientRecords) {
-            if (record.getTimestamp() >= startTime && record.getTimestamp() <= endTime) {
-                recordsInRange.add(record);
-            }
+    /**
+     * Returns the columnar series holding all readings of the given record type.
+     *
+     * @param recordType the type of record, e.g., "ECG"
+     * @return the series, or {@code null} if no reading of that type was added
+     */
+    public RecordSeries getSeries(String recordType) {
+        return seriesByType.get(recordType);
+    }
+
+    /**
+     * Returns the number of readings currently retained across all record types.
+     *
+     * @return the number of live readings
+     */
+    public int getRecordCount() {
+        int count = 0;
+        for (RecordSeries series : seriesInOrder) {
+            count += series.size();
         }
-        return recordsInRange;
+        return count;
     }
 
+    /**
+     * Returns the memory held by the column arrays of this patient's series, which grow
+     * ahead of the readings they hold.
+     *
+     * @return the size of the timestamp and value arrays in bytes
+     */
+    public long getAllocatedBytes() {
+        long bytes = 0;
+        for (RecordSeries series : seriesInOrder) {
+            bytes += (long) series.capacity() * (Long.BYTES + Double.BYTES);
+        }
+        return bytes;
+    }
 
     public int getPatientId() {
         return patientId;
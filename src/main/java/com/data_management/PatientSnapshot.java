@@ -0,0 +1,235 @@
+package com.data_management;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A consistent view of one patient's readings up to a published watermark.
+ * Every series in the snapshot is cut at the same watermark, so readers such as alert
+ * evaluation see all signals at the same point in time while ingest keeps appending.
+ * Taking a snapshot takes no lock and copies no readings.
+ *
+ * <p>The readings of a snapshot never change, but a series whose oldest readings are
+ * overwritten by the ring wrapping around is cut again, see {@link SeriesSnapshot}, which
+ * moves its indices. Queries across series therefore read each series through one
+ * {@link SeriesSnapshot.Cut} and check it after every read; if a cut turns out to be
+ * overwritten, the series is cut again and the query starts over on the new cut.</p>
+ */
+public final class PatientSnapshot {
+    private final int patientId;
+    private final long watermark;
+    private final SeriesSnapshot[] series;
+
+    PatientSnapshot(int patientId, long watermark, SeriesSnapshot[] series) {
+        this.patientId = patientId;
+        this.watermark = watermark;
+        this.series = series;
+    }
+
+    /**
+     * Returns a snapshot without any readings.
+     *
+     * @param patientId the unique identifier for the patient
+     * @return an empty snapshot
+     */
+    public static PatientSnapshot empty(int patientId) {
+        return new PatientSnapshot(patientId, Long.MIN_VALUE, new SeriesSnapshot[0]);
+    }
+
+    /**
+     * Retrieves the PatientRecord objects in this snapshot that fall within a specified
+     * time range, ordered by timestamp.
+     * Each series locates the range with a binary search, and the per-type slices are
+     * merged, so the query costs O(log n + k) for k matching records.
+     *
+     * @param startTime the start of the time range, in milliseconds since UNIX epoch
+     * @param endTime   the end of the time range, in milliseconds since UNIX epoch
+     * @return a list of PatientRecord objects that fall within the specified time range
+     */
+    public List<PatientRecord> getRecords(long startTime, long endTime) {
+        if (startTime > endTime) {
+            return new ArrayList<>();
+        }
+        return merge((cut, range) -> {
+            range[0] = cut.lowerBound(startTime);
+            range[1] = cut.upperBound(endTime);
+        });
+    }
+
+    /**
+     * Retrieves the records newer than the given time, preceded by up to {@code lookback}
+     * older records of each record type as context for rules that compare a reading with
+     * the ones before it. Because every type contributes its own {@code lookback} older
+     * records, the merged result holds at least the {@code lookback} records that directly
+     * precede the first new one, whatever their types.
+     *
+     * @param afterTime the time after which records are new, in milliseconds since UNIX epoch
+     * @param lookback  the number of older records per type to include
+     * @return the context and new records, ordered by timestamp
+     */
+    public List<PatientRecord> getRecordsSince(long afterTime, int lookback) {
+        return merge((cut, range) -> {
+            int firstNew = afterTime == Long.MIN_VALUE ? 0 : cut.upperBound(afterTime);
+            range[0] = Math.max(0, firstNew - lookback);
+            range[1] = cut.size();
+        });
+    }
+
+    /**
+     * Passes every reading the cursor has not seen yet to the visitor, and moves the cursor
+     * past them. Late arrivals that sort before readings the cursor has already seen come
+     * first, in the order they arrived; the other new readings follow merged across record
+     * types in timestamp order. No {@link PatientRecord} is created, so the walk allocates
+     * nothing per reading. A series that is cut again during the walk resumes from the
+     * cursor, which only counts readings already visited.
+     *
+     * @param cursor  how far the consumer has streamed this patient's readings
+     * @param visitor the consumer of the readings
+     */
+    public void forEachNew(StreamCursor cursor, RecordVisitor visitor) {
+        int seriesCount = series.length;
+        cursor.ensureSeries(seriesCount);
+        SeriesSnapshot.Cut[] cuts = new SeriesSnapshot.Cut[seriesCount];
+        int[] positions = new int[seriesCount];
+        for (int s = 0; s < seriesCount; s++) {
+            cursor.setLateSeen(s, series[s].forEachLate(cursor.lateSeen(s), cursor.newest(s), visitor));
+            cuts[s] = series[s].cut();
+            positions[s] = resume(s, cuts, cursor);
+        }
+        while (true) {
+            int next = -1;
+            long nextTimestamp = Long.MAX_VALUE;
+            for (int s = 0; s < seriesCount; s++) {
+                if (positions[s] < cuts[s].size()) {
+                    long timestamp = cuts[s].getTimestamp(positions[s]);
+                    if (next < 0 || timestamp < nextTimestamp) {
+                        next = s;
+                        nextTimestamp = timestamp;
+                    }
+                }
+            }
+            if (next < 0) {
+                return;
+            }
+            double value = cuts[next].getValue(positions[next]);
+            if (!cuts[next].isIntact(positions[next])) {
+                cuts[next] = series[next].recut(cuts[next]);
+                positions[next] = resume(next, cuts, cursor);
+                continue;
+            }
+            positions[next]++;
+            cursor.advance(next, nextTimestamp);
+            visitor.visit(series[next].getRecordType(), nextTimestamp, value);
+        }
+    }
+
+    /**
+     * Returns the position of the first reading of a series the cursor has not seen, cutting
+     * the series again until the search ran on intact slots.
+     */
+    private int resume(int s, SeriesSnapshot.Cut[] cuts, StreamCursor cursor) {
+        long newest = cursor.newest(s);
+        while (true) {
+            SeriesSnapshot.Cut cut = cuts[s];
+            int position = newest == Long.MIN_VALUE ? 0
+                    : Math.min(cut.lowerBound(newest) + cursor.seenAtNewest(s), cut.upperBound(newest));
+            if (cut.isIntact(0)) {
+                return position;
+            }
+            cuts[s] = series[s].recut(cut);
+        }
+    }
+
+    /**
+     * Merges the per-type slices chosen by {@code slice} into one list ordered by timestamp.
+     * Ties keep the order in which the record types were first seen. If a slot turns out to
+     * be overwritten, its series is cut again and the merge starts over; after a bounded
+     * number of recuts a series is a private copy, so the merge ends.
+     */
+    private List<PatientRecord> merge(Slice slice) {
+        int seriesCount = series.length;
+        SeriesSnapshot.Cut[] cuts = new SeriesSnapshot.Cut[seriesCount];
+        for (int s = 0; s < seriesCount; s++) {
+            cuts[s] = series[s].cut();
+        }
+        int[] positions = new int[seriesCount];
+        int[] limits = new int[seriesCount];
+        int[] range = new int[2];
+        List<PatientRecord> merged = new ArrayList<>();
+        restart:
+        while (true) {
+            for (int s = 0; s < seriesCount; s++) {
+                while (true) {
+                    slice.locate(cuts[s], range);
+                    if (cuts[s].isIntact(0)) {
+                        break;
+                    }
+                    cuts[s] = series[s].recut(cuts[s]);
+                }
+                positions[s] = range[0];
+                limits[s] = range[1];
+            }
+            while (true) {
+                int next = -1;
+                long nextTimestamp = Long.MAX_VALUE;
+                for (int s = 0; s < seriesCount; s++) {
+                    if (positions[s] < limits[s]) {
+                        long timestamp = cuts[s].getTimestamp(positions[s]);
+                        if (next < 0 || timestamp < nextTimestamp) {
+                            next = s;
+                            nextTimestamp = timestamp;
+                        }
+                    }
+                }
+                if (next < 0) {
+                    return merged;
+                }
+                double value = cuts[next].getValue(positions[next]);
+                if (!cuts[next].isIntact(positions[next])) {
+                    cuts[next] = series[next].recut(cuts[next]);
+                    merged.clear();
+                    continue restart;
+                }
+                positions[next]++;
+                merged.add(new PatientRecord(patientId, value, series[next].getRecordType(), nextTimestamp));
+            }
+        }
+    }
+
+    /**
+     * Returns the snapshot of the series holding readings of the given record type.
+     *
+     * @param recordType the type of record, e.g., "ECG"
+     * @return the series snapshot, or {@code null} if the snapshot has no such series
+     */
+    public SeriesSnapshot getSeries(String recordType) {
+        for (SeriesSnapshot snapshot : series) {
+            if (snapshot.getRecordType().equals(recordType)) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    public int getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * Returns the newest timestamp covered by this snapshot, or {@link Long#MIN_VALUE}
+     * if the patient had no readings.
+     *
+     * @return the watermark, in milliseconds since UNIX epoch
+     */
+    public long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Chooses the slice {@code [range[0], range[1])} of a series cut a query reads.
+     */
+    @FunctionalInterface
+    private interface Slice {
+        void locate(SeriesSnapshot.Cut cut, int[] range);
+    }
+}
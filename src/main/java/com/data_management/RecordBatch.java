@@ -0,0 +1,224 @@
+package com.data_management;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of readings for {@link DataStorage#addPatientData(RecordBatch)}.
+ * Readings are kept in parallel primitive columns in the order they were added; a reader
+ * fills the batch, hands it to the storage and clears it for the next readings, so a
+ * batch allocates nothing once its columns have grown to the batch size.
+ *
+ * <p>To store the readings, the storage groups them by patient: every reading is linked
+ * to the next reading of the same patient, so each group is walked in the order the
+ * readings were added. A batch is not thread-safe.</p>
+ *
+ * <p>A reader that knows when a reading arrived, like the {@link WebSocketClient}, stamps
+ * it with {@link #stampReceived}, so listeners can measure latency from receipt rather
+ * than from storage.</p>
+ */
+public final class RecordBatch {
+    /**
+     * The receive time of readings that were not {@link #stampReceived stamped}.
+     */
+    public static final long NOT_RECEIVED = Long.MIN_VALUE;
+    private static final int EMPTY = -1;
+
+    private int[] patientIds;
+    private double[] values;
+    private String[] labels;
+    private long[] timestamps;
+    private long[] receivedNanos;
+    private int size;
+
+    private int[] next;
+    private int[] table;
+    private int[] groupPatientIds;
+    private int[] groupHeads;
+    private int[] groupTails;
+    private int groupCount;
+
+    /**
+     * Constructs an empty batch.
+     *
+     * @param capacity the number of readings the columns hold before they grow
+     */
+    public RecordBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        patientIds = new int[capacity];
+        values = new double[capacity];
+        labels = new String[capacity];
+        timestamps = new long[capacity];
+        receivedNanos = new long[capacity];
+        next = new int[capacity];
+        groupPatientIds = new int[capacity];
+        groupHeads = new int[capacity];
+        groupTails = new int[capacity];
+        table = new int[tableSize(capacity)];
+    }
+
+    /**
+     * Appends a reading, growing the columns if the batch is full.
+     *
+     * @param patientId        the unique identifier of the patient
+     * @param measurementValue the measured value
+     * @param recordType       the type of record, e.g., "ECG"
+     * @param timestamp        the time of the measurement, in milliseconds since UNIX epoch
+     */
+    public void add(int patientId, double measurementValue, String recordType, long timestamp) {
+        if (size == patientIds.length) {
+            grow();
+        }
+        patientIds[size] = patientId;
+        values[size] = measurementValue;
+        labels[size] = recordType;
+        timestamps[size] = timestamp;
+        receivedNanos[size] = NOT_RECEIVED;
+        size++;
+    }
+
+    /**
+     * Records when the readings from an index on, the readings of one message, were received.
+     *
+     * @param from          the index of the first reading of the message
+     * @param receivedNanos the {@link System#nanoTime()} at which the message was received
+     */
+    public void stampReceived(int from, long receivedNanos) {
+        Arrays.fill(this.receivedNanos, from, size, receivedNanos);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns whether the batch holds as many readings as its columns, so the next
+     * {@link #add} would grow them. Readers flush a full batch instead.
+     *
+     * @return {@code true} if the batch is full
+     */
+    public boolean isFull() {
+        return size == patientIds.length;
+    }
+
+    /**
+     * Removes all readings, keeping the columns for reuse.
+     */
+    public void clear() {
+        Arrays.fill(labels, 0, size, null);
+        size = 0;
+        groupCount = 0;
+    }
+
+    /**
+     * Removes the readings from an index on, e.g., those of a message rejected part way.
+     *
+     * @param newSize the number of readings to keep
+     */
+    void truncate(int newSize) {
+        Arrays.fill(labels, newSize, size, null);
+        size = newSize;
+        groupCount = 0;
+    }
+
+    public int getPatientId(int index) {
+        return patientIds[index];
+    }
+
+    public double getMeasurementValue(int index) {
+        return values[index];
+    }
+
+    public String getRecordType(int index) {
+        return labels[index];
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    /**
+     * Returns when a reading was received.
+     *
+     * @param index the index of the reading
+     * @return the {@link System#nanoTime()} at which it was received, or {@link #NOT_RECEIVED}
+     */
+    public long getReceivedNanos(int index) {
+        return receivedNanos[index];
+    }
+
+    /**
+     * Groups the readings by patient, in the order each patient first appears. Within a
+     * group, {@link #nextOfPatient(int)} links the readings in the order they were added.
+     */
+    void groupByPatient() {
+        Arrays.fill(table, EMPTY);
+        int mask = table.length - 1;
+        groupCount = 0;
+        for (int i = 0; i < size; i++) {
+            int patientId = patientIds[i];
+            int hash = patientId * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            int group;
+            while ((group = table[slot]) != EMPTY && groupPatientIds[group] != patientId) {
+                slot = (slot + 1) & mask;
+            }
+            next[i] = EMPTY;
+            if (group == EMPTY) {
+                group = groupCount++;
+                table[slot] = group;
+                groupPatientIds[group] = patientId;
+                groupHeads[group] = i;
+            } else {
+                next[groupTails[group]] = i;
+            }
+            groupTails[group] = i;
+        }
+    }
+
+    int getGroupCount() {
+        return groupCount;
+    }
+
+    int getGroupPatientId(int group) {
+        return groupPatientIds[group];
+    }
+
+    int getGroupHead(int group) {
+        return groupHeads[group];
+    }
+
+    /**
+     * Returns the index of the next reading of the same patient, after
+     * {@link #groupByPatient()}.
+     *
+     * @param index the index of a reading
+     * @return the index of the next reading of its patient, or -1 if it is the last
+     */
+    int nextOfPatient(int index) {
+        return next[index];
+    }
+
+    private void grow() {
+        int capacity = 2 * patientIds.length;
+        patientIds = Arrays.copyOf(patientIds, capacity);
+        values = Arrays.copyOf(values, capacity);
+        labels = Arrays.copyOf(labels, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        receivedNanos = Arrays.copyOf(receivedNanos, capacity);
+        next = new int[capacity];
+        groupPatientIds = new int[capacity];
+        groupHeads = new int[capacity];
+        groupTails = new int[capacity];
+        table = new int[tableSize(capacity)];
+    }
+
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(capacity) << 2;
+    }
+}
@@ -0,0 +1,33 @@
+package com.data_management;
+
+/**
+ * Notified by {@link DataStorage} after a reading has been stored and is visible to readers.
+ * Listeners are called on the ingesting thread while no lock is held, so they should only
+ * record that something changed and leave the actual work to another thread.
+ */
+@FunctionalInterface
+public interface RecordListener {
+
+    /**
+     * Called once per stored reading.
+     *
+     * @param patientId  the unique identifier of the patient the reading belongs to
+     * @param recordType the type of record, e.g., "ECG"
+     * @param timestamp  the time of the measurement, in milliseconds since UNIX epoch
+     */
+    void onRecordAdded(int patientId, String recordType, long timestamp);
+
+    /**
+     * Called once per stored reading, with the time it was received. Listeners that measure
+     * latency from receipt override this method; by default it ignores the receive time.
+     *
+     * @param patientId     the unique identifier of the patient the reading belongs to
+     * @param recordType    the type of record, e.g., "ECG"
+     * @param timestamp     the time of the measurement, in milliseconds since UNIX epoch
+     * @param receivedNanos the {@link System#nanoTime()} at which the reading was received,
+     *                      or at which it was handed to the storage if the reader does not know
+     */
+    default void onRecordAdded(int patientId, String recordType, long timestamp, long receivedNanos) {
+        onRecordAdded(patientId, recordType, timestamp);
+    }
+}
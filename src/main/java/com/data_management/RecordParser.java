@@ -0,0 +1,365 @@
+package com.data_management;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses readings from comma-separated text in a single pass, without splitting the line
+ * or creating substrings. Numbers are read digit by digit from the text; a decimal value
+ * whose digits fit into 53 bits and whose exponent is small is converted exactly without
+ * help from {@link Double#parseDouble}, which is only used for other forms, such as
+ * {@code NaN} or values with 17 significant digits. Labels are resolved against a shared
+ * table of interned labels, so a known label costs no allocation either. Parsing a line
+ * whose value takes the fast path therefore allocates nothing.
+ *
+ * <p>The value may carry a trailing {@code %}, as the simulator sends saturation
+ * readings, and numbers may be surrounded by spaces. A parser keeps the fields of the last
+ * parsed line and is meant to be reused by one thread.</p>
+ */
+public final class RecordParser {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final long MIN_LONG_BEFORE_DIGIT = Long.MIN_VALUE / 10;
+
+    /**
+     * The order of the fields in a line.
+     */
+    public enum Layout {
+        /**
+         * {@code patientId,timestamp,label,value}, as sent over the WebSocket.
+         */
+        MESSAGE,
+        /**
+         * {@code patientId,value,label,timestamp}, as stored in CSV files.
+         */
+        CSV
+    }
+
+    private final Layout layout;
+    private final AsciiView bytes = new AsciiView();
+    private int patientId;
+    private long timestamp;
+    private String label;
+    private double value;
+    private long integer;
+    private String error;
+
+    /**
+     * @param layout the order of the fields in the parsed lines
+     */
+    public RecordParser(Layout layout) {
+        this.layout = layout;
+    }
+
+    /**
+     * Parses a line.
+     *
+     * @param line the line, without line terminator
+     * @return {@code true} if the line is a valid reading; otherwise {@link #getError()}
+     * describes the problem
+     */
+    public boolean parse(CharSequence line) {
+        return parse(line, 0, line.length());
+    }
+
+    /**
+     * Parses a range of characters holding one line.
+     *
+     * @param text  the text holding the line
+     * @param start the index of the first character of the line
+     * @param end   the index after the last character of the line
+     * @return {@code true} if the line is a valid reading; otherwise {@link #getError()}
+     * describes the problem
+     */
+    public boolean parse(CharSequence text, int start, int end) {
+        error = null;
+        int position = parsePatientId(text, start, end);
+        if (layout == Layout.MESSAGE) {
+            position = parseTimestamp(text, position, end, false);
+            position = parseLabel(text, position, end);
+            position = parseValue(text, position, end, true);
+        } else {
+            position = parseValue(text, position, end, false);
+            position = parseLabel(text, position, end);
+            position = parseTimestamp(text, position, end, true);
+        }
+        if (position < 0 && countFields(text, start, end) != 4) {
+            error = "Expected 4 fields";
+        }
+        return position >= 0;
+    }
+
+    /**
+     * Parses a range of ASCII bytes holding one line, e.g., from a memory-mapped file.
+     *
+     * @param buffer the buffer holding the line, read with absolute gets
+     * @param start  the index of the first byte of the line
+     * @param end    the index after the last byte of the line
+     * @return {@code true} if the line is a valid reading; otherwise {@link #getError()}
+     * describes the problem
+     */
+    public boolean parse(ByteBuffer buffer, int start, int end) {
+        bytes.buffer = buffer;
+        try {
+            return parse(bytes, start, end);
+        } finally {
+            bytes.buffer = null;
+        }
+    }
+
+    public int getPatientId() {
+        return patientId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Returns why the last line could not be parsed.
+     *
+     * @return the problem, or {@code null} if the last line was valid
+     */
+    public String getError() {
+        return error;
+    }
+
+    // Each field parser takes the index where its field starts and returns the index where
+    // the next field starts, or -1 if the field is invalid or a previous one was.
+
+    private int parsePatientId(CharSequence text, int position, int end) {
+        position = endField(text, parseInteger(text, position, end), end, false);
+        if (position < 0 || integer < Integer.MIN_VALUE || integer > Integer.MAX_VALUE) {
+            return fail("Invalid patient ID");
+        }
+        patientId = (int) integer;
+        return position;
+    }
+
+    private int parseTimestamp(CharSequence text, int position, int end, boolean last) {
+        if (position < 0) {
+            return position;
+        }
+        position = endField(text, parseInteger(text, position, end), end, last);
+        if (position < 0) {
+            return fail("Invalid timestamp");
+        }
+        timestamp = integer;
+        return position;
+    }
+
+    private int parseLabel(CharSequence text, int position, int end) {
+        if (position < 0) {
+            return position;
+        }
+        int start = position;
+        int hash = 0;
+        char c;
+        while (position < end && (c = text.charAt(position)) != ',') {
+            hash = 31 * hash + c;
+            position++;
+        }
+        if (position == start) {
+            return fail("Missing label");
+        }
+        label = LabelTable.intern(text, start, position, hash);
+        return endField(text, position, end, false);
+    }
+
+    private int parseValue(CharSequence text, int position, int end, boolean last) {
+        if (position < 0) {
+            return position;
+        }
+        int next = parseDecimal(text, position, end);
+        if (next >= 0 && next < end && text.charAt(next) == '%') {
+            next++;
+        }
+        next = endField(text, next, end, last);
+        if (next < 0) {
+            // Forms the fast path does not handle, such as NaN, end up here
+            next = parseSlow(text, position, end, last);
+        }
+        return next >= 0 ? next : fail("Invalid value");
+    }
+
+    /**
+     * Parses a signed decimal integer that fits into a long into {@link #integer}.
+     */
+    private int parseInteger(CharSequence text, int position, int end) {
+        position = skipSpaces(text, position, end);
+        boolean negative = position < end && text.charAt(position) == '-';
+        if (negative || position < end && text.charAt(position) == '+') {
+            position++;
+        }
+        int start = position;
+        long result = 0;
+        char c;
+        while (position < end && (c = text.charAt(position)) >= '0' && c <= '9') {
+            int digit = c - '0';
+            // Accumulated negatively, so that Long.MIN_VALUE fits
+            if (result < MIN_LONG_BEFORE_DIGIT) {
+                return -1;
+            }
+            result *= 10;
+            if (result < Long.MIN_VALUE + digit) {
+                return -1;
+            }
+            result -= digit;
+            position++;
+        }
+        if (position == start || !negative && result == Long.MIN_VALUE) {
+            return -1;
+        }
+        integer = negative ? result : -result;
+        return position;
+    }
+
+    /**
+     * Parses a decimal number into {@link #value}, or returns -1 if the fast path cannot
+     * convert it. Digits are collected into an integer mantissa and a power of ten; when
+     * both are small enough, one multiplication or division by an exact power of ten gives
+     * the correctly rounded result.
+     */
+    private int parseDecimal(CharSequence text, int position, int end) {
+        position = skipSpaces(text, position, end);
+        boolean negative = position < end && text.charAt(position) == '-';
+        if (negative || position < end && text.charAt(position) == '+') {
+            position++;
+        }
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean point = false;
+        for (; position < end; position++) {
+            char c = text.charAt(position);
+            if (c >= '0' && c <= '9') {
+                if (mantissa > MAX_EXACT_MANTISSA) {
+                    return -1;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (point) {
+                    exponent--;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else if ((c == 'e' || c == 'E') && digits > 0) {
+                position = parseInteger(text, position + 1, end);
+                if (position < 0 || integer < -22 || integer > 22) {
+                    return -1;
+                }
+                exponent += (int) integer;
+                break;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0 || mantissa > MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+            return -1;
+        }
+        double result = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        value = negative ? -result : result;
+        return position;
+    }
+
+    /**
+     * Parses the value field with {@link Double#parseDouble}.
+     */
+    private int parseSlow(CharSequence text, int position, int end, boolean last) {
+        int fieldEnd = position;
+        while (fieldEnd < end && text.charAt(fieldEnd) != ',') {
+            fieldEnd++;
+        }
+        int valueEnd = fieldEnd;
+        while (valueEnd > position && text.charAt(valueEnd - 1) == ' ') {
+            valueEnd--;
+        }
+        if (valueEnd > position && text.charAt(valueEnd - 1) == '%') {
+            valueEnd--;
+        }
+        try {
+            value = Double.parseDouble(text.subSequence(position, valueEnd).toString());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return endField(text, fieldEnd, end, last);
+    }
+
+    /**
+     * Skips trailing spaces and the separator after a field. The last field must end the
+     * line; the others must be followed by a comma.
+     */
+    private static int endField(CharSequence text, int position, int end, boolean last) {
+        if (position < 0) {
+            return position;
+        }
+        position = skipSpaces(text, position, end);
+        if (last) {
+            return position == end ? position : -1;
+        }
+        return position < end && text.charAt(position) == ',' ? position + 1 : -1;
+    }
+
+    private static int skipSpaces(CharSequence text, int position, int end) {
+        while (position < end && text.charAt(position) == ' ') {
+            position++;
+        }
+        return position;
+    }
+
+    private int fail(String problem) {
+        error = problem;
+        return -1;
+    }
+
+    private static int countFields(CharSequence text, int start, int end) {
+        int fields = 1;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == ',') {
+                fields++;
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * A reusable view of ASCII bytes as characters.
+     */
+    private static final class AsciiView implements CharSequence {
+        private ByteBuffer buffer;
+
+        @Override
+        public int length() {
+            return buffer.limit();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            StringBuilder builder = new StringBuilder(end - start);
+            for (int i = start; i < end; i++) {
+                builder.append(charAt(i));
+            }
+            return builder;
+        }
+
+        @Override
+        public String toString() {
+            return subSequence(0, length()).toString();
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.data_management;
+
+/**
+ * Columnar storage for all readings of a single record type belonging to one patient.
+ * Timestamps and measurement values are kept in parallel primitive arrays, so a
+ * reading costs 16 bytes of payload instead of a full {@link PatientRecord} object with its
+ * own header, boxed record type reference and redundant patient ID.
+ * {@link PatientRecord} instances are only created when a caller asks for them.
+ *
+ * <p>Readings are kept sorted by timestamp. In-order readings are appended; late arrivals
+ * are placed with a sorted insert. Readers work on a {@link SeriesSnapshot}, which
+ * binary-searches both ends of a range, so a query costs O(log n + k) for k matching readings.</p>
+ *
+ * <p>The arrays form a ring buffer whose capacity is a power of two. The series applies its
+ * {@link RetentionPolicy} on every append by advancing the ring's head past expired or
+ * surplus readings, so eviction costs amortized O(1) per reading and never scans. The ring
+ * grows when more than three quarters of it is live, and a count-bounded ring stops growing
+ * once it has a quarter more slots than the count allows, so once retention reaches a
+ * steady state the capacity, and with it the memory used, stops changing.</p>
+ *
+ * <p>A series has a single writer at a time: {@link #add(long, double)} must be called while
+ * holding the owning {@link Patient}'s write lock. Reads take no lock. An append fills the
+ * next free slot before publishing the new tail, and growth builds new arrays that are
+ * published as a whole. A late arrival shifts the newer readings up by one slot in place,
+ * unless a snapshot has been taken of the arrays since they were built; then it copies them
+ * instead, so that snapshots never see readings move. A slot is otherwise only rewritten once
+ * the ring wraps around to it; the slots kept free give snapshots that much headroom, and
+ * {@link SeriesSnapshot} detects a wrap and cuts again instead of returning overwritten data.</p>
+ *
+ * <p>Late arrivals are also numbered in a log of their own, so that a consumer streaming the
+ * series can find the readings that arrived since it last looked even when they sort before
+ * readings it has already seen. The log remembers as many late arrivals as the ring has slots.</p>
+ */
+public class RecordSeries {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int patientId;
+    private final String recordType;
+    private final RetentionPolicy retentionPolicy;
+    private final Object writeLock;
+    private volatile Columns columns;
+    private volatile LateLog lateLog;
+
+    /**
+     * Constructs an empty series for the given patient and record type that keeps every reading.
+     *
+     * @param patientId  the unique identifier of the patient owning the series
+     * @param recordType the type of record stored in this series, e.g., "ECG"
+     */
+    public RecordSeries(int patientId, String recordType) {
+        this(patientId, recordType, RetentionPolicy.unbounded());
+    }
+
+    /**
+     * Constructs an empty series for the given patient and record type.
+     *
+     * @param patientId       the unique identifier of the patient owning the series
+     * @param recordType      the type of record stored in this series, e.g., "ECG"
+     * @param retentionPolicy the policy deciding which readings are evicted
+     */
+    public RecordSeries(int patientId, String recordType, RetentionPolicy retentionPolicy) {
+        this(patientId, recordType, retentionPolicy, null);
+    }
+
+    /**
+     * Constructs an empty series written under the given lock.
+     *
+     * @param patientId       the unique identifier of the patient owning the series
+     * @param recordType      the type of record stored in this series, e.g., "ECG"
+     * @param retentionPolicy the policy deciding which readings are evicted
+     * @param writeLock       the lock held by writers, or {@code null} to use the series itself
+     */
+    RecordSeries(int patientId, String recordType, RetentionPolicy retentionPolicy, Object writeLock) {
+        this.patientId = patientId;
+        this.recordType = recordType;
+        this.retentionPolicy = retentionPolicy;
+        this.writeLock = writeLock != null ? writeLock : this;
+        this.columns = new Columns(INITIAL_CAPACITY, 0L);
+    }
+
+    /**
+     * Adds a reading to the series, growing the ring by doubling when it gets too full.
+     * A reading that is not older than the newest one is appended; an older reading is
+     * inserted after all readings with a timestamp less than or equal to its own, unless
+     * it is already outside the retention policy, in which case it is dropped.
+     *
+     * @param timestamp        the time of the measurement, in milliseconds since UNIX epoch
+     * @param measurementValue the measured value
+     */
+    public void add(long timestamp, double measurementValue) {
+        Columns current = columns;
+        long head = current.head;
+        long tail = current.tail;
+        if (tail > head) {
+            long newest = current.timestamps[(int) (tail - 1) & current.mask];
+            if (timestamp < newest) {
+                if (!retentionPolicy.isExpired(timestamp, newest)) {
+                    insertLate(current, head, tail, timestamp, measurementValue);
+                    logLate(timestamp, measurementValue);
+                }
+                return;
+            }
+        }
+        if (needsGrowth(current, tail - head + 1)) {
+            current = copyOf(current, head, tail, current.timestamps.length * 2, -1, 0L, 0.0);
+            head = current.head;
+            tail = current.tail;
+            columns = current;
+        }
+        int slot = (int) tail & current.mask;
+        current.timestamps[slot] = timestamp;
+        current.values[slot] = measurementValue;
+        current.tail = tail + 1;
+        evict(current, head, tail + 1, timestamp);
+    }
+
+    private void insertLate(Columns current, long head, long tail, long timestamp, double measurementValue) {
+        int count = (int) (tail - head);
+        int index = SeriesSnapshot.upperBound(current, head, count, timestamp);
+        if (!needsGrowth(current, count + 1) && current.beginRewrite()) {
+            int mask = current.mask;
+            for (long sequence = tail; sequence > head + index; sequence--) {
+                int to = (int) sequence & mask;
+                int from = (int) (sequence - 1) & mask;
+                current.timestamps[to] = current.timestamps[from];
+                current.values[to] = current.values[from];
+            }
+            int slot = (int) (head + index) & mask;
+            current.timestamps[slot] = timestamp;
+            current.values[slot] = measurementValue;
+            current.tail = tail + 1;
+            current.endRewrite();
+            evict(current, head, tail + 1, current.timestamps[(int) tail & mask]);
+            return;
+        }
+        int capacity = needsGrowth(current, count + 1) ? current.timestamps.length * 2 : current.timestamps.length;
+        Columns inserted = copyOf(current, head, tail, capacity, index, timestamp, measurementValue);
+        columns = inserted;
+        evict(inserted, inserted.head, inserted.tail, inserted.timestamps[(int) (inserted.tail - 1) & inserted.mask]);
+    }
+
+    private void logLate(long timestamp, double measurementValue) {
+        LateLog log = lateLog;
+        if (log == null) {
+            log = new LateLog(INITIAL_CAPACITY);
+            lateLog = log;
+        }
+        long count = log.count;
+        if (count >= log.timestamps.length && log.timestamps.length < columns.timestamps.length) {
+            log = log.grow();
+            lateLog = log;
+        }
+        int slot = (int) count & log.mask;
+        log.timestamps[slot] = timestamp;
+        log.values[slot] = measurementValue;
+        log.count = count + 1;
+    }
+
+    private boolean needsGrowth(Columns current, long liveCount) {
+        int capacity = current.timestamps.length;
+        if (liveCount > capacity) {
+            return true;
+        }
+        long maxCount = retentionPolicy.getMaxCount();
+        return liveCount > capacity - (capacity >> 2) && capacity < maxCount + (maxCount >> 2);
+    }
+
+    /**
+     * Copies the live readings into new arrays that start at slot 0, optionally inserting
+     * one reading at the given position.
+     */
+    private static Columns copyOf(Columns source, long head, long tail, int capacity,
+                                  int insertAt, long timestamp, double measurementValue) {
+        Columns copy = new Columns(capacity, 0L);
+        int count = (int) (tail - head);
+        int target = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == insertAt) {
+                copy.timestamps[target] = timestamp;
+                copy.values[target] = measurementValue;
+                target++;
+            }
+            int slot = (int) (head + i) & source.mask;
+            copy.timestamps[target] = source.timestamps[slot];
+            copy.values[target] = source.values[slot];
+            target++;
+        }
+        if (insertAt >= count) {
+            copy.timestamps[target] = timestamp;
+            copy.values[target] = measurementValue;
+            target++;
+        }
+        copy.tail = target;
+        return copy;
+    }
+
+    /**
+     * Advances the head past readings that the retention policy no longer allows. Each
+     * reading is evicted at most once, so the cost is amortized over the appends.
+     */
+    private void evict(Columns current, long head, long tail, long newest) {
+        long newHead = head;
+        long maxCount = retentionPolicy.getMaxCount();
+        if (tail - newHead > maxCount) {
+            newHead = tail - maxCount;
+        }
+        while (newHead < tail - 1
+                && retentionPolicy.isExpired(current.timestamps[(int) newHead & current.mask], newest)) {
+            newHead++;
+        }
+        if (newHead != head) {
+            current.head = newHead;
+        }
+    }
+
+    /**
+     * Returns an immutable view of the readings published so far.
+     *
+     * @return a snapshot of this series
+     */
+    public SeriesSnapshot snapshot() {
+        while (true) {
+            Columns current = columns;
+            int version = current.version;
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long head = current.head;
+            long tail = current.tail;
+            LateLog log = lateLog;
+            long lateCount = log != null ? log.count : 0L;
+            if (current.share(version)) {
+                return new SeriesSnapshot(this, current, head, (int) (tail - head), log, lateCount);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot over a copy of the live readings taken under the write lock. No
+     * writer touches the copy, so reads from it never have to be retried.
+     *
+     * @return a snapshot of this series that nothing overwrites
+     */
+    SeriesSnapshot lockedCopy() {
+        synchronized (writeLock) {
+            Columns current = columns;
+            long head = current.head;
+            long tail = current.tail;
+            Columns copy = copyOf(current, head, tail, current.timestamps.length, -1, 0L, 0.0);
+            LateLog log = lateLog;
+            return new SeriesSnapshot(this, copy, copy.head, (int) (copy.tail - copy.head),
+                    log, log != null ? log.count : 0L);
+        }
+    }
+
+    public int getPatientId() {
+        return patientId;
+    }
+
+    public String getRecordType() {
+        return recordType;
+    }
+
+    public RetentionPolicy getRetentionPolicy() {
+        return retentionPolicy;
+    }
+
+    /**
+     * Returns the number of readings currently retained.
+     *
+     * @return the number of live readings
+     */
+    public int size() {
+        Columns current = columns;
+        long head = current.head;
+        return (int) (current.tail - head);
+    }
+
+    /**
+     * Returns the number of slots in the ring buffer.
+     *
+     * @return the current capacity
+     */
+    public int capacity() {
+        return columns.timestamps.length;
+    }
+
+    /**
+     * Ring buffer arrays published together with their sequence bounds, so a reader never
+     * pairs the timestamps of one generation with the values or positions of another.
+     * The reading with sequence number {@code s} lives in slot {@code s & mask}; live
+     * readings are those with {@code head <= s < tail}.
+     *
+     * <p>The writer and snapshots agree on in-place rewrites through {@code shared} and
+     * {@code version}, each side writing its own field before reading the other's: either the
+     * writer sees that the arrays are shared and copies them, or the snapshot sees the version
+     * move and cuts again.</p>
+     */
+    static final class Columns {
+        final long[] timestamps;
+        final double[] values;
+        final int mask;
+        volatile long head;
+        volatile long tail;
+        volatile boolean shared;
+        volatile int version;
+
+        Columns(int capacity, long start) {
+            this.timestamps = new long[capacity];
+            this.values = new double[capacity];
+            this.mask = capacity - 1;
+            this.head = start;
+            this.tail = start;
+        }
+
+        /**
+         * Announces an in-place rewrite, unless a snapshot may be reading these arrays.
+         * The version is odd while the rewrite runs.
+         *
+         * @return {@code false} if the arrays are shared and must be copied instead
+         */
+        boolean beginRewrite() {
+            int current = version;
+            version = current + 1;
+            if (shared) {
+                version = current;
+                return false;
+            }
+            return true;
+        }
+
+        void endRewrite() {
+            version = version + 1;
+        }
+
+        /**
+         * Marks the arrays as read by a snapshot cut at the given version.
+         *
+         * @return {@code false} if a rewrite started since, and the cut has to be taken again
+         */
+        boolean share(int cutVersion) {
+            if (!shared) {
+                shared = true;
+            }
+            return version == cutVersion;
+        }
+    }
+
+    /**
+     * The late arrivals of a series, numbered in the order they arrived. Entry {@code n}
+     * lives in slot {@code n & mask}; the log keeps the newest {@code timestamps.length}
+     * entries, and grows with the ring until it has as many slots.
+     */
+    static final class LateLog {
+        final long[] timestamps;
+        final double[] values;
+        final int mask;
+        volatile long count;
+
+        LateLog(int capacity) {
+            this.timestamps = new long[capacity];
+            this.values = new double[capacity];
+            this.mask = capacity - 1;
+        }
+
+        LateLog grow() {
+            LateLog grown = new LateLog(timestamps.length * 2);
+            long end = count;
+            for (long n = Math.max(0L, end - timestamps.length); n < end; n++) {
+                grown.timestamps[(int) n & grown.mask] = timestamps[(int) n & mask];
+                grown.values[(int) n & grown.mask] = values[(int) n & mask];
+            }
+            grown.count = end;
+            return grown;
+        }
+
+        /**
+         * Checks that the entry has not been overwritten since it was read, as
+         * {@link Columns} does for ring slots.
+         */
+        boolean isIntact(long entry) {
+            return entry > count - timestamps.length;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.data_management;
+
+/**
+ * Receives readings one at a time as primitive values, so that streaming consumers
+ * can walk a {@link PatientSnapshot} without a {@link PatientRecord} being built per reading.
+ */
+@FunctionalInterface
+public interface RecordVisitor {
+
+    /**
+     * Called once per reading, in timestamp order.
+     *
+     * @param recordType       the type of record, e.g., "ECG"
+     * @param timestamp        the time of the measurement, in milliseconds since UNIX epoch
+     * @param measurementValue the measured value
+     */
+    void visit(String recordType, long timestamp, double measurementValue);
+}
@@ -0,0 +1,44 @@
+package com.data_management;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps record types to the {@link RetentionPolicy} applied to their series, with a default
+ * for types that have no policy of their own. A policy is looked up when a patient's series
+ * for a record type is first created, so changes apply to series created afterwards.
+ */
+public class RetentionPolicies {
+    private final Map<String, RetentionPolicy> policies = new ConcurrentHashMap<>();
+    private volatile RetentionPolicy defaultPolicy = RetentionPolicy.unbounded();
+
+    /**
+     * Sets the policy for one record type.
+     *
+     * @param recordType the type of record, e.g., "ECG"
+     * @param policy     the retention policy for that type
+     */
+    public void setPolicy(String recordType, RetentionPolicy policy) {
+        policies.put(recordType, policy);
+    }
+
+    /**
+     * Sets the policy used for record types without a policy of their own.
+     *
+     * @param policy the default retention policy
+     */
+    public void setDefaultPolicy(RetentionPolicy policy) {
+        this.defaultPolicy = policy;
+    }
+
+    /**
+     * Returns the policy for a record type.
+     *
+     * @param recordType the type of record, e.g., "ECG"
+     * @return the type's policy, or the default policy
+     */
+    public RetentionPolicy policyFor(String recordType) {
+        RetentionPolicy policy = policies.get(recordType);
+        return policy != null ? policy : defaultPolicy;
+    }
+}
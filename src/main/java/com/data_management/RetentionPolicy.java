@@ -0,0 +1,88 @@
+package com.data_management;
+
+import java.time.Duration;
+
+/**
+ * Describes how long the readings of one record type are kept.
+ * A policy can bound a series by age (relative to its newest reading), by the number of
+ * readings, or both. Readings that fall outside the policy are evicted as new readings
+ * are appended, one at a time, so eviction never needs a separate scan.
+ */
+public final class RetentionPolicy {
+    private static final RetentionPolicy UNBOUNDED = new RetentionPolicy(Long.MAX_VALUE, Integer.MAX_VALUE);
+
+    private final long maxAgeMillis;
+    private final int maxCount;
+
+    private RetentionPolicy(long maxAgeMillis, int maxCount) {
+        this.maxAgeMillis = maxAgeMillis;
+        this.maxCount = maxCount;
+    }
+
+    /**
+     * Returns a policy that keeps every reading.
+     *
+     * @return the unbounded policy
+     */
+    public static RetentionPolicy unbounded() {
+        return UNBOUNDED;
+    }
+
+    /**
+     * Returns a policy that keeps readings no older than the given age.
+     *
+     * @param maxAge the maximum age of a reading relative to the newest one in its series
+     * @return a time-based policy
+     * @throws IllegalArgumentException if the age is negative
+     */
+    public static RetentionPolicy maxAge(Duration maxAge) {
+        if (maxAge.isNegative()) {
+            throw new IllegalArgumentException("Retention age must not be negative: " + maxAge);
+        }
+        return new RetentionPolicy(maxAge.toMillis(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a policy that keeps at most the given number of most recent readings.
+     *
+     * @param maxCount the maximum number of readings kept
+     * @return a count-based policy
+     * @throws IllegalArgumentException if the count is not positive
+     */
+    public static RetentionPolicy maxCount(int maxCount) {
+        return UNBOUNDED.withMaxCount(maxCount);
+    }
+
+    /**
+     * Returns a copy of this policy that additionally keeps at most the given number of readings.
+     *
+     * @param maxCount the maximum number of readings kept
+     * @return a policy bounded by both age and count
+     * @throws IllegalArgumentException if the count is not positive
+     */
+    public RetentionPolicy withMaxCount(int maxCount) {
+        if (maxCount <= 0) {
+            throw new IllegalArgumentException("Retention count must be positive: " + maxCount);
+        }
+        return new RetentionPolicy(maxAgeMillis, maxCount);
+    }
+
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    /**
+     * Returns whether a reading is old enough to be evicted.
+     *
+     * @param timestamp the timestamp of the reading
+     * @param newest    the timestamp of the newest reading in the series
+     * @return {@code true} if the reading is older than the maximum age allows
+     */
+    boolean isExpired(long timestamp, long newest) {
+        return maxAgeMillis != Long.MAX_VALUE && timestamp < newest - maxAgeMillis;
+    }
+}
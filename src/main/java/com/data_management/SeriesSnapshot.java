@@ -0,0 +1,310 @@
+package com.data_management;
+
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+/**
+ * A view of a {@link RecordSeries} as it was when the snapshot was taken.
+ * The view shares the series' ring buffer but only covers readings that had been published,
+ * so it stays consistent while ingest continues without any copying or locking.
+ *
+ * <p>The ring keeps roughly a fifth of its slots free, so the readings in a snapshot survive
+ * at least that many further appends. A reader that holds a snapshot for longer than that may
+ * find its oldest readings overwritten by the ring wrapping around; reads check for this
+ * after loading a slot. The snapshot then cuts the series again at the same watermark, and
+ * after {@value #MAX_RECUTS} such attempts copies it under the patient's write lock, which
+ * no writer can overtake. Either way, it goes on with the readings the series still holds:
+ * the overwritten readings had already been evicted, so {@link #size()} may shrink and
+ * indices move down by the number of readings evicted.</p>
+ */
+public final class SeriesSnapshot {
+    private static final int MAX_RECUTS = 2;
+
+    private final int patientId;
+    private final String recordType;
+    private final RecordSeries series;
+    private final long limit;
+    private final RecordSeries.LateLog lateLog;
+    private final long lateCount;
+    private Cut cut;
+    private int recuts;
+
+    SeriesSnapshot(RecordSeries series, RecordSeries.Columns columns, long head, int size,
+                   RecordSeries.LateLog lateLog, long lateCount) {
+        this(series, Long.MAX_VALUE, new Cut(columns, head, size), lateLog, lateCount);
+    }
+
+    private SeriesSnapshot(RecordSeries series, long limit, Cut cut, RecordSeries.LateLog lateLog, long lateCount) {
+        this.patientId = series.getPatientId();
+        this.recordType = series.getRecordType();
+        this.series = series;
+        this.limit = limit;
+        this.cut = cut;
+        this.lateLog = lateLog;
+        this.lateCount = lateCount;
+    }
+
+    /**
+     * Returns a view limited to readings with a timestamp at or before the given watermark.
+     *
+     * @param watermark the latest timestamp to keep, in milliseconds since UNIX epoch
+     * @return a view that also stays within the watermark when it is cut again
+     */
+    SeriesSnapshot upTo(long watermark) {
+        int limited = upperBound(watermark);
+        Cut current = cut;
+        return new SeriesSnapshot(series, watermark, new Cut(current.columns, current.head, limited), lateLog, lateCount);
+    }
+
+    /**
+     * Passes the late arrivals from the given log entry on that are older than the given
+     * time to the visitor, in the order they arrived. Entries the log no longer holds are
+     * skipped.
+     *
+     * @param fromEntry the number of the first late arrival to visit
+     * @param before    the time before which late arrivals are visited, in milliseconds since UNIX epoch
+     * @param visitor   the consumer of the readings
+     * @return the number of late arrivals in this snapshot, where the next call starts
+     */
+    long forEachLate(long fromEntry, long before, RecordVisitor visitor) {
+        RecordSeries.LateLog log = lateLog;
+        for (long n = Math.max(fromEntry, lateCount - (log != null ? log.timestamps.length : 0)); n < lateCount; n++) {
+            int slot = (int) n & log.mask;
+            long timestamp = log.timestamps[slot];
+            double value = log.values[slot];
+            VarHandle.acquireFence();
+            if (log.isIntact(n) && timestamp < before) {
+                visitor.visit(recordType, timestamp, value);
+            }
+        }
+        return lateCount;
+    }
+
+    /**
+     * Appends a {@link PatientRecord} view for every reading within the given time range.
+     *
+     * @param startTime the start of the time range (inclusive), in milliseconds since UNIX epoch
+     * @param endTime   the end of the time range (inclusive), in milliseconds since UNIX epoch
+     * @param out       the list receiving the records
+     */
+    void collectRecords(long startTime, long endTime, List<PatientRecord> out) {
+        if (startTime > endTime) {
+            return;
+        }
+        int to = upperBound(endTime);
+        for (int i = lowerBound(startTime); i < to; i++) {
+            out.add(toRecord(i));
+        }
+    }
+
+    /**
+     * Returns the index of the first reading with a timestamp greater than or equal to
+     * the given time, or {@link #size()} if there is none.
+     *
+     * @param timestamp the time to search for, in milliseconds since UNIX epoch
+     * @return the lower bound index
+     */
+    public int lowerBound(long timestamp) {
+        while (true) {
+            Cut current = cut;
+            int index = lowerBound(current.columns, current.head, current.size, timestamp);
+            if (current.isSequenceIntact(current.head)) {
+                return index;
+            }
+            recut(current);
+        }
+    }
+
+    /**
+     * Returns the index of the first reading with a timestamp strictly greater than the
+     * given time, or {@link #size()} if there is none.
+     *
+     * @param timestamp the time to search for, in milliseconds since UNIX epoch
+     * @return the upper bound index
+     */
+    public int upperBound(long timestamp) {
+        while (true) {
+            Cut current = cut;
+            int index = upperBound(current.columns, current.head, current.size, timestamp);
+            if (current.isSequenceIntact(current.head)) {
+                return index;
+            }
+            recut(current);
+        }
+    }
+
+    static int lowerBound(RecordSeries.Columns columns, long head, int count, long timestamp) {
+        long[] timestamps = columns.timestamps;
+        int mask = columns.mask;
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[(int) (head + mid) & mask] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static int upperBound(RecordSeries.Columns columns, long head, int count, long timestamp) {
+        long[] timestamps = columns.timestamps;
+        int mask = columns.mask;
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[(int) (head + mid) & mask] <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Builds a {@link PatientRecord} view of the reading at the given index.
+     *
+     * @param index the index of the reading, between 0 and {@link #size()} (exclusive)
+     * @return a new record holding the reading
+     */
+    public PatientRecord toRecord(int index) {
+        return new PatientRecord(patientId, getValue(index), recordType, getTimestamp(index));
+    }
+
+    public String getRecordType() {
+        return recordType;
+    }
+
+    public int size() {
+        return cut.size;
+    }
+
+    public long getTimestamp(int index) {
+        while (true) {
+            Cut current = cut;
+            long sequence = current.sequenceOf(index);
+            long timestamp = current.columns.timestamps[(int) sequence & current.columns.mask];
+            if (current.isSequenceIntact(sequence)) {
+                return timestamp;
+            }
+            recut(current);
+        }
+    }
+
+    public double getValue(int index) {
+        while (true) {
+            Cut current = cut;
+            long sequence = current.sequenceOf(index);
+            double value = current.columns.values[(int) sequence & current.columns.mask];
+            if (current.isSequenceIntact(sequence)) {
+                return value;
+            }
+            recut(current);
+        }
+    }
+
+    /**
+     * Returns the range of the ring the snapshot currently reads. A reader that needs stable
+     * indices across several reads, such as a merge of several series or a temporal join,
+     * works on the cut and checks {@link Cut#isIntact(int)} after each read instead of letting
+     * the snapshot recut underneath it.
+     *
+     * @return the current cut
+     */
+    public Cut cut() {
+        return cut;
+    }
+
+    /**
+     * Replaces a cut whose slots were overwritten with a new one at the same watermark:
+     * a lock-free cut while attempts remain, then a private copy that nothing overwrites.
+     *
+     * @param stale the cut found to be overwritten
+     * @return the cut to read from now on
+     */
+    public Cut recut(Cut stale) {
+        if (cut != stale) {
+            return cut;
+        }
+        SeriesSnapshot fresh;
+        if (recuts < MAX_RECUTS) {
+            recuts++;
+            fresh = series.snapshot();
+        } else {
+            fresh = series.lockedCopy();
+        }
+        Cut next = fresh.cut;
+        if (limit != Long.MAX_VALUE) {
+            next = new Cut(next.columns, next.head,
+                    upperBound(next.columns, next.head, next.size, limit));
+        }
+        cut = next;
+        return next;
+    }
+
+    /**
+     * The ring buffer arrays and the range of sequence numbers a snapshot reads. Reads
+     * through a cut do not check for overwritten slots; the caller checks
+     * {@link #isIntact(int)} after reading.
+     */
+    public static final class Cut {
+        private final RecordSeries.Columns columns;
+        private final long head;
+        private final int size;
+
+        private Cut(RecordSeries.Columns columns, long head, int size) {
+            this.columns = columns;
+            this.head = head;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long getTimestamp(int index) {
+            return columns.timestamps[(int) sequenceOf(index) & columns.mask];
+        }
+
+        public double getValue(int index) {
+            return columns.values[(int) sequenceOf(index) & columns.mask];
+        }
+
+        public int lowerBound(long timestamp) {
+            return SeriesSnapshot.lowerBound(columns, head, size, timestamp);
+        }
+
+        public int upperBound(long timestamp) {
+            return SeriesSnapshot.upperBound(columns, head, size, timestamp);
+        }
+
+        /**
+         * Checks that the reading at an index, and every newer one, was not overwritten
+         * before the reads so far; {@code isIntact(0)} covers the whole cut.
+         */
+        public boolean isIntact(int index) {
+            return isSequenceIntact(head + index);
+        }
+
+        private long sequenceOf(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+            }
+            return head + index;
+        }
+
+        /**
+         * Checks that the slot holding the given sequence number has not been reused since it
+         * was read. The writer publishes a new tail only after filling its slot, so the slot of
+         * the current tail may be mid-write and counts as reused.
+         */
+        private boolean isSequenceIntact(long sequence) {
+            VarHandle.acquireFence();
+            return sequence > columns.tail - columns.timestamps.length;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.data_management;
+
+import java.util.Arrays;
+
+/**
+ * Remembers how far a consumer has streamed a patient's readings, per record type, so that
+ * {@link PatientSnapshot#forEachNew(StreamCursor, RecordVisitor)} passes every reading to it
+ * exactly once, including readings that share a timestamp with ones already seen and late
+ * arrivals that sort before them. A cursor belongs to one patient and one consumer, and is
+ * not safe for concurrent use.
+ */
+public final class StreamCursor {
+    private long[] newest = new long[0];
+    private int[] seenAtNewest = new int[0];
+    private long[] lateSeen = new long[0];
+
+    /**
+     * Makes room for the series of a snapshot. Series only ever get added to a patient, and
+     * keep their position, so the state of a record type stays at the same index.
+     */
+    void ensureSeries(int seriesCount) {
+        int known = newest.length;
+        if (seriesCount > known) {
+            newest = Arrays.copyOf(newest, seriesCount);
+            Arrays.fill(newest, known, seriesCount, Long.MIN_VALUE);
+            seenAtNewest = Arrays.copyOf(seenAtNewest, seriesCount);
+            lateSeen = Arrays.copyOf(lateSeen, seriesCount);
+        }
+    }
+
+    /**
+     * Returns the newest timestamp streamed of a series.
+     */
+    long newest(int series) {
+        return newest[series];
+    }
+
+    /**
+     * Returns how many readings with the newest timestamp of a series have been streamed.
+     */
+    int seenAtNewest(int series) {
+        return seenAtNewest[series];
+    }
+
+    long lateSeen(int series) {
+        return lateSeen[series];
+    }
+
+    void setLateSeen(int series, long entries) {
+        lateSeen[series] = entries;
+    }
+
+    /**
+     * Records that a reading of a series was streamed. Readings are recorded in timestamp order.
+     */
+    void advance(int series, long timestamp) {
+        if (timestamp == newest[series]) {
+            seenAtNewest[series]++;
+        } else {
+            newest[series] = timestamp;
+            seenAtNewest[series] = 1;
+        }
+    }
+}
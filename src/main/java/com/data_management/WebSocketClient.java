@@ -1,31 +1,104 @@
 package com.data_management;
 
+import com.metrics.Counter;
+import com.metrics.LatencyHistogram;
+import com.metrics.LatencyMetrics;
+import com.metrics.MetricsRegistry;
+import com.metrics.jfr.ParseEvent;
+import com.protocol.ReadingCodec;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
 import org.java_websocket.handshake.ServerHandshake;
+import org.java_websocket.protocols.IProtocol;
+import org.java_websocket.protocols.Protocol;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * A DataReader implementation that reads patient data from a WebSocket server in real-time.
  * Connects to the specified WebSocket URI, parses incoming messages, and stores them in DataStorage.
+ *
+ * <p>The thread reading the socket only queues the raw messages, so a slow storage does
+ * not stop it from reading. Ingest workers take the messages from bounded lock-free
+ * {@link IngestQueue}s, parse them and store the readings in {@link RecordBatch}es of up to
+ * the configured batch size; a worker stores its batch as soon as its queue runs empty, so
+ * batching adds no delay when messages arrive slowly. The messages of a patient always go
+ * to the same worker and are stored in the order they arrived. What happens when a queue
+ * is full is chosen by the {@link OverflowPolicy} of the {@link IngestOptions}. Each
+ * message is queued with the time it was received, and its readings carry that time into
+ * the storage, so listeners can measure latency from the socket on.</p>
+ *
+ * <p>Unless the options say otherwise, the client asks the server for the
+ * {@value ReadingCodec#PROTOCOL} subprotocol. If the server agrees, readings arrive as
+ * binary frames that the workers decode without parsing text; otherwise they arrive as
+ * text, as from servers that do not know the binary encoding.</p>
  */
 public class WebSocketClient implements DataReader {
     private static final Logger LOGGER = Logger.getLogger(WebSocketClient.class.getName());
+    private static final LatencyHistogram PARSE_LATENCY = LatencyMetrics.getInstance().histogram(LatencyMetrics.PARSE);
+    private static final Counter MESSAGES = MetricsRegistry.getInstance()
+            .counter("websocket_messages_total", "Messages received over the WebSocket");
+    private static final Counter MALFORMED = MetricsRegistry.getInstance()
+            .counter("websocket_malformed_total", "WebSocket messages dropped as malformed");
     private final Client client;
     private final AtomicBoolean isRunning;
+    private final IngestOptions options;
+    private final String[] lowPriorityTypes;
+    private final boolean[] lowPriorityCodes;
+    private final IngestQueue[] queues;
+    private final Thread[] workers;
+    private volatile boolean workersRunning;
 
     /**
-     * Constructs a WebSocketClient that connects to the specified WebSocket server.
+     * Constructs a WebSocketClient that connects to the specified WebSocket server, with
+     * the {@link IngestOptions#defaults() default} ingest options.
      *
      * @param serverUri the URI of the WebSocket server (e.g., ws://localhost:8080)
      * @throws URISyntaxException if the serverUri is invalid
      */
     public WebSocketClient(String serverUri) throws URISyntaxException {
-        this.client = new Client(new URI(serverUri));
+        this(serverUri, IngestOptions.defaults());
+    }
+
+    /**
+     * Constructs a WebSocketClient that connects to the specified WebSocket server.
+     *
+     * @param serverUri the URI of the WebSocket server (e.g., ws://localhost:8080)
+     * @param options   how received messages are queued and stored
+     * @throws URISyntaxException if the serverUri is invalid
+     */
+    public WebSocketClient(String serverUri, IngestOptions options) throws URISyntaxException {
+        Draft draft = new Draft_6455();
+        if (options.isBinaryProtocol()) {
+            List<IProtocol> protocols = List.of(new Protocol(ReadingCodec.PROTOCOL), new Protocol(""));
+            draft = new Draft_6455(Collections.emptyList(), protocols);
+        }
+        this.client = new Client(new URI(serverUri), draft);
         this.isRunning = new AtomicBoolean(false);
+        this.options = options;
+        this.lowPriorityTypes = options.getLowPriorityTypes();
+        this.lowPriorityCodes = new boolean[Short.MAX_VALUE + 1];
+        for (String type : lowPriorityTypes) {
+            short code = ReadingCodec.codeOf(type);
+            if (code != ReadingCodec.TEXT) {
+                lowPriorityCodes[code] = true;
+            }
+        }
+        int workerCount = options.getWorkers();
+        int queueCapacity = (options.getQueueCapacity() + workerCount - 1) / workerCount;
+        this.queues = new IngestQueue[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            queues[i] = new IngestQueue(queueCapacity, options.getOverflowPolicy());
+        }
+        this.workers = new Thread[workerCount];
     }
 
     @Override
@@ -34,21 +107,35 @@ public class WebSocketClient implements DataReader {
             throw new IOException("WebSocketClient is already running");
         }
         isRunning.set(true);
-        client.setDataStorage(dataStorage);
+        workersRunning = true;
+        for (int i = 0; i < workers.length; i++) {
+            IngestQueue queue = queues[i];
+            workers[i] = new Thread(() -> ingest(queue, dataStorage), "websocket-ingest-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
         try {
             client.connectBlocking();
-            LOGGER.info("Connected to WebSocket server: " + client.getURI());
+            LOGGER.info("Connected to WebSocket server: " + client.getURI() + " with " + options);
         } catch (InterruptedException e) {
+            workersRunning = false;
+            for (IngestQueue queue : queues) {
+                queue.wake();
+            }
             isRunning.set(false);
             throw new IOException("Failed to connect to WebSocket server", e);
         }
     }
 
+    /**
+     * Closes the connection, then lets the workers store the messages queued so far.
+     */
     @Override
     public void close() throws IOException {
         if (isRunning.get()) {
             try {
                 client.closeBlocking();
+                stopWorkers();
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
@@ -57,28 +144,267 @@ public class WebSocketClient implements DataReader {
         }
     }
 
-    private static class Client extends org.java_websocket.client.WebSocketClient {
-        private DataStorage dataStorage;
+    /**
+     * Returns the number of messages waiting for a worker.
+     *
+     * @return the number of queued messages
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (IngestQueue queue : queues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    /**
+     * Returns the number of messages lost because a queue was full, see {@link OverflowPolicy}.
+     *
+     * @return the number of dropped messages
+     */
+    public long getDroppedCount() {
+        long dropped = 0;
+        for (IngestQueue queue : queues) {
+            dropped += queue.getDroppedCount();
+        }
+        return dropped;
+    }
+
+    /**
+     * Returns the number of dropped messages whose record type is one of the
+     * {@link IngestOptions#withLowPriorityTypes low-priority types}.
+     *
+     * @return the number of dropped low-priority messages
+     */
+    public long getDroppedLowPriorityCount() {
+        long dropped = 0;
+        for (IngestQueue queue : queues) {
+            dropped += queue.getDroppedLowPriorityCount();
+        }
+        return dropped;
+    }
+
+    /**
+     * Returns whether the server agreed to send binary readings on the current connection.
+     *
+     * @return {@code true} if readings arrive in the {@link ReadingCodec} encoding
+     */
+    boolean isBinary() {
+        IProtocol protocol = client.getProtocol();
+        return protocol != null && ReadingCodec.PROTOCOL.equals(protocol.getProvidedProtocol());
+    }
+
+    /**
+     * Queues a received text message for the worker of its patient.
+     */
+    void enqueue(String message, long receivedNanos) throws InterruptedException {
+        IngestQueue queue = queues.length == 1 ? queues[0] : queues[workerOf(message, queues.length)];
+        boolean lowPriority = options.getOverflowPolicy() == OverflowPolicy.DROP_BY_PRIORITY
+                && isLowPriority(message, lowPriorityTypes);
+        queue.offer(message, receivedNanos, lowPriority);
+    }
+
+    /**
+     * Queues a received binary frame for the worker of the patient of its first reading.
+     * The server sends one reading per frame, and the library allocates a buffer for each
+     * frame, so the frame can be queued without copying.
+     */
+    void enqueue(ByteBuffer frame, long receivedNanos) throws InterruptedException {
+        int position = frame.position();
+        if (frame.remaining() < ReadingCodec.READING_BYTES) {
+            // Too short to route; the worker reports it as malformed
+            queues[0].offer(frame, receivedNanos, false);
+            return;
+        }
+        int worker = Math.floorMod(ReadingCodec.getPatientId(frame, position), queues.length);
+        short code = ReadingCodec.getLabelCode(frame, position);
+        boolean lowPriority = options.getOverflowPolicy() == OverflowPolicy.DROP_BY_PRIORITY
+                && code >= 0 && lowPriorityCodes[code];
+        queues[worker].offer(frame, receivedNanos, lowPriority);
+    }
+
+    /**
+     * Picks the worker from the digits of the patient ID, the first field, without parsing
+     * the message; a malformed ID still maps to some worker, which then rejects the message.
+     */
+    static int workerOf(String message, int workers) {
+        int hash = 0;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == ',') {
+                break;
+            }
+            if (c >= '0' && c <= '9') {
+                hash = 31 * hash + (c - '0');
+            }
+        }
+        return Math.floorMod(hash, workers);
+    }
+
+    /**
+     * Returns whether the label, the third field of the message, is one of the given types.
+     */
+    static boolean isLowPriority(String message, String[] types) {
+        int start = message.indexOf(',', message.indexOf(',') + 1) + 1;
+        if (start == 0) {
+            return false;
+        }
+        int end = message.indexOf(',', start);
+        int length = (end < 0 ? message.length() : end) - start;
+        for (String type : types) {
+            if (type.length() == length && message.regionMatches(start, type, 0, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void ingest(IngestQueue queue, DataStorage dataStorage) {
+        RecordParser parser = new RecordParser(RecordParser.Layout.MESSAGE);
+        RecordBatch batch = new RecordBatch(options.getBatchSize());
+        long[] received = new long[1];
+        try {
+            while (true) {
+                Object message;
+                while (!batch.isFull() && (message = queue.poll(received)) != null) {
+                    int first = batch.size();
+                    try {
+                        if (message instanceof ByteBuffer) {
+                            decodeFrame((ByteBuffer) message, parser, batch);
+                        } else {
+                            parseMessage((String) message, parser, batch);
+                        }
+                        batch.stampReceived(first, received[0]);
+                    } catch (IllegalArgumentException e) {
+                        MALFORMED.increment();
+                        LOGGER.warning("Invalid message format: " + describe(message) + ", Error: " + e.getMessage());
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    store(batch, dataStorage);
+                } else if (workersRunning) {
+                    queue.awaitMessages(100);
+                } else {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String describe(Object message) {
+        return message instanceof ByteBuffer ? "binary frame of " + ((ByteBuffer) message).remaining() + " bytes"
+                : message.toString();
+    }
+
+    private static void store(RecordBatch batch, DataStorage dataStorage) {
+        try {
+            dataStorage.addPatientData(batch);
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Failed to store " + batch.size() + " readings", e);
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void stopWorkers() throws InterruptedException {
+        workersRunning = false;
+        for (int i = 0; i < workers.length; i++) {
+            queues[i].wake();
+            workers[i].join();
+        }
+    }
+
+    /**
+     * Parses a message of the form {@code patientId,timestamp,label,value} and adds the
+     * reading to a batch.
+     *
+     * @param message the message text
+     * @param parser  the parser of the receiving thread, with the {@link RecordParser.Layout#MESSAGE} layout
+     * @param batch   the batch receiving the reading
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    static void parseMessage(String message, RecordParser parser, RecordBatch batch) {
+        long start = System.nanoTime();
+        ParseEvent parseEvent = ParseEvent.start();
+        if (!parser.parse(message)) {
+            throw new IllegalArgumentException(parser.getError());
+        }
+        PARSE_LATENCY.recordSince(start);
+        ParseEvent.finish(parseEvent, parser.getPatientId(), parser.getLabel(), message.length());
+        batch.add(parser.getPatientId(), parser.getValue(), parser.getLabel(), parser.getTimestamp());
+    }
+
+    /**
+     * Decodes the readings of a binary frame in the {@link ReadingCodec} encoding and adds
+     * them to a batch. Text records, which carry readings the binary layout cannot hold,
+     * are parsed like text messages. A frame is accepted or rejected as a whole: if it is
+     * invalid, none of its readings stay in the batch.
+     *
+     * @param frame  the frame payload
+     * @param parser the parser of the receiving thread, with the {@link RecordParser.Layout#MESSAGE} layout
+     * @param batch  the batch receiving the readings
+     * @throws IllegalArgumentException if the frame is truncated or holds an unknown label code
+     */
+    static void decodeFrame(ByteBuffer frame, RecordParser parser, RecordBatch batch) {
+        int first = batch.size();
+        try {
+            decodeRecords(frame, parser, batch);
+        } catch (IllegalArgumentException e) {
+            batch.truncate(first);
+            throw e;
+        }
+    }
 
-        public Client(URI serverUri) {
-            super(serverUri);
+    private static void decodeRecords(ByteBuffer frame, RecordParser parser, RecordBatch batch) {
+        for (int position = frame.position(); position < frame.limit(); ) {
+            int length = ReadingCodec.recordLength(frame, position);
+            int patientId = ReadingCodec.getPatientId(frame, position);
+            long timestamp = ReadingCodec.getTimestamp(frame, position);
+            short code = ReadingCodec.getLabelCode(frame, position);
+            if (code == ReadingCodec.TEXT) {
+                parseMessage(patientId + "," + timestamp + "," + ReadingCodec.getText(frame, position), parser, batch);
+            } else {
+                String label = ReadingCodec.labelOf(code);
+                if (label == null) {
+                    throw new IllegalArgumentException("Unknown label code " + code);
+                }
+                batch.add(patientId, ReadingCodec.getValue(frame, position), label, timestamp);
+            }
+            position += length;
         }
+    }
 
-        public void setDataStorage(DataStorage dataStorage) {
-            this.dataStorage = dataStorage;
+    private class Client extends org.java_websocket.client.WebSocketClient {
+        public Client(URI serverUri, Draft draft) {
+            super(serverUri, draft);
         }
 
         @Override
         public void onOpen(ServerHandshake handshake) {
-            LOGGER.info("WebSocket connection opened");
+            LOGGER.info("WebSocket connection opened" + (isBinary() ? ", binary readings" : ""));
         }
 
         @Override
         public void onMessage(String message) {
+            long received = System.nanoTime();
+            MESSAGES.increment();
             try {
-                parseAndStoreMessage(message, dataStorage);
-            } catch (IllegalArgumentException e) {
-                LOGGER.warning("Invalid message format: " + message + ", Error: " + e.getMessage());
+                enqueue(message, received);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void onMessage(ByteBuffer frame) {
+            long received = System.nanoTime();
+            MESSAGES.increment();
+            try {
+                enqueue(frame, received);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
 
@@ -91,23 +417,5 @@ public class WebSocketClient implements DataReader {
         public void onError(Exception ex) {
             LOGGER.severe("WebSocket error: " + ex.getMessage());
         }
-
-        private void parseAndStoreMessage(String message, DataStorage dataStorage) {
-            String[] parts = message.split(",");
-            if (parts.length != 4) {
-                throw new IllegalArgumentException("Expected 4 fields, got " + parts.length);
-            }
-            try {
-                int patientId = Integer.parseInt(parts[0]);
-                long timestamp = Long.parseLong(parts[1]);
-                String label = parts[2];
-                double measurementValue = Double.parseDouble(parts[3]);
-                synchronized (dataStorage) {
-                    dataStorage.addPatientData(patientId, measurementValue, label, timestamp);
-                }
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid number format in message: " + message, e);
-            }
-        }
     }
-}
\ No newline at end of file
+}
@@ -3,20 +3,36 @@ package com.data_management.data_reader_impl;
 
 import com.data_management.DataReader;
 import com.data_management.DataStorage;
+import com.data_management.RecordBatch;
+import com.data_management.RecordParser;
+import com.metrics.Counter;
+import com.metrics.MetricsRegistry;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.logging.Logger;
 
 /**
  * A DataReader implementation that reads patient data from a CSV file.
  * The CSV file is expected to have the format: patientId,measurementValue,recordType,timestamp.
+ * By default the file is read line by line on the calling thread and stored in batches of
+ * {@value #BATCH_SIZE} readings; in bulk mode it is memory-mapped and parsed on several
+ * threads, see {@link #FileDataReader(String, int)}.
  */
 public class FileDataReader implements DataReader {
     private static final Logger LOGGER = Logger.getLogger(FileDataReader.class.getName());
+    private static final Counter RECORDS_READ = MetricsRegistry.getInstance()
+            .counter("file_records_read_total", "Readings loaded from files");
+    private static final Counter MALFORMED = MetricsRegistry.getInstance()
+            .counter("file_malformed_total", "File lines skipped as malformed");
+    private static final int BATCH_SIZE = 1024;
     private final String filePath;
+    private final int parallelism;
     private BufferedReader reader;
+    private long recordCount;
+    private long malformedCount;
 
     /**
      * Constructs a FileDataReader for the specified CSV file.
@@ -24,12 +40,46 @@ public class FileDataReader implements DataReader {
      * @param filePath the path to the CSV file
      */
     public FileDataReader(String filePath) {
+        this(filePath, 0);
+    }
+
+    /**
+     * Constructs a FileDataReader that loads the specified CSV file in bulk mode, for large
+     * historical exports. The file is memory-mapped, split into chunks at line boundaries,
+     * and the chunks are parsed and stored by {@code parallelism} threads. The readings of
+     * each patient are still stored in the order of the file.
+     *
+     * @param filePath    the path to the CSV file
+     * @param parallelism the number of loading threads, e.g., the number of cores, or 0 to
+     *                    read the file line by line on the calling thread
+     */
+    public FileDataReader(String filePath, int parallelism) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("Parallelism must not be negative");
+        }
         this.filePath = filePath;
+        this.parallelism = parallelism;
     }
 
     @Override
     public void readData(DataStorage dataStorage) throws IOException {
+        recordCount = 0;
+        malformedCount = 0;
+        if (parallelism > 0) {
+            MappedFileLoader loader = new MappedFileLoader(Paths.get(filePath), parallelism);
+            try {
+                loader.load(dataStorage);
+            } finally {
+                recordCount = loader.getRecordCount();
+                malformedCount = loader.getMalformedCount();
+                RECORDS_READ.add(recordCount);
+                MALFORMED.add(malformedCount);
+            }
+            return;
+        }
         reader = new BufferedReader(new FileReader(filePath));
+        RecordParser parser = new RecordParser(RecordParser.Layout.CSV);
+        RecordBatch batch = new RecordBatch(BATCH_SIZE);
         String line;
         boolean isFirstLine = true;
         while ((line = reader.readLine()) != null) {
@@ -37,21 +87,43 @@ public class FileDataReader implements DataReader {
                 isFirstLine = false;
                 continue; // Skip header
             }
-            try {
-                String[] parts = line.split(",");
-                if (parts.length != 4) {
-                    LOGGER.warning("Invalid line format: " + line);
-                    continue;
-                }
-                int patientId = Integer.parseInt(parts[0]);
-                double measurementValue = Double.parseDouble(parts[1]);
-                String recordType = parts[2];
-                long timestamp = Long.parseLong(parts[3]);
-                dataStorage.addPatientData(patientId, measurementValue, recordType, timestamp);
-            } catch (NumberFormatException e) {
-                LOGGER.warning("Invalid number format in line: " + line);
+            if (!parser.parse(line)) {
+                malformedCount++;
+                MALFORMED.increment();
+                LOGGER.warning("Invalid line: " + line + ", Error: " + parser.getError());
+                continue;
+            }
+            batch.add(parser.getPatientId(), parser.getValue(), parser.getLabel(), parser.getTimestamp());
+            if (batch.isFull()) {
+                store(batch, dataStorage);
             }
         }
+        store(batch, dataStorage);
+    }
+
+    private void store(RecordBatch batch, DataStorage dataStorage) {
+        dataStorage.addPatientData(batch);
+        recordCount += batch.size();
+        RECORDS_READ.add(batch.size());
+        batch.clear();
+    }
+
+    /**
+     * Returns the number of readings stored by the last {@link #readData} call.
+     *
+     * @return the number of readings
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the number of lines skipped as malformed by the last {@link #readData} call.
+     *
+     * @return the number of malformed lines
+     */
+    public long getMalformedCount() {
+        return malformedCount;
     }
 
     @Override
@@ -0,0 +1,209 @@
+package com.data_management.data_reader_impl;
+
+import com.data_management.DataStorage;
+import com.data_management.RecordBatch;
+import com.data_management.RecordParser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Loads a large CSV file into a {@link DataStorage} on several threads. The file is split
+ * into chunks that end at line boundaries, and each chunk is memory-mapped and parsed by
+ * one worker into a {@link RecordBatch}. Chunks are processed in waves of one chunk per
+ * worker: the workers first parse the chunks of a wave, then store the batches, each
+ * worker storing the readings of its own share of the patients in chunk order. The
+ * readings of a patient are therefore stored in the order of the file, while the file
+ * never has to fit into memory as a whole.
+ *
+ * <p>The first line is skipped as header, like {@link FileDataReader} does, and lines may
+ * end with {@code \n} or {@code \r\n}. Malformed lines are skipped and counted, and the
+ * first few are logged with their byte offset.</p>
+ */
+class MappedFileLoader {
+    private static final Logger LOGGER = Logger.getLogger(MappedFileLoader.class.getName());
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+    private static final long MAX_CHUNK_BYTES = 64 << 20;
+    private static final int LOGGED_MALFORMED_LINES = 10;
+    private static final int STORE_BATCH_SIZE = 4096;
+
+    private final Path file;
+    private final int parallelism;
+    private final long chunkBytes;
+    private final AtomicInteger loggedMalformed = new AtomicInteger();
+    private final AtomicLong malformedCount = new AtomicLong();
+    private long recordCount;
+
+    /**
+     * @param file        the CSV file
+     * @param parallelism the number of worker threads
+     */
+    MappedFileLoader(Path file, int parallelism) {
+        this(file, parallelism, 0);
+    }
+
+    /**
+     * @param file        the CSV file
+     * @param parallelism the number of worker threads
+     * @param chunkBytes  the approximate size of a chunk, or 0 to derive it from the file size
+     */
+    MappedFileLoader(Path file, int parallelism, long chunkBytes) {
+        if (parallelism <= 0 || chunkBytes < 0) {
+            throw new IllegalArgumentException("Parallelism must be positive and chunk size not negative");
+        }
+        this.file = file;
+        this.parallelism = parallelism;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Loads the file.
+     *
+     * @param dataStorage the storage receiving the readings
+     * @throws IOException if the file cannot be read
+     */
+    void load(DataStorage dataStorage) throws IOException {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkBytes = this.chunkBytes > 0 ? this.chunkBytes
+                    : Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, size / (4L * parallelism) + 1));
+            long position = nextLine(channel, 0);
+            while (position < size) {
+                List<Callable<RecordBatch>> parsers = new ArrayList<>(parallelism);
+                for (int i = 0; i < parallelism && position < size; i++) {
+                    long chunkStart = position;
+                    long chunkEnd = nextLine(channel, Math.min(size, chunkStart + chunkBytes));
+                    parsers.add(() -> parse(channel.map(FileChannel.MapMode.READ_ONLY, chunkStart,
+                            chunkEnd - chunkStart), chunkStart));
+                    position = chunkEnd;
+                }
+                List<RecordBatch> wave = getAll(pool.invokeAll(parsers));
+                List<Callable<Void>> stores = new ArrayList<>(parallelism);
+                for (int share = 0; share < parallelism; share++) {
+                    int patientShare = share;
+                    stores.add(() -> {
+                        storeShare(wave, patientShare, parallelism, dataStorage);
+                        return null;
+                    });
+                }
+                getAll(pool.invokeAll(stores));
+                for (RecordBatch batch : wave) {
+                    recordCount += batch.size();
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        LOGGER.info(String.format("Loaded %,d readings from %s in %,d ms, skipped %,d malformed lines",
+                recordCount, file, (System.nanoTime() - start) / 1_000_000, malformedCount.get()));
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    long getMalformedCount() {
+        return malformedCount.get();
+    }
+
+    /**
+     * Returns the position after the end of the line containing the given position, or the
+     * file size if that line is the last.
+     */
+    private static long nextLine(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long size = channel.size();
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += Math.max(read, 0);
+        }
+        return size;
+    }
+
+    private RecordBatch parse(MappedByteBuffer chunk, long offset) {
+        RecordParser parser = new RecordParser(RecordParser.Layout.CSV);
+        RecordBatch batch = new RecordBatch(1024);
+        int malformed = 0;
+        int limit = chunk.limit();
+        int lineStart = 0;
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && chunk.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && chunk.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (parser.parse(chunk, lineStart, lineEnd)) {
+                batch.add(parser.getPatientId(), parser.getValue(), parser.getLabel(), parser.getTimestamp());
+            } else {
+                malformed++;
+                if (loggedMalformed.getAndIncrement() < LOGGED_MALFORMED_LINES) {
+                    LOGGER.warning("Invalid line at byte " + (offset + lineStart) + " of " + file + ": "
+                            + parser.getError());
+                }
+            }
+            lineStart = next;
+        }
+        malformedCount.addAndGet(malformed);
+        return batch;
+    }
+
+    /**
+     * Stores the readings of the patients whose ID falls into the given share, going
+     * through the chunks in file order and passing them to the storage in batches.
+     */
+    private static void storeShare(List<RecordBatch> wave, int share, int shares, DataStorage dataStorage) {
+        RecordBatch batch = new RecordBatch(STORE_BATCH_SIZE);
+        for (RecordBatch chunk : wave) {
+            for (int i = 0; i < chunk.size(); i++) {
+                if (Math.floorMod(chunk.getPatientId(i), shares) == share) {
+                    batch.add(chunk.getPatientId(i), chunk.getMeasurementValue(i), chunk.getRecordType(i),
+                            chunk.getTimestamp(i));
+                    if (batch.isFull()) {
+                        dataStorage.addPatientData(batch);
+                        batch.clear();
+                    }
+                }
+            }
+        }
+        dataStorage.addPatientData(batch);
+    }
+
+    private static <T> List<T> getAll(List<Future<T>> futures) throws IOException {
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to load", e.getCause());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,62 @@
+package com.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count, e.g., of ingested records. Backed by a
+ * {@link LongAdder}, so threads incrementing it concurrently update separate cells instead
+ * of contending on one. The {@link MetricsRegistry} samples the count periodically to
+ * report a per-second rate.
+ */
+public class Counter {
+    private final String name;
+    private final String help;
+    private final LongAdder count = new LongAdder();
+    private long sampledCount;
+    private long sampledAtNanos = System.nanoTime();
+    private volatile double ratePerSecond;
+
+    Counter(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    public long get() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the rate over the registry's last sampling period.
+     *
+     * @return the increments per second
+     */
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+
+    synchronized void sampleRate(long nowNanos) {
+        long current = count.sum();
+        long elapsed = nowNanos - sampledAtNanos;
+        if (elapsed > 0) {
+            ratePerSecond = (current - sampledCount) * 1e9 / elapsed;
+        }
+        sampledCount = current;
+        sampledAtNanos = nowNanos;
+    }
+}
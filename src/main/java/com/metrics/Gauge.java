@@ -0,0 +1,31 @@
+package com.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A value read on demand, e.g., the number of patients in storage. The supplier runs on the
+ * thread reading the metrics, so it should be cheap and must be thread-safe.
+ */
+public class Gauge {
+    private final String name;
+    private final String help;
+    private final DoubleSupplier value;
+
+    Gauge(String name, String help, DoubleSupplier value) {
+        this.name = name;
+        this.help = help;
+        this.value = value;
+    }
+
+    public double get() {
+        return value.getAsDouble();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+}
@@ -0,0 +1,142 @@
+package com.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of latencies in nanoseconds with log-linear buckets: every power
+ * of two is split into 16 equal buckets, so a percentile is reported with an error of at
+ * most about 6%, from nanoseconds up to 2<sup>41</sup> ns, about 36.6 minutes, in a fixed
+ * 608-slot array. Longer latencies are clamped into the top bucket. Recording a value is a few shifts and one atomic increment and never allocates, which
+ * keeps the histogram cheap enough to stay enabled in production.
+ *
+ * <p>Percentiles are read from the live counts without stopping writers, so a reading
+ * taken during heavy recording can be off by the values recorded meanwhile.</p>
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKETS = bucketOf(MAX_VALUE) + 1;
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one latency. Negative values count as 0, values beyond the range as the
+     * largest bucket.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(Math.min(value, MAX_VALUE)));
+        count.increment();
+        totalNanos.add(value);
+        if (value > maxNanos.get()) {
+            maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Records the time elapsed since a start time taken with {@link System#nanoTime()}.
+     *
+     * @param startNanos the start time
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the value below which the given fraction of the recorded latencies fall,
+     * rounded up to the end of its bucket and capped at the maximum.
+     *
+     * @param fraction the percentile as a fraction, e.g., 0.99
+     * @return the latency in milliseconds, or 0 if nothing was recorded
+     */
+    public double getPercentileMillis(double fraction) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        int bucket = 0;
+        for (; bucket < BUCKETS - 1; bucket++) {
+            seen += snapshot[bucket];
+            if (seen >= rank) {
+                break;
+            }
+        }
+        return toMillis(Math.min(upperBound(bucket), maxNanos.get()));
+    }
+
+    /**
+     * Returns the mean recorded latency.
+     *
+     * @return the mean latency in milliseconds, or 0 if nothing was recorded
+     */
+    public double getMeanMillis() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0 : toMillis(totalNanos.sum()) / recorded;
+    }
+
+    public double getMaxMillis() {
+        return toMillis(maxNanos.get());
+    }
+
+    /**
+     * Returns a one-line summary with the count and the p50, p99 and p99.9 latencies.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d, p50=%.3fms, p99=%.3fms, p999=%.3fms, max=%.3fms",
+                name, getCount(), getPercentileMillis(0.5), getPercentileMillis(0.99),
+                getPercentileMillis(0.999), getMaxMillis());
+    }
+
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+        long mantissa = (bucket & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
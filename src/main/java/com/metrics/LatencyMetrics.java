@@ -0,0 +1,89 @@
+package com.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The latency histograms of the monitoring pipeline, by name. The stages a reading passes
+ * through have fixed names: {@link #PARSE} and {@link #STORE} on ingest,
+ * {@link #SCHEDULE} from receiving it until its evaluation finished, {@link #EVALUATE} for
+ * one evaluation of a patient, and {@link #DISPATCH} from raising an alert until it was
+ * delivered. Percentiles of different stages do not add up, so the end-to-end latency has
+ * its own histogram, {@link #INGEST_TO_ALERT}, from receiving the oldest reading of an
+ * evaluation until the evaluation raised an alert. The cost of single rules is recorded
+ * under {@link #RULE_PREFIX} followed by the rule's condition.
+ *
+ * <p>Components record into the shared instance from {@link #getInstance()}; histograms are
+ * created on first use and live as long as the process.</p>
+ */
+public class LatencyMetrics {
+    public static final String PARSE = "parse";
+    public static final String STORE = "store";
+    public static final String SCHEDULE = "ingest-to-evaluation";
+    public static final String EVALUATE = "evaluate";
+    public static final String DISPATCH = "dispatch";
+    public static final String INGEST_TO_ALERT = "ingest-to-alert";
+    public static final String RULE_PREFIX = "rule.";
+
+    private static final LatencyMetrics INSTANCE = new LatencyMetrics();
+
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public static LatencyMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the histogram with the given name, creating it on first use. Callers on hot
+     * paths should look the histogram up once and keep it.
+     *
+     * @param name the name, e.g., {@link #EVALUATE}
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, LatencyHistogram::new);
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns the rule histogram for a condition, see {@link #RULE_PREFIX}.
+     *
+     * @param condition the condition of the rule, e.g., "ECGPeak"
+     * @return the histogram
+     */
+    public LatencyHistogram ruleHistogram(String condition) {
+        return histogram(RULE_PREFIX + condition);
+    }
+
+    /**
+     * Returns all histograms, sorted by name.
+     *
+     * @return a copy of the histogram list
+     */
+    public List<LatencyHistogram> getHistograms() {
+        Collection<LatencyHistogram> values = histograms.values();
+        List<LatencyHistogram> sorted = new ArrayList<>(values);
+        sorted.sort(Comparator.comparing(LatencyHistogram::getName));
+        return sorted;
+    }
+
+    /**
+     * Returns the summaries of all histograms, one per line.
+     *
+     * @return the report
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (LatencyHistogram histogram : getHistograms()) {
+            report.append(histogram).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+}
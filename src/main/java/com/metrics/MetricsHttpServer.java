@@ -0,0 +1,74 @@
+package com.metrics;
+
+import com.metrics.jfr.JfrEvents;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Logger;
+
+/**
+ * Serves {@link MetricsRegistry#scrape()} as plain text on {@code /metrics}, for Prometheus
+ * or curl. Requests are handled on the server's single dispatcher thread.
+ */
+public class MetricsHttpServer {
+    private static final Logger LOGGER = Logger.getLogger(MetricsHttpServer.class.getName());
+
+    private final HttpServer server;
+
+    /**
+     * Starts serving the metrics.
+     *
+     * @param registry the metrics to serve
+     * @param port     the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public MetricsHttpServer(MetricsRegistry registry, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/metrics", exchange -> respond(exchange, registry.scrape()));
+        server.start();
+        LOGGER.info("Serving metrics on http://localhost:" + getPort() + "/metrics");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Registers the metrics and JFR switch MBeans and, if the system property {@code metrics.port} is set,
+     * starts serving the shared registry on that port.
+     *
+     * @return the server, or {@code null} if no port was configured or it could not be bound
+     */
+    public static MetricsHttpServer startFromSystemProperties() {
+        MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.registerMBean();
+        JfrEvents.registerMBean();
+        Integer port = Integer.getInteger("metrics.port");
+        if (port == null) {
+            return null;
+        }
+        try {
+            return new MetricsHttpServer(registry, port);
+        } catch (IOException e) {
+            LOGGER.severe("Failed to serve metrics on port " + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+
+/**
+ * Exposes a {@link MetricsRegistry} over JMX, e.g., to JConsole or VisualVM. The metrics
+ * are registered at runtime, so this is a dynamic MBean whose attributes are built from the
+ * registry on every request: each counter with its {@code _rate}, each gauge, and for each
+ * latency histogram its count and p50, p99 and p99.9 in milliseconds. All attributes are
+ * read-only.
+ */
+public class MetricsMBean implements DynamicMBean {
+    private final MetricsRegistry registry;
+
+    public MetricsMBean(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        for (Counter counter : registry.getCounters()) {
+            if (attribute.equals(counter.getName())) {
+                return counter.get();
+            }
+            if (attribute.equals(counter.getName() + "_rate")) {
+                return counter.getRatePerSecond();
+            }
+        }
+        for (Gauge gauge : registry.getGauges()) {
+            if (attribute.equals(gauge.getName())) {
+                return gauge.get();
+            }
+        }
+        for (LatencyHistogram histogram : registry.getLatencies().getHistograms()) {
+            String prefix = histogram.getName() + "_";
+            if (!attribute.startsWith(prefix)) {
+                continue;
+            }
+            switch (attribute.substring(prefix.length())) {
+                case "count":
+                    return histogram.getCount();
+                case "p50_ms":
+                    return histogram.getPercentileMillis(0.5);
+                case "p99_ms":
+                    return histogram.getPercentileMillis(0.99);
+                case "p999_ms":
+                    return histogram.getPercentileMillis(0.999);
+                default:
+                    break;
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList values = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                values.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // Unknown attributes are left out, as the DynamicMBean contract allows
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName), "No operations: " + actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Counter counter : registry.getCounters()) {
+            attributes.add(attribute(counter.getName(), "long", counter.getHelp()));
+            attributes.add(attribute(counter.getName() + "_rate", "double", "Per-second rate of " + counter.getName()));
+        }
+        for (Gauge gauge : registry.getGauges()) {
+            attributes.add(attribute(gauge.getName(), "double", gauge.getHelp()));
+        }
+        for (LatencyHistogram histogram : registry.getLatencies().getHistograms()) {
+            String name = histogram.getName();
+            attributes.add(attribute(name + "_count", "long", "Number of " + name + " latencies"));
+            attributes.add(attribute(name + "_p50_ms", "double", "Median " + name + " latency"));
+            attributes.add(attribute(name + "_p99_ms", "double", "99th percentile " + name + " latency"));
+            attributes.add(attribute(name + "_p999_ms", "double", "99.9th percentile " + name + " latency"));
+        }
+        return new MBeanInfo(getClass().getName(), "Signal project metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+
+    private static MBeanAttributeInfo attribute(String name, String type, String description) {
+        return new MBeanAttributeInfo(name, type, description, true, false, false);
+    }
+}
@@ -0,0 +1,190 @@
+package com.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The operational metrics of the process: {@link Counter}s and {@link Gauge}s by name,
+ * plus the latency histograms of {@link LatencyMetrics}. Names follow the Prometheus
+ * conventions, e.g., {@code storage_records_ingested_total}.
+ *
+ * <p>Components create their counters once, usually in a static field, and increment them
+ * on their hot paths. Gauges are registered by the code that owns the measured object.
+ * A daemon thread samples the counters every {@value #RATE_PERIOD_SECONDS} seconds for
+ * their per-second rates.</p>
+ *
+ * <p>The metrics are read through {@link #scrape()}, which {@link MetricsHttpServer} serves,
+ * or through the {@link MetricsMBean} registered by {@link #registerMBean()}.</p>
+ */
+public class MetricsRegistry {
+    public static final String OBJECT_NAME = "com.signal_project:type=Metrics";
+    static final int RATE_PERIOD_SECONDS = 5;
+    private static final Logger LOGGER = Logger.getLogger(MetricsRegistry.class.getName());
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry(LatencyMetrics.getInstance());
+
+    static {
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-rate-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(INSTANCE::sampleRates, RATE_PERIOD_SECONDS, RATE_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Gauge> gauges = new ConcurrentHashMap<>();
+    private final LatencyMetrics latencies;
+
+    MetricsRegistry(LatencyMetrics latencies) {
+        this.latencies = latencies;
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the counter with the given name, creating it on first use.
+     *
+     * @param name the name, e.g., {@code websocket_messages_total}
+     * @param help a short description
+     * @return the counter
+     */
+    public Counter counter(String name, String help) {
+        return counters.computeIfAbsent(name, key -> new Counter(key, help));
+    }
+
+    /**
+     * Registers a gauge, replacing any gauge of the same name.
+     *
+     * @param name  the name, e.g., {@code storage_patients}
+     * @param help  a short description
+     * @param value reads the current value
+     */
+    public void gauge(String name, String help, DoubleSupplier value) {
+        gauges.put(name, new Gauge(name, help, value));
+    }
+
+    public List<Counter> getCounters() {
+        List<Counter> sorted = new ArrayList<>(counters.values());
+        sorted.sort(Comparator.comparing(Counter::getName));
+        return sorted;
+    }
+
+    public List<Gauge> getGauges() {
+        List<Gauge> sorted = new ArrayList<>(gauges.values());
+        sorted.sort(Comparator.comparing(Gauge::getName));
+        return sorted;
+    }
+
+    public LatencyMetrics getLatencies() {
+        return latencies;
+    }
+
+    void sampleRates() {
+        long now = System.nanoTime();
+        for (Counter counter : counters.values()) {
+            counter.sampleRate(now);
+        }
+    }
+
+    /**
+     * Registers the {@link MetricsMBean} under {@link #OBJECT_NAME} with the platform MBean
+     * server, unless it is already registered.
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsMBean(this), name);
+            }
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Failed to register the metrics MBean", e);
+        }
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text exposition format. Counters are followed
+     * by a {@code _rate} gauge, and latency histograms are summaries in seconds with the
+     * 0.5, 0.99 and 0.999 quantiles; the rule histograms share one summary with a
+     * {@code rule} label.
+     *
+     * @return the metrics text
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder();
+        for (Counter counter : getCounters()) {
+            header(out, counter.getName(), counter.getHelp(), "counter");
+            sample(out, counter.getName(), "", counter.get());
+            header(out, counter.getName() + "_rate", "Per-second rate of " + counter.getName(), "gauge");
+            sample(out, counter.getName() + "_rate", "", counter.getRatePerSecond());
+        }
+        for (Gauge gauge : getGauges()) {
+            header(out, gauge.getName(), gauge.getHelp(), "gauge");
+            sample(out, gauge.getName(), "", gauge.get());
+        }
+        boolean ruleHeader = false;
+        for (LatencyHistogram histogram : latencies.getHistograms()) {
+            String name;
+            String labels;
+            if (histogram.getName().startsWith(LatencyMetrics.RULE_PREFIX)) {
+                name = "rule_seconds";
+                labels = "rule=\"" + histogram.getName().substring(LatencyMetrics.RULE_PREFIX.length()) + "\"";
+                if (!ruleHeader) {
+                    header(out, name, "Sampled evaluation time of single alert rules", "summary");
+                    ruleHeader = true;
+                }
+            } else {
+                name = sanitize(histogram.getName()) + "_seconds";
+                labels = "";
+                header(out, name, "Latency of the " + histogram.getName() + " stage", "summary");
+            }
+            String separator = labels.isEmpty() ? "" : labels + ",";
+            sample(out, name, separator + "quantile=\"0.5\"", histogram.getPercentileMillis(0.5) / 1000);
+            sample(out, name, separator + "quantile=\"0.99\"", histogram.getPercentileMillis(0.99) / 1000);
+            sample(out, name, separator + "quantile=\"0.999\"", histogram.getPercentileMillis(0.999) / 1000);
+            long count = histogram.getCount();
+            sample(out, name + "_count", labels, count);
+            sample(out, name + "_sum", labels, histogram.getMeanMillis() * count / 1000);
+        }
+        return out.toString();
+    }
+
+    static String sanitize(String name) {
+        return name.replaceAll("[^a-zA-Z0-9_]", "_");
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(String.format(Locale.ROOT, "%.9g", value));
+        }
+        out.append('\n');
+    }
+}
@@ -0,0 +1,45 @@
+package com.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count, total and maximum of a single writer's timings, e.g., the evaluations of one
+ * patient. Much smaller than a {@link LatencyHistogram}, so one can be kept per patient.
+ * Only one thread may record at a time; other threads may read the values, which are then
+ * approximate.
+ */
+public class TimingStats {
+    private volatile long count;
+    private volatile long totalNanos;
+    private volatile long maxNanos;
+
+    /**
+     * Records one timing.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        count++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotalMillis() {
+        return totalNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMeanMillis() {
+        long recorded = count;
+        return recorded == 0 ? 0 : getTotalMillis() / recorded;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
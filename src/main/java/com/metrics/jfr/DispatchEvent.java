@@ -0,0 +1,64 @@
+package com.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The delivery of one batch of alerts to the handlers of the {@code AlertDispatcher}.
+ */
+@Name("com.signal_project.Dispatch")
+@Label("Alert Dispatch")
+@Category({"Signal Project", "Alerts"})
+@Description("Delivery of one alert batch to the handlers")
+@Threshold("10 ms")
+public final class DispatchEvent extends Event {
+    @Label("Alerts")
+    int alerts;
+
+    @Label("Patient ID")
+    @Description("Patient of every alert in the batch, or -1 if the batch holds several patients")
+    int patientId;
+
+    @Label("Handlers")
+    int handlers;
+
+    /**
+     * Starts timing a delivery.
+     *
+     * @return the started event, or {@code null} if {@link JfrEvents} are switched off or
+     *         no recording has the event enabled
+     */
+    public static DispatchEvent start() {
+        if (!JfrEvents.DISPATCH.isOpen()) {
+            return null;
+        }
+        DispatchEvent event = new DispatchEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the delivery and commits the event if it passes the recording's settings.
+     *
+     * @param event     the event from {@link #start()}, may be {@code null}
+     * @param alerts    the number of alerts in the batch
+     * @param patientId the patient of every alert in the batch, or -1 if it holds several
+     * @param handlers  the number of handlers the batch went to
+     */
+    public static void finish(DispatchEvent event, int alerts, int patientId, int handlers) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.alerts = alerts;
+            event.patientId = patientId;
+            event.handlers = handlers;
+            event.commit();
+        }
+    }
+}
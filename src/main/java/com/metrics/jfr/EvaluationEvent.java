@@ -0,0 +1,64 @@
+package com.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * One alert evaluation of a patient by the {@code AlertGenerator}.
+ */
+@Name("com.signal_project.Evaluation")
+@Label("Alert Evaluation")
+@Category({"Signal Project", "Alerts"})
+@Description("Alert evaluation of one patient")
+@Threshold("5 ms")
+public final class EvaluationEvent extends Event {
+    @Label("Patient ID")
+    int patientId;
+
+    @Label("Readings")
+    @Description("Readings streamed to the rules")
+    long readings;
+
+    @Label("Rules")
+    int rules;
+
+    /**
+     * Starts timing an evaluation.
+     *
+     * @return the started event, or {@code null} if {@link JfrEvents} are switched off or
+     *         no recording has the event enabled
+     */
+    public static EvaluationEvent start() {
+        if (!JfrEvents.EVALUATION.isOpen()) {
+            return null;
+        }
+        EvaluationEvent event = new EvaluationEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the evaluation and commits the event if it passes the recording's settings.
+     *
+     * @param event     the event from {@link #start()}, may be {@code null}
+     * @param patientId the evaluated patient
+     * @param readings  the number of new readings evaluated
+     * @param rules     the number of rules and patterns evaluated
+     */
+    public static void finish(EvaluationEvent event, int patientId, long readings, int rules) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.patientId = patientId;
+            event.readings = readings;
+            event.rules = rules;
+            event.commit();
+        }
+    }
+}
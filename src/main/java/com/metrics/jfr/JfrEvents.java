@@ -0,0 +1,124 @@
+package com.metrics.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The switch for the custom Java Flight Recorder events of the ingest and alerting paths:
+ * {@link ParseEvent}, {@link StoreEvent}, {@link EvaluationEvent} and {@link DispatchEvent}.
+ * The instrumented code only creates an event while the switch is on and a running
+ * recording has the event enabled; otherwise it skips the event after two volatile reads
+ * and allocates nothing. Whether a recording has an event enabled is cached per event type and
+ * refreshed whenever a recording starts or stops, so settings changed on a running
+ * recording apply from the next start or stop of any recording. A created event is only
+ * committed if it lasted longer than its threshold, which defaults to values that keep the
+ * overhead negligible and can be changed in the recording settings, e.g.,
+ * {@code -XX:StartFlightRecording:com.signal_project.Evaluation#threshold=0ms}.
+ *
+ * <p>The switch starts on unless the system property {@code jfr.events} is {@code false},
+ * and can be flipped at runtime through {@link #setEnabled(boolean)} or the
+ * {@value #OBJECT_NAME} MBean.</p>
+ */
+public final class JfrEvents implements JfrEventsMBean {
+    public static final String OBJECT_NAME = "com.signal_project:type=JfrEvents";
+    private static final Logger LOGGER = Logger.getLogger(JfrEvents.class.getName());
+    private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("jfr.events"));
+    static final Gate PARSE = new Gate(ParseEvent.class);
+    static final Gate STORE = new Gate(StoreEvent.class);
+    static final Gate EVALUATION = new Gate(EvaluationEvent.class);
+    static final Gate DISPATCH = new Gate(DispatchEvent.class);
+    private static final Gate[] GATES = {PARSE, STORE, EVALUATION, DISPATCH};
+
+    static {
+        if (FlightRecorder.isAvailable()) {
+            FlightRecorder.addListener(new FlightRecorderListener() {
+                @Override
+                public void recordingStateChanged(Recording recording) {
+                    refresh();
+                }
+            });
+        }
+        refresh();
+    }
+
+    private JfrEvents() {
+    }
+
+    /**
+     * Returns whether the switch is on; events are only created if a recording has them
+     * enabled, too.
+     *
+     * @return {@code true} if the events are switched on
+     */
+    public static boolean active() {
+        return enabled;
+    }
+
+    /**
+     * Registers the switch with the platform MBean server, unless it is already registered.
+     */
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new JfrEvents(), name);
+            }
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Failed to register the JFR events MBean", e);
+        }
+    }
+
+    public static void setActive(boolean active) {
+        enabled = active;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        setActive(enabled);
+    }
+
+    /**
+     * Opens or closes the gates by whether a recording has their events enabled. Until the
+     * flight recorder has been initialized, no recording can have, so the event types are
+     * not looked up before. Runs on the thread that starts or stops a recording, which may
+     * hold locks of the recorder, so it takes no lock of its own.
+     */
+    private static void refresh() {
+        boolean initialized = FlightRecorder.isAvailable() && FlightRecorder.isInitialized();
+        for (Gate gate : GATES) {
+            gate.recorded = initialized && EventType.getEventType(gate.eventClass).isEnabled();
+        }
+    }
+
+    /**
+     * Whether the instrumented code should create events of one type, see {@link JfrEvents}.
+     */
+    static final class Gate {
+        private final Class<? extends Event> eventClass;
+        private volatile boolean recorded;
+
+        private Gate(Class<? extends Event> eventClass) {
+            this.eventClass = eventClass;
+        }
+
+        boolean isOpen() {
+            return enabled && recorded;
+        }
+    }
+}
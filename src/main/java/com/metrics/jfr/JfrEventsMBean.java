@@ -0,0 +1,10 @@
+package com.metrics.jfr;
+
+/**
+ * The JMX view of {@link JfrEvents}.
+ */
+public interface JfrEventsMBean {
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+}
@@ -0,0 +1,63 @@
+package com.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The parsing of one incoming message into a reading.
+ */
+@Name("com.signal_project.Parse")
+@Label("Message Parse")
+@Category({"Signal Project", "Ingest"})
+@Description("Parsing of one incoming message")
+@Threshold("1 ms")
+public final class ParseEvent extends Event {
+    @Label("Patient ID")
+    int patientId;
+
+    @Label("Record Type")
+    String recordType;
+
+    @Label("Message Length")
+    int messageLength;
+
+    /**
+     * Starts timing a parse.
+     *
+     * @return the started event, or {@code null} if {@link JfrEvents} are switched off or
+     *         no recording has the event enabled
+     */
+    public static ParseEvent start() {
+        if (!JfrEvents.PARSE.isOpen()) {
+            return null;
+        }
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the parse and commits the event if it passes the recording's settings.
+     *
+     * @param event         the event from {@link #start()}, may be {@code null}
+     * @param patientId     the patient of the parsed reading
+     * @param recordType    the type of the parsed reading
+     * @param messageLength the length of the message in characters
+     */
+    public static void finish(ParseEvent event, int patientId, String recordType, int messageLength) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.patientId = patientId;
+            event.recordType = recordType;
+            event.messageLength = messageLength;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * The storing of readings for one patient in {@code DataStorage}.
+ */
+@Name("com.signal_project.Store")
+@Label("Store Readings")
+@Category({"Signal Project", "Ingest"})
+@Description("Storing readings of one patient")
+@Threshold("1 ms")
+public final class StoreEvent extends Event {
+    @Label("Patient ID")
+    int patientId;
+
+    @Label("Record Type")
+    String recordType;
+
+    @Label("Record Count")
+    int recordCount;
+
+    /**
+     * Starts timing a store.
+     *
+     * @return the started event, or {@code null} if {@link JfrEvents} are switched off or
+     *         no recording has the event enabled
+     */
+    public static StoreEvent start() {
+        if (!JfrEvents.STORE.isOpen()) {
+            return null;
+        }
+        StoreEvent event = new StoreEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the store and commits the event if it passes the recording's settings.
+     *
+     * @param event       the event from {@link #start()}, may be {@code null}
+     * @param patientId   the patient the readings were stored for
+     * @param recordType  the type of the readings, or {@code null} for mixed types
+     * @param recordCount the number of readings stored
+     */
+    public static void finish(StoreEvent event, int patientId, String recordType, int recordCount) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.patientId = patientId;
+            event.recordType = recordType;
+            event.recordCount = recordCount;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.protocol;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The binary encoding of readings sent from the simulator to the readers, as an alternative
+ * to the text form {@code patientId,timestamp,label,value}. A reading takes
+ * {@value #READING_BYTES} bytes in big-endian order:
+ *
+ * <pre>
+ * int patientId | long timestamp | short labelCode | double value
+ * </pre>
+ *
+ * <p>Label codes are fixed by the protocol version, see {@link #codeOf(String)}; new labels
+ * are only ever appended to the table. A reading whose label has no code, or whose data is not
+ * a number, such as the simulator's {@code Alert} readings, is sent as a text record: the
+ * label code is {@value #TEXT}, and the value is replaced by an unsigned short length
+ * followed by {@code label,data} in UTF-8.</p>
+ *
+ * <p>Peers agree on the encoding per connection: a client asks for {@value #PROTOCOL}, as
+ * WebSocket subprotocol or as the first line it sends over TCP, and the server answers
+ * with the same name if it sends binary readings. Without that answer, both keep to the
+ * text form.</p>
+ */
+public final class ReadingCodec {
+    /**
+     * The name under which peers negotiate this encoding.
+     */
+    public static final String PROTOCOL = "cardio-binary-v1";
+    public static final int READING_BYTES = 22;
+    public static final short TEXT = -1;
+
+    private static final int LABEL_CODE_OFFSET = 12;
+    private static final int VALUE_OFFSET = 14;
+    private static final String[] LABELS = {
+            "ECG", "Saturation", "SystolicPressure", "DiastolicPressure", "Cholesterol", "WhiteBloodCells",
+            "RedBloodCells", "BloodPressureSystolic", "BloodPressureDiastolic", "BloodSaturation", "HeartRate"
+    };
+    private static final Map<String, Short> CODES = new HashMap<>();
+
+    static {
+        for (short code = 0; code < LABELS.length; code++) {
+            CODES.put(LABELS[code], code);
+        }
+    }
+
+    private ReadingCodec() {
+    }
+
+    /**
+     * Returns the code of a label.
+     *
+     * @param label the label, e.g., "ECG"
+     * @return the code, or {@link #TEXT} if the label has none
+     */
+    public static short codeOf(String label) {
+        Short code = CODES.get(label);
+        return code != null ? code : TEXT;
+    }
+
+    /**
+     * Returns the label of a code.
+     *
+     * @param code the label code
+     * @return the label, or {@code null} if the code is unknown
+     */
+    public static String labelOf(short code) {
+        return code >= 0 && code < LABELS.length ? LABELS[code] : null;
+    }
+
+    /**
+     * Encodes a numeric reading, as a text record if its label has no code.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param timestamp the time of the measurement, in milliseconds since UNIX epoch
+     * @param label     the type of the reading, e.g., "ECG"
+     * @param value     the measured value
+     * @return the encoded reading
+     */
+    public static byte[] encode(int patientId, long timestamp, String label, double value) {
+        short code = codeOf(label);
+        if (code == TEXT) {
+            return encodeText(patientId, timestamp, label, Double.toString(value));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(READING_BYTES);
+        buffer.putInt(patientId).putLong(timestamp).putShort(code).putDouble(value);
+        return buffer.array();
+    }
+
+    /**
+     * Encodes a reading whose data is text, as the simulator's outputs receive it. Data
+     * that is a number, optionally followed by {@code %}, is encoded as a value; other data
+     * is sent as a text record.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param timestamp the time of the measurement, in milliseconds since UNIX epoch
+     * @param label     the type of the reading, e.g., "Saturation"
+     * @param data      the data, e.g., "97.0%"
+     * @return the encoded reading
+     */
+    public static byte[] encode(int patientId, long timestamp, String label, String data) {
+        String number = data.trim();
+        if (codeOf(label) != TEXT && isNumber(number)) {
+            if (number.endsWith("%")) {
+                number = number.substring(0, number.length() - 1);
+            }
+            try {
+                return encode(patientId, timestamp, label, Double.parseDouble(number));
+            } catch (NumberFormatException e) {
+                // Sent as text below
+            }
+        }
+        return encodeText(patientId, timestamp, label, data);
+    }
+
+    /**
+     * Returns the length of the record starting at a position.
+     *
+     * @param buffer   the buffer holding encoded readings, read with absolute gets
+     * @param position the index of the first byte of the record
+     * @return the number of bytes of the record
+     * @throws IllegalArgumentException if the record is truncated
+     */
+    public static int recordLength(ByteBuffer buffer, int position) {
+        int available = buffer.limit() - position;
+        int length = READING_BYTES;
+        if (available >= VALUE_OFFSET + 2 && getLabelCode(buffer, position) == TEXT) {
+            length = VALUE_OFFSET + 2 + Short.toUnsignedInt(buffer.getShort(position + VALUE_OFFSET));
+        }
+        if (available < length) {
+            throw new IllegalArgumentException("Truncated reading of " + available + " bytes");
+        }
+        return length;
+    }
+
+    public static int getPatientId(ByteBuffer buffer, int position) {
+        return buffer.getInt(position);
+    }
+
+    public static long getTimestamp(ByteBuffer buffer, int position) {
+        return buffer.getLong(position + 4);
+    }
+
+    public static short getLabelCode(ByteBuffer buffer, int position) {
+        return buffer.getShort(position + LABEL_CODE_OFFSET);
+    }
+
+    public static double getValue(ByteBuffer buffer, int position) {
+        return buffer.getDouble(position + VALUE_OFFSET);
+    }
+
+    /**
+     * Returns the {@code label,data} of a text record.
+     *
+     * @param buffer   the buffer holding encoded readings, read with absolute gets
+     * @param position the index of the first byte of the record
+     * @return the label and data, separated by a comma
+     */
+    public static String getText(ByteBuffer buffer, int position) {
+        int length = Short.toUnsignedInt(buffer.getShort(position + VALUE_OFFSET));
+        byte[] text = new byte[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = buffer.get(position + VALUE_OFFSET + 2 + i);
+        }
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encodeText(int patientId, long timestamp, String label, String data) {
+        byte[] text = (label + "," + data).getBytes(StandardCharsets.UTF_8);
+        if (text.length > 0xFFFF) {
+            throw new IllegalArgumentException("Reading text exceeds 65535 bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(VALUE_OFFSET + 2 + text.length);
+        buffer.putInt(patientId).putLong(timestamp).putShort(TEXT).putShort((short) text.length).put(text);
+        return buffer.array();
+    }
+
+    /**
+     * Checks the first character, so that data such as "triggered" is sent as text without
+     * the cost of a failed {@link Double#parseDouble}.
+     */
+    private static boolean isNumber(String number) {
+        if (number.isEmpty()) {
+            return false;
+        }
+        char c = number.charAt(0);
+        return c >= '0' && c <= '9' || c == '-' || c == '+' || c == '.';
+    }
+}
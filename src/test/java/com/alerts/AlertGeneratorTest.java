@@ -8,6 +8,9 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -68,4 +71,85 @@ class AlertGeneratorTest {
         assertFalse(output.contains("Alert triggered"),
                 "Expected no alerts, but got: '" + output + "'");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testEvaluationOnlyAlertsOnNewRecords() {
+        DataStorage storage = new DataStorage();
+        storage.addPatientData(7, 190.0, "BloodPressureSystolic", 1000L);
+        AlertGenerator generator = new AlertGenerator(storage);
+        Patient patient = storage.getAllPatients().get(0);
+        List<String> first = LogCapture.capture("com.alerts", () -> {
+            generator.evaluateData(patient);
+            generator.evaluateData(patient);
+        });
+        assertEquals(1, first.stream().filter(m -> m.contains("CriticalSystolic")).count(), first.toString());
+
+        storage.addPatientData(7, 120.0, "BloodPressureSystolic", 2000L);
+        storage.addPatientData(7, 80.0, "BloodPressureSystolic", 3000L);
+        List<String> second = LogCapture.capture("com.alerts", () -> generator.evaluateData(patient));
+        assertEquals(1, second.stream().filter(m -> m.contains("Alert triggered") && m.contains("CriticalSystolic"))
+                .count(), second.toString());
+    }
+
+    @Test
+    void testEvaluatesReadingsAtOrBeforeEvaluatedTimestamps() {
+        DataStorage storage = new DataStorage();
+        AlertGenerator generator = new AlertGenerator(storage);
+        List<String> messages = LogCapture.capture("com.alerts", () -> {
+            storage.addPatientData(3, 120.0, "BloodPressureSystolic", 2000L);
+            generator.evaluateData(3);
+            storage.addPatientData(3, 40.0, "BloodPressureDiastolic", 2000L);
+            generator.evaluateData(3);
+            storage.addPatientData(3, 85.0, "BloodSaturation", 1999L);
+            storage.addPatientData(3, 125.0, "BloodPressureSystolic", 1500L);
+            storage.addPatientData(3, 200.0, "BloodPressureSystolic", 1999L);
+            generator.evaluateData(3);
+        });
+        assertTrue(messages.stream().anyMatch(m -> m.contains("CriticalDiastolic")), messages.toString());
+        assertTrue(messages.stream().anyMatch(m -> m.contains("LowSaturation")), messages.toString());
+        assertTrue(messages.stream().anyMatch(m -> m.contains("CriticalSystolic") && m.contains("1999")),
+                messages.toString());
+    }
+
+    @Test
+    void testParallelEvaluationKeepsPerPatientOrder() {
+        DataStorage storage = new DataStorage();
+        for (int patientId = 0; patientId < 64; patientId++) {
+            for (int i = 0; i < 20; i++) {
+                storage.addPatientData(patientId, i % 2 == 0 ? 190.0 : 120.0, "BloodPressureSystolic", 60000L * i);
+            }
+        }
+        List<String> sequential = LogCapture.capture("com.alerts", () -> {
+            AlertGenerator generator = new AlertGenerator(storage);
+            for (Patient patient : storage.getAllPatients()) {
+                generator.evaluateData(patient);
+            }
+        });
+        ForkJoinPool pool = AlertGenerator.newEvaluationPool(4);
+        try {
+            List<String> parallel = LogCapture.capture("com.alerts", () ->
+                    new AlertGenerator(storage).evaluateAll(storage.getAllPatients(), pool));
+            for (int patientId = 0; patientId < 64; patientId++) {
+                String prefix = "Patient " + patientId + ",";
+                assertEquals(sequential.stream().filter(m -> m.contains(prefix)).collect(Collectors.toList()),
+                        parallel.stream().filter(m -> m.contains(prefix)).collect(Collectors.toList()));
+            }
+            assertEquals(64 * 20, parallel.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testEveryTriggeredAlertIsRaised() {
+        DataStorage storage = new DataStorage();
+        AlertGenerator generator = new AlertGenerator(storage);
+        List<String> messages = LogCapture.capture("com.alerts", () -> {
+            storage.addPatientData(9, 1.0, "Alert", 1000L);
+            generator.evaluateData(9);
+            storage.addPatientData(9, 1.0, "Alert", 2000L);
+            generator.evaluateData(9);
+        });
+        assertEquals(2, messages.stream().filter(m -> m.contains("TriggeredAlert")).count(), messages.toString());
+    }
+}
@@ -0,0 +1,116 @@
+package com.alerts;
+
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.strategy_pattern.AlertSink;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertStateTrackerTest {
+    private final List<String> emitted = new ArrayList<>();
+    private final AlertSink downstream = new AlertSink() {
+        @Override
+        public void raise(int patientId, String condition, long timestamp) {
+            emitted.add("open " + patientId + " " + condition + " " + timestamp);
+        }
+
+        @Override
+        public void resolve(int patientId, String condition, long timestamp) {
+            emitted.add("resolve " + patientId + " " + condition + " " + timestamp);
+        }
+    };
+
+    @Test
+    void testOnlyTransitionsAreEmitted() {
+        AlertStateTracker tracker = new AlertStateTracker(60_000, 8, 100);
+        AlertSink sink = tracker.track(downstream);
+
+        sink.raise(1, "LowSaturation", 1000);
+        sink.raise(1, "LowSaturation", 2000);
+        sink.raise(1, "LowSaturation", 3000);
+        assertTrue(tracker.isOpen(1, "LowSaturation"));
+        sink.resolve(1, "LowSaturation", 4000);
+        sink.resolve(1, "LowSaturation", 5000);
+        sink.raise(1, "LowSaturation", 6000);
+
+        assertEquals(List.of("open 1 LowSaturation 1000", "resolve 1 LowSaturation 4000",
+                "open 1 LowSaturation 6000"), emitted);
+        assertEquals(2, tracker.getSuppressedCount());
+    }
+
+    @Test
+    void testConditionsArePerPatient() {
+        AlertSink sink = new AlertStateTracker(60_000, 8, 100).track(downstream);
+        sink.raise(1, "CriticalSystolic", 1000);
+        sink.raise(2, "CriticalSystolic", 1000);
+        sink.raise(1, "CriticalDiastolic", 1000);
+        assertEquals(3, emitted.size());
+    }
+
+    @Test
+    void testOpenConditionIsReportedAgainAfterDedupWindow() {
+        AlertSink sink = new AlertStateTracker(60_000, 8, 100).track(downstream);
+        sink.raise(1, "ECGPeak", 0);
+        sink.raise(1, "ECGPeak", 50_000);
+        sink.raise(1, "ECGPeak", 100_000);
+        sink.raise(1, "ECGPeak", 170_000);
+        assertEquals(List.of("open 1 ECGPeak 0", "open 1 ECGPeak 170000"), emitted);
+    }
+
+    @Test
+    void testRateLimitPerPatient() {
+        AlertStateTracker tracker = new AlertStateTracker(60_000, 8, 2);
+        AlertSink sink = tracker.track(downstream);
+        sink.raise(1, "A", 0);
+        sink.raise(1, "B", 0);
+        sink.raise(1, "C", 0);
+        sink.resolve(1, "C", 1000);
+        sink.raise(2, "A", 0);
+        sink.raise(1, "D", 30_000);
+
+        assertEquals(List.of("open 1 A 0", "open 1 B 0", "open 2 A 0", "open 1 D 30000"), emitted);
+        assertEquals(1, tracker.getRateLimitedCount());
+    }
+
+    @Test
+    void testRateLimitedConditionIsReportedOnceTokensAreBack() {
+        AlertStateTracker tracker = new AlertStateTracker(60_000, 8, 1);
+        AlertSink sink = tracker.track(downstream);
+        sink.raise(1, "A", 0);
+        sink.raise(1, "B", 1000);
+        sink.raise(1, "B", 2000);
+        sink.raise(1, "B", 61_000);
+        sink.raise(1, "B", 62_000);
+
+        assertEquals(List.of("open 1 A 0", "open 1 B 61000"), emitted);
+        assertEquals(2, tracker.getRateLimitedCount());
+        assertEquals(1, tracker.getSuppressedCount());
+    }
+
+    @Test
+    void testHighPriorityBypassesRateLimit() {
+        AlertStateTracker tracker = new AlertStateTracker(60_000, 8, 1);
+        AlertSink sink = tracker.track(downstream, AlertPriority.HIGH);
+        sink.raise(1, "A", 0);
+        sink.raise(1, "B", 0);
+        sink.raise(1, "C", 0);
+        assertEquals(3, emitted.size());
+        assertEquals(0, tracker.getRateLimitedCount());
+    }
+
+    @Test
+    void testOpenConditionsAreBoundedPerPatient() {
+        AlertStateTracker tracker = new AlertStateTracker(60_000, 2, 100);
+        AlertSink sink = tracker.track(downstream);
+        sink.raise(1, "A", 0);
+        sink.raise(1, "B", 1000);
+        sink.raise(1, "C", 2000);
+
+        assertFalse(tracker.isOpen(1, "A"));
+        assertTrue(tracker.isOpen(1, "B"));
+        assertTrue(tracker.isOpen(1, "C"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.RecordBatch;
+import com.metrics.LatencyHistogram;
+import com.metrics.LatencyMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluationSchedulerTest {
+    private final Queue<Runnable> queued = new ArrayDeque<>();
+    private final List<Integer> evaluated = new ArrayList<>();
+
+    @Test
+    void testBurstIsCoalescedIntoOneEvaluation() {
+        DataStorage storage = new DataStorage();
+        EvaluationScheduler scheduler = new EvaluationScheduler(evaluated::add, queued::add);
+        storage.addRecordListener(scheduler);
+
+        storage.addPatientData(1, 80.0, "HeartRate", 1000L);
+        storage.addPatientData(1, 81.0, "HeartRate", 2000L);
+        storage.addPatientData(2, 82.0, "HeartRate", 2000L);
+        storage.addPatientData(1, 83.0, "HeartRate", 3000L);
+        assertEquals(2, queued.size());
+
+        runQueued();
+        assertEquals(List.of(1, 2), evaluated);
+        assertEquals(2, scheduler.getEvaluationCount());
+        assertTrue(scheduler.getMaxLatencyMillis() >= scheduler.getAverageLatencyMillis());
+    }
+
+    @Test
+    void testReadingsDuringEvaluationScheduleOneMoreRun() {
+        DataStorage storage = new DataStorage();
+        EvaluationScheduler scheduler = new EvaluationScheduler(patientId -> {
+            evaluated.add(patientId);
+            if (evaluated.size() == 1) {
+                storage.addPatientData(patientId, 90.0, "HeartRate", 5000L);
+                storage.addPatientData(patientId, 91.0, "HeartRate", 6000L);
+            }
+        }, queued::add);
+        storage.addRecordListener(scheduler);
+
+        storage.addPatientData(3, 80.0, "HeartRate", 1000L);
+        runQueued();
+
+        assertEquals(List.of(3, 3), evaluated);
+        assertTrue(queued.isEmpty());
+    }
+
+    @Test
+    void testRemovedListenerIsNotNotified() {
+        DataStorage storage = new DataStorage();
+        EvaluationScheduler scheduler = new EvaluationScheduler(evaluated::add, queued::add);
+        storage.addRecordListener(scheduler);
+        storage.removeRecordListener(scheduler);
+
+        storage.addPatientData(1, 80.0, "HeartRate", 1000L);
+        assertTrue(queued.isEmpty());
+    }
+
+    @Test
+    void testRejectedTaskLeavesPatientIdle() {
+        DataStorage storage = new DataStorage();
+        boolean[] rejecting = {true};
+        EvaluationScheduler scheduler = new EvaluationScheduler(evaluated::add, task -> {
+            if (rejecting[0]) {
+                throw new RejectedExecutionException("shut down");
+            }
+            queued.add(task);
+        });
+        storage.addRecordListener(scheduler);
+
+        storage.addPatientData(5, 80.0, "HeartRate", 1000L);
+        assertTrue(queued.isEmpty());
+
+        rejecting[0] = false;
+        storage.addPatientData(5, 81.0, "HeartRate", 2000L);
+        assertEquals(1, queued.size());
+        runQueued();
+        assertEquals(List.of(5), evaluated);
+    }
+
+    @Test
+    void testAlertLatencyIsMeasuredFromReceipt() {
+        DataStorage storage = new DataStorage();
+        storage.addRecordListener(new EvaluationScheduler(new AlertGenerator(storage), queued::add));
+        LatencyHistogram ingestToAlert = LatencyMetrics.getInstance().histogram(LatencyMetrics.INGEST_TO_ALERT);
+        long alertsBefore = ingestToAlert.getCount();
+
+        RecordBatch batch = new RecordBatch(4);
+        batch.add(4, 85.0, "BloodSaturation", 1000L);
+        batch.stampReceived(0, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(50));
+        storage.addPatientData(batch);
+        runQueued();
+
+        assertEquals(alertsBefore + 1, ingestToAlert.getCount());
+        assertTrue(ingestToAlert.getMaxMillis() >= 50, ingestToAlert.toString());
+    }
+
+    private void runQueued() {
+        Runnable task;
+        while ((task = queued.poll()) != null) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.alerts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Collects the messages logged while a test runs an action, to check which alerts were raised.
+ */
+public final class LogCapture {
+
+    private LogCapture() {
+    }
+
+    /**
+     * Runs an action and returns the messages logged meanwhile by a logger or its children.
+     *
+     * @param loggerName the name of the logger, e.g., "com.alerts"
+     * @param action     the action to run
+     * @return the messages, in the order they were logged
+     */
+    public static List<String> capture(String loggerName, Runnable action) {
+        List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(loggerName);
+        logger.addHandler(handler);
+        try {
+            action.run();
+        } finally {
+            logger.removeHandler(handler);
+        }
+        return new ArrayList<>(messages);
+    }
+}
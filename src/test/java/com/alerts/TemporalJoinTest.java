@@ -0,0 +1,94 @@
+package com.alerts;
+
+import com.data_management.RecordSeries;
+import com.data_management.RetentionPolicy;
+import com.data_management.SeriesSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemporalJoinTest {
+
+    @Test
+    void testJoinMatchesWithinWindowOnly() {
+        RecordSeries pressure = new RecordSeries(1, "BloodPressureSystolic");
+        RecordSeries saturation = new RecordSeries(1, "BloodSaturation");
+        pressure.add(1000, 85);
+        pressure.add(200000, 85);
+        pressure.add(300000, 120);
+        saturation.add(60999, 90);
+        saturation.add(300000, 90);
+
+        List<Long> matches = new ArrayList<>();
+        TemporalJoin.join(pressure.snapshot(), v -> v < 90, saturation.snapshot(), v -> v < 92,
+                60000, Long.MIN_VALUE, matches::add);
+
+        assertEquals(List.of(1000L), matches);
+    }
+
+    @Test
+    void testJoinStartsOverWhenTheRingWrapsAround() {
+        RecordSeries pressure = new RecordSeries(1, "BloodPressureSystolic");
+        RecordSeries saturation = new RecordSeries(1, "BloodSaturation", RetentionPolicy.maxCount(12));
+        pressure.add(0, 80);
+        pressure.add(10000, 80);
+        saturation.add(0, 90);
+        for (int i = 1; i < 12; i++) {
+            saturation.add(i * 1000L, 99);
+        }
+
+        // Overwriting the oldest saturation readings while the join runs shifts their indices
+        List<Long> matches = new ArrayList<>();
+        TemporalJoin.join(pressure.snapshot(), v -> v < 90, saturation.snapshot(), v -> v < 92,
+                1500, Long.MIN_VALUE, timestamp -> {
+                    matches.add(timestamp);
+                    for (int i = 12; i < 17; i++) {
+                        saturation.add(i * 1000L, 99);
+                    }
+                });
+
+        assertEquals(List.of(0L), matches);
+    }
+
+    @Test
+    void testJoinAgreesWithPairwiseComparison() {
+        Random random = new Random(42);
+        RecordSeries left = new RecordSeries(1, "BloodPressureSystolic");
+        RecordSeries right = new RecordSeries(1, "BloodSaturation");
+        long time = 0;
+        for (int i = 0; i < 2000; i++) {
+            time += random.nextInt(40000);
+            if (random.nextBoolean()) {
+                left.add(time, 80 + random.nextInt(20));
+            } else {
+                right.add(time, 88 + random.nextInt(8));
+            }
+        }
+        SeriesSnapshot l = left.snapshot();
+        SeriesSnapshot r = right.snapshot();
+        long after = time / 2;
+
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < l.size(); i++) {
+            if (l.getValue(i) >= 90) {
+                continue;
+            }
+            for (int j = 0; j < r.size(); j++) {
+                if (r.getValue(j) < 92 && Math.abs(l.getTimestamp(i) - r.getTimestamp(j)) < 60000
+                        && Math.max(l.getTimestamp(i), r.getTimestamp(j)) > after) {
+                    expected.add(l.getTimestamp(i));
+                    break;
+                }
+            }
+        }
+        List<Long> actual = new ArrayList<>();
+        TemporalJoin.join(l, v -> v < 90, r, v -> v < 92, 60000, after, actual::add);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+}
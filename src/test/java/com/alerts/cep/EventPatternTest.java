@@ -0,0 +1,107 @@
+package com.alerts.cep;
+
+import com.alerts.AlertGenerator;
+import com.alerts.AlertStateTracker;
+import com.alerts.LogCapture;
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.strategy_pattern.AlertSink;
+import com.data_management.DataStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventPatternTest {
+    private final List<String> raised = new ArrayList<>();
+    private final AlertSink sink = (patientId, condition, timestamp) -> raised.add(condition + "@" + timestamp);
+    private final EventPattern pattern = new EventPattern("Cascade", "Test", AlertPriority.HIGH, List.of(
+            new PatternStep("Drop", 0),
+            new PatternStep("Trend", 300),
+            new PatternStep("Peak", 300)));
+
+    @Test
+    void testStepsMatchInOrder() {
+        EventPattern.State state = pattern.newState(1);
+        pattern.onRecord(state, "Trend", 0, Double.NaN, sink);
+        pattern.onRecord(state, "Drop", 100, Double.NaN, sink);
+        pattern.onRecord(state, "Peak", 150, Double.NaN, sink);
+        assertTrue(raised.isEmpty());
+
+        pattern.onRecord(state, "Trend", 200, Double.NaN, sink);
+        pattern.onRecord(state, "Peak", 450, Double.NaN, sink);
+        assertEquals(List.of("Cascade@450"), raised);
+    }
+
+    @Test
+    void testExpiredPartialMatchesAreEvicted() {
+        EventPattern.State state = pattern.newState(1);
+        pattern.onRecord(state, "Drop", 0, Double.NaN, sink);
+        pattern.onRecord(state, "Trend", 301, Double.NaN, sink);
+        pattern.onRecord(state, "Peak", 350, Double.NaN, sink);
+
+        assertTrue(raised.isEmpty());
+        assertEquals(0, state.getPartialMatchCount());
+        assertEquals(1, state.getEvictedCount());
+    }
+
+    @Test
+    void testLateEventDoesNotFollowNewerStep() {
+        EventPattern.State state = pattern.newState(1);
+        pattern.onRecord(state, "Drop", 100, Double.NaN, sink);
+        pattern.onRecord(state, "Trend", 50, Double.NaN, sink);
+        pattern.onRecord(state, "Peak", 150, Double.NaN, sink);
+        assertTrue(raised.isEmpty());
+
+        pattern.onRecord(state, "Trend", 120, Double.NaN, sink);
+        pattern.onRecord(state, "Peak", 160, Double.NaN, sink);
+        assertEquals(List.of("Cascade@160"), raised);
+    }
+
+    @Test
+    void testPartialMatchesStayBounded() {
+        EventPattern.State state = pattern.newState(1);
+        for (int i = 0; i < 10_000; i++) {
+            pattern.onRecord(state, i % 2 == 0 ? "Drop" : "Trend", i, Double.NaN, sink);
+            assertTrue(state.getPartialMatchCount() <= 2);
+        }
+        pattern.onRecord(state, "Peak", 10_000, Double.NaN, sink);
+        assertEquals(List.of("Cascade@10000"), raised);
+    }
+
+    @Test
+    void testStepValueCondition() {
+        EventPattern desaturation = new EventPattern("Desaturation", "Test", AlertPriority.NORMAL, List.of(
+                new PatternStep("BloodSaturation", value -> value < 90, 0),
+                new PatternStep("BloodSaturation", value -> value < 85, 1000)));
+        EventPattern.State state = desaturation.newState(1);
+        desaturation.onRecord(state, "BloodSaturation", 0, 95, sink);
+        desaturation.onRecord(state, "BloodSaturation", 100, 89, sink);
+        desaturation.onRecord(state, "BloodSaturation", 200, 84, sink);
+
+        // The 84 reading also starts a new partial match, but does not complete it by itself
+        assertEquals(List.of("Desaturation@200"), raised);
+        assertEquals(1, state.getPartialMatchCount());
+    }
+
+    @Test
+    void testDefaultRulesFollowRaisedConditions() {
+        DataStorage storage = new DataStorage();
+        storage.addPatientData(3, 99, "BloodSaturation", 0);
+        storage.addPatientData(3, 93, "BloodSaturation", 60_000);
+        storage.addPatientData(3, 100, "BloodPressureSystolic", 70_000);
+        storage.addPatientData(3, 115, "BloodPressureSystolic", 80_000);
+        storage.addPatientData(3, 130, "BloodPressureSystolic", 90_000);
+        for (int i = 1; i <= 10; i++) {
+            storage.addPatientData(3, 1.0, "ECG", 90_000 + i * 1000);
+        }
+        storage.addPatientData(3, 5.0, "ECG", 101_000);
+
+        List<String> messages = LogCapture.capture(AlertGenerator.class.getName(),
+                () -> new AlertGenerator(storage, new AlertStateTracker()).evaluateData(3));
+
+        assertTrue(messages.contains("Alert triggered: Patient 3, Condition: CardiorespiratoryDeterioration, "
+                + "Type: BloodOxygen, Timestamp: 101000"), messages.toString());
+    }
+}
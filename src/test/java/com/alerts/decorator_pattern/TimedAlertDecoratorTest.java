@@ -0,0 +1,129 @@
+package com.alerts.decorator_pattern;
+
+import com.alerts.LogCapture;
+import com.alerts.timer.HashedWheelTimer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimedAlertDecoratorTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final HashedWheelTimer timer = new HashedWheelTimer(1000, 64, clock::get);
+    private final CountingAlert alert = new CountingAlert();
+
+    @Test
+    void testRepeatsFollowIntervalUntilCount() {
+        RepeatedAlertDecorator repeated = new RepeatedAlertDecorator(alert, 3, 120_000, timer);
+        repeated.trigger();
+        assertEquals(1, alert.triggers);
+
+        advanceTo(119_000);
+        assertEquals(1, alert.triggers);
+        advanceTo(121_000);
+        assertEquals(2, alert.triggers);
+        advanceTo(600_000);
+        assertEquals(3, alert.triggers);
+    }
+
+    @Test
+    void testAcknowledgementCancelsRepeats() {
+        RepeatedAlertDecorator repeated = new RepeatedAlertDecorator(alert, 10, 120_000, timer);
+        repeated.trigger();
+        advanceTo(121_000);
+        repeated.acknowledge();
+        advanceTo(1_200_000);
+
+        assertEquals(2, alert.triggers);
+        assertTrue(repeated.isAcknowledged());
+    }
+
+    @Test
+    void testEscalationRaisesPriorityUntilAcknowledged() {
+        EscalatingAlertDecorator escalating = new EscalatingAlertDecorator(alert, timer, 120_000, 2, "High");
+        List<String> repeats = LogCapture.capture("com.alerts.decorator_pattern", () -> {
+            escalating.trigger();
+            advanceTo(250_000);
+        });
+        assertEquals(3, alert.triggers);
+        assertFalse(escalating.isEscalated());
+        assertFalse(repeats.stream().anyMatch(message -> message.contains("Priority: High")), repeats.toString());
+
+        List<String> escalation = LogCapture.capture("com.alerts.decorator_pattern", () -> advanceTo(370_000));
+        assertTrue(escalating.isEscalated());
+        assertTrue(escalation.stream().anyMatch(message -> message.startsWith("Escalated alert to priority High")),
+                escalation.toString());
+        assertTrue(escalation.stream().anyMatch(message -> message.contains("Priority: High")), escalation.toString());
+
+        escalating.acknowledge();
+        advanceTo(2_000_000);
+        assertEquals(4, alert.triggers);
+    }
+
+    @Test
+    void testOnlyFirstTriggerStartsTimedNotifications() {
+        RepeatedAlertDecorator repeatedAtOnce = new RepeatedAlertDecorator(alert, 3);
+        repeatedAtOnce.trigger();
+        repeatedAtOnce.trigger();
+        assertEquals(6, alert.triggers);
+
+        CountingAlert timed = new CountingAlert();
+        RepeatedAlertDecorator repeated = new RepeatedAlertDecorator(timed, 3, 120_000, timer);
+        repeated.trigger();
+        repeated.trigger();
+        advanceTo(600_000);
+        assertEquals(3, timed.triggers);
+
+        CountingAlert escalated = new CountingAlert();
+        EscalatingAlertDecorator escalating = new EscalatingAlertDecorator(escalated, timer, 120_000, 2, "High");
+        escalating.trigger();
+        advanceTo(730_000);
+        escalating.trigger();
+        assertEquals(2, escalated.triggers);
+        advanceTo(850_000);
+        assertEquals(3, escalated.triggers);
+        escalating.acknowledge();
+        advanceTo(2_000_000);
+        assertEquals(3, escalated.triggers);
+    }
+
+    private void advanceTo(long time) {
+        for (long t = clock.get(); t <= time; t += 1000) {
+            clock.set(t);
+            timer.expireDue();
+        }
+        clock.set(time);
+        timer.expireDue();
+    }
+
+    private static final class CountingAlert implements Alert {
+        private int triggers;
+
+        @Override
+        public String getPatientId() {
+            return "1";
+        }
+
+        @Override
+        public String getCondition() {
+            return "CriticalSystolic";
+        }
+
+        @Override
+        public long getTimestamp() {
+            return 1000L;
+        }
+
+        @Override
+        public String getAlertType() {
+            return "BloodPressure";
+        }
+
+        @Override
+        public void trigger() {
+            triggers++;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.alerts.dispatch;
+
+import com.alerts.decorator_pattern.Alert;
+import com.alerts.decorator_pattern.ConcreteAlert;
+import com.alerts.decorator_pattern.PriorityAlertDecorator;
+import com.alerts.decorator_pattern.RepeatedAlertDecorator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertDispatcherTest {
+
+    @Test
+    void testHighPriorityOvertakesQueuedAlerts() throws InterruptedException {
+        AlertDispatcher dispatcher = new AlertDispatcher(100, 10);
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        dispatcher.addHandler(batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                delivered.add(batch.getCondition(i));
+            }
+            firstBatchStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        dispatcher.start();
+
+        dispatcher.dispatch(alert("First"));
+        assertTrue(firstBatchStarted.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(alert("Low"), AlertPriority.LOW);
+        dispatcher.dispatch(alert("Normal"));
+        dispatcher.dispatch(new PriorityAlertDecorator(alert("High"), "High"));
+        assertEquals(1, dispatcher.getQueueDepth(AlertPriority.HIGH));
+        release.countDown();
+
+        assertTrue(dispatcher.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(List.of("First", "High", "Normal", "Low"), delivered);
+        assertEquals(4, dispatcher.getDispatchedCount());
+        assertTrue(dispatcher.getMaxLatencyMillis() >= dispatcher.getAverageLatencyMillis());
+    }
+
+    @Test
+    void testFullLaneDropsNewAlerts() throws InterruptedException {
+        AlertDispatcher dispatcher = new AlertDispatcher(2, 10);
+        List<Alert> delivered = Collections.synchronizedList(new ArrayList<>());
+        dispatcher.addHandler(batch -> delivered.addAll(batch.toAlerts()));
+
+        assertTrue(dispatcher.dispatch(alert("A")));
+        assertTrue(dispatcher.dispatch(alert("B")));
+        assertFalse(dispatcher.dispatch(alert("C")));
+        assertTrue(dispatcher.dispatch(alert("D"), AlertPriority.HIGH));
+        assertEquals(2, dispatcher.getQueueDepth(AlertPriority.NORMAL));
+        assertEquals(1, dispatcher.getDroppedCount(AlertPriority.NORMAL));
+        assertEquals(0, dispatcher.getDroppedCount(AlertPriority.HIGH));
+
+        dispatcher.start();
+        assertTrue(dispatcher.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(3, delivered.size());
+    }
+
+    @Test
+    void testResolutionsFollowTheirAlertInTheLane() throws InterruptedException {
+        AlertDispatcher dispatcher = new AlertDispatcher(10, 10);
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        dispatcher.addHandler(batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                delivered.add((batch.isResolution(i) ? "resolve " : "raise ") + batch.getCondition(i));
+            }
+        });
+        int code = AlertCodes.intern("BloodOxygen", "LowSaturation");
+        assertTrue(dispatcher.dispatch(3, code, 1000L, AlertPriority.NORMAL));
+        assertTrue(dispatcher.dispatchResolution(3, code, 2000L, AlertPriority.NORMAL));
+        dispatcher.start();
+
+        assertTrue(dispatcher.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(List.of("raise LowSaturation", "resolve LowSaturation"), delivered);
+    }
+
+    @Test
+    void testFailingHandlerDoesNotStopDelivery() throws InterruptedException {
+        AlertDispatcher dispatcher = new AlertDispatcher(10, 1);
+        List<Alert> delivered = Collections.synchronizedList(new ArrayList<>());
+        dispatcher.addHandler(batch -> {
+            throw new IllegalStateException("pager offline");
+        });
+        dispatcher.addHandler(batch -> delivered.addAll(batch.toAlerts()));
+        dispatcher.start();
+        dispatcher.dispatch(alert("A"));
+        dispatcher.dispatch(alert("B"));
+
+        assertTrue(dispatcher.shutdown(5, TimeUnit.SECONDS));
+        assertEquals(2, delivered.size());
+    }
+
+    @Test
+    void testPrimitiveEventsBuildAlertsOnRequest() throws InterruptedException {
+        AlertDispatcher dispatcher = new AlertDispatcher(10, 10);
+        List<Alert> delivered = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> patientIds = Collections.synchronizedList(new ArrayList<>());
+        dispatcher.addHandler(batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                patientIds.add(batch.getPatientId(i));
+            }
+            delivered.addAll(batch.toAlerts());
+        });
+        int lowSaturation = AlertCodes.intern("BloodOxygen", "LowSaturation");
+        assertEquals(lowSaturation, AlertCodes.intern("BloodOxygen", "LowSaturation"));
+        assertNotEquals(lowSaturation, AlertCodes.intern("BloodPressure", "LowSaturation"));
+
+        dispatcher.dispatch(42, lowSaturation, 5000L, AlertPriority.HIGH);
+        dispatcher.dispatch(43, lowSaturation, 6000L, AlertPriority.NORMAL);
+        dispatcher.start();
+        assertTrue(dispatcher.shutdown(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of(42, 43), patientIds);
+        Alert high = delivered.get(0);
+        assertEquals("42", high.getPatientId());
+        assertEquals("LowSaturation", high.getCondition());
+        assertEquals("BloodOxygen", high.getAlertType());
+        assertEquals(5000L, high.getTimestamp());
+        assertEquals(AlertPriority.HIGH, AlertPriority.of(high));
+        assertTrue(delivered.get(1) instanceof ConcreteAlert);
+    }
+
+    @Test
+    void testPriorityIsReadFromDecoratorChain() {
+        Alert alert = alert("CriticalSystolic");
+        assertEquals(AlertPriority.NORMAL, AlertPriority.of(alert));
+        assertEquals(AlertPriority.HIGH,
+                AlertPriority.of(new RepeatedAlertDecorator(new PriorityAlertDecorator(alert, "high"), 2)));
+        assertEquals(AlertPriority.LOW, AlertPriority.of(new PriorityAlertDecorator(alert, "LOW")));
+        assertEquals(AlertPriority.NORMAL, AlertPriority.of(new PriorityAlertDecorator(alert, "urgent")));
+    }
+
+    private static Alert alert(String condition) {
+        return new ConcreteAlert("1", condition, 1000L, "BloodPressure");
+    }
+}
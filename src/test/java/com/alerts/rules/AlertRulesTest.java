@@ -0,0 +1,405 @@
+package com.alerts.rules;
+
+import com.alerts.AlertGenerator;
+import com.alerts.AlertStateTracker;
+import com.alerts.LogCapture;
+import com.alerts.dispatch.AlertPriority;
+import com.alerts.strategy_pattern.AlertSink;
+import com.data_management.DataStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlertRulesTest {
+    private final List<String> alerts = new ArrayList<>();
+    private final AlertSink sink = new AlertSink() {
+        @Override
+        public void raise(int patientId, String condition, long timestamp) {
+            alerts.add(condition + "@" + timestamp);
+        }
+
+        @Override
+        public void resolve(int patientId, String condition, long timestamp) {
+            alerts.add("resolved " + condition + "@" + timestamp);
+        }
+    };
+
+    @Test
+    void testDefaultRules() {
+        RuleSet rules = AlertRules.loadDefault();
+        assertEquals(6, rules.getRules().size());
+        assertEquals(1, rules.getCrossSignalRules().size());
+        assertEquals("HypotensiveHypoxemia", rules.getCrossSignalRules().get(0).getCondition());
+        assertEquals(AlertPriority.HIGH, rules.getCrossSignalRules().get(0).getPriority());
+
+        int[] systolicRules = rules.rulesFor("BloodPressureSystolic");
+        assertEquals(2, systolicRules.length);
+        assertEquals("BloodPressureTrend", rules.getRules().get(systolicRules[0]).getCondition());
+        assertEquals("CriticalSystolic", rules.getRules().get(systolicRules[1]).getCondition());
+        assertEquals(0, rules.rulesFor("Cholesterol").length);
+
+        assertEquals(1, rules.getPatterns().size());
+        assertEquals(1, rules.patternsFor("ECGPeak").length);
+        assertEquals(0, rules.patternsFor("ECG").length);
+    }
+
+    @Test
+    void testPatternStepsWithLimits() {
+        RuleSet rules = parse("rules=Desaturation\n"
+                + "rule.Desaturation.type=pattern\n"
+                + "rule.Desaturation.steps=BloodSaturation<90, BloodSaturation<85\n"
+                + "rule.Desaturation.withinMillis=1000\n"
+                + "rule.Desaturation.alertType=BloodOxygen\n");
+        assertEquals(List.of("BloodSaturation", "BloodSaturation"), rules.getPatterns().get(0).getEventTypes());
+
+        assertThrows(IllegalArgumentException.class, () -> parse("rules=Bad\n"
+                + "rule.Bad.type=pattern\n"
+                + "rule.Bad.steps=BloodSaturation<low\n"
+                + "rule.Bad.withinMillis=1000\n"
+                + "rule.Bad.alertType=BloodOxygen\n"));
+
+        IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class, () -> parse("rules=Typo\n"
+                + "rule.Typo.type=pattern\n"
+                + "rule.Typo.steps=BloodSaturation<90, BloodSaturaton<85\n"
+                + "rule.Typo.withinMillis=1000\n"
+                + "rule.Typo.alertType=BloodOxygen\n"));
+        assertTrue(unknown.getMessage().startsWith("Rule Typo: invalid value for property steps"));
+
+        IllegalArgumentException condition = assertThrows(IllegalArgumentException.class, () -> parse(
+                "rules=Low,Repeated\n"
+                        + "rule.Low.type=threshold\n"
+                        + "rule.Low.signals=BloodSaturation\n"
+                        + "rule.Low.below=92\n"
+                        + "rule.Low.alertType=BloodOxygen\n"
+                        + "rule.Repeated.type=pattern\n"
+                        + "rule.Repeated.steps=Low<90, Low\n"
+                        + "rule.Repeated.withinMillis=1000\n"
+                        + "rule.Repeated.alertType=BloodOxygen\n"));
+        assertTrue(condition.getMessage().startsWith("Rule Repeated: invalid value for property steps"));
+
+        IllegalArgumentException pattern = assertThrows(IllegalArgumentException.class, () -> parse(
+                "rules=Desaturation,Nested\n"
+                        + "rule.Desaturation.type=pattern\n"
+                        + "rule.Desaturation.steps=BloodSaturation<90, BloodSaturation<85\n"
+                        + "rule.Desaturation.withinMillis=1000\n"
+                        + "rule.Desaturation.alertType=BloodOxygen\n"
+                        + "rule.Nested.type=pattern\n"
+                        + "rule.Nested.steps=Desaturation, HeartRate>120\n"
+                        + "rule.Nested.withinMillis=1000\n"
+                        + "rule.Nested.alertType=BloodOxygen\n"));
+        assertTrue(pattern.getMessage().startsWith("Rule Nested: invalid value for property steps"));
+    }
+
+    @Test
+    void testPatternFollowsCrossSignalConditions() {
+        DataStorage storage = new DataStorage();
+        AlertGenerator generator = new AlertGenerator(storage, new AlertStateTracker());
+        generator.updateRules(parse("rules=Shock,Tachycardic\n"
+                + "rule.Shock.type=crossSignal\n"
+                + "rule.Shock.left=BloodPressureSystolic\n"
+                + "rule.Shock.leftBelow=90\n"
+                + "rule.Shock.right=BloodSaturation\n"
+                + "rule.Shock.rightBelow=92\n"
+                + "rule.Shock.windowMillis=60000\n"
+                + "rule.Shock.alertType=BloodPressure\n"
+                + "rule.Tachycardic.type=pattern\n"
+                + "rule.Tachycardic.steps=Shock,HeartRate>120\n"
+                + "rule.Tachycardic.withinMillis=60000\n"
+                + "rule.Tachycardic.alertType=BloodPressure\n"));
+        List<String> messages = logged(() -> {
+            storage.addPatientData(7, 80, "BloodPressureSystolic", 1000);
+            storage.addPatientData(7, 90, "BloodSaturation", 2000);
+            generator.evaluateData(7);
+            storage.addPatientData(7, 130, "HeartRate", 3000);
+            generator.evaluateData(7);
+        });
+
+        assertTrue(messages.contains("Alert triggered: Patient 7, Condition: Tachycardic, Type: BloodPressure, "
+                + "Timestamp: 3000"), messages.toString());
+    }
+
+    @Test
+    void testPatternSeesCrossSignalConditionsInTimestampOrder() {
+        DataStorage storage = new DataStorage();
+        AlertGenerator generator = new AlertGenerator(storage, new AlertStateTracker());
+        generator.updateRules(parse("rules=Shock,Tachycardic\n"
+                + "rule.Shock.type=crossSignal\n"
+                + "rule.Shock.left=BloodPressureSystolic\n"
+                + "rule.Shock.leftBelow=90\n"
+                + "rule.Shock.right=BloodSaturation\n"
+                + "rule.Shock.rightBelow=92\n"
+                + "rule.Shock.windowMillis=60000\n"
+                + "rule.Shock.alertType=BloodPressure\n"
+                + "rule.Tachycardic.type=pattern\n"
+                + "rule.Tachycardic.steps=Shock,HeartRate>120\n"
+                + "rule.Tachycardic.withinMillis=60000\n"
+                + "rule.Tachycardic.alertType=BloodPressure\n"));
+        // The cross-signal rule raises Shock at 2000 after the readings, including the one at 3000, are streamed
+        List<String> messages = logged(() -> {
+            storage.addPatientData(8, 80, "BloodPressureSystolic", 1000);
+            storage.addPatientData(8, 90, "BloodSaturation", 2000);
+            storage.addPatientData(8, 130, "HeartRate", 3000);
+            generator.evaluateData(8);
+        });
+
+        assertTrue(messages.contains("Alert triggered: Patient 8, Condition: Tachycardic, Type: BloodPressure, "
+                + "Timestamp: 3000"), messages.toString());
+    }
+
+    @Test
+    void testThresholdRaisesAndResolves() {
+        RuleSet rules = parse("rules=HighHeartRate\n"
+                + "rule.HighHeartRate.type=threshold\n"
+                + "rule.HighHeartRate.signals=HeartRate\n"
+                + "rule.HighHeartRate.above=120\n"
+                + "rule.HighHeartRate.alertType=ECG\n");
+        feed(rules.getRules().get(0), "HeartRate", 80, 130, 90);
+
+        assertEquals(List.of("resolved HighHeartRate@0", "HighHeartRate@1000", "resolved HighHeartRate@2000"), alerts);
+        assertEquals(AlertPriority.NORMAL, rules.getRules().get(0).getPriority());
+    }
+
+    @Test
+    void testTrendPerSignal() {
+        RuleSet rules = parse("rules=Falling\n"
+                + "rule.Falling.type=trend\n"
+                + "rule.Falling.signals=A,B\n"
+                + "rule.Falling.step=5\n"
+                + "rule.Falling.readings=3\n"
+                + "rule.Falling.alertType=Test\n");
+        CompiledRule<?> rule = rules.getRules().get(0);
+        Object state = rule.newState(1);
+        push(rule, state, "A", 0, 100);
+        push(rule, state, "B", 1, 10);
+        push(rule, state, "A", 2, 90);
+        push(rule, state, "B", 3, 11);
+        push(rule, state, "A", 4, 80);
+
+        assertEquals(List.of("Falling@4"), alerts);
+    }
+
+    @Test
+    void testRateOfChangeRise() {
+        RuleSet rules = parse("rules=RapidRise\n"
+                + "rule.RapidRise.type=rateOfChange\n"
+                + "rule.RapidRise.signals=HeartRate\n"
+                + "rule.RapidRise.rise=30\n"
+                + "rule.RapidRise.windowMillis=1500\n"
+                + "rule.RapidRise.alertType=ECG\n");
+        // 60 to 100 within the window rises by 40; 60 to 95 later is outside it
+        feed(rules.getRules().get(0), "HeartRate", 60, 100, 90, 95);
+
+        assertEquals(List.of("RapidRise@1000"), alerts);
+    }
+
+    @Test
+    void testOrderedRulesSkipLateReadings() {
+        CompiledRule<?> drop = AlertRules.loadDefault().getRules().get(4);
+        assertEquals("RapidDropSaturation", drop.getCondition());
+        Object dropState = drop.newState(1);
+        push(drop, dropState, "BloodSaturation", 0, 98);
+        push(drop, dropState, "BloodSaturation", 300000, 97);
+        push(drop, dropState, "BloodSaturation", -540000, 99);
+        push(drop, dropState, "BloodSaturation", 360000, 92);
+
+        RuleSet rules = parse("rules=Falling\n"
+                + "rule.Falling.type=trend\n"
+                + "rule.Falling.signals=A\n"
+                + "rule.Falling.step=5\n"
+                + "rule.Falling.readings=3\n"
+                + "rule.Falling.alertType=Test\n");
+        CompiledRule<?> trend = rules.getRules().get(0);
+        Object trendState = trend.newState(1);
+        push(trend, trendState, "A", 1000, 100);
+        push(trend, trendState, "A", 500, 90);
+        push(trend, trendState, "A", 2000, 80);
+
+        // The late 99 neither empties the drop window nor counts as a step of the trend
+        assertEquals(List.of("RapidDropSaturation@360000"), alerts);
+    }
+
+    @Test
+    void testWindowAggregateMatchesEcgPeak() {
+        CompiledRule<?> rule = AlertRules.loadDefault().getRules().get(5);
+        assertEquals("ECGPeak", rule.getCondition());
+        feed(rule, "ECG", 1, 1, 1, 1, 1, 1, 1, 1, 1, 5, 9);
+
+        assertEquals(List.of("ECGPeak@10000"), alerts);
+    }
+
+    @Test
+    void testInvalidDefinitionsAreRejected() {
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class, () -> parse(
+                "rules=Low\nrule.Low.type=threshold\nrule.Low.signals=A\nrule.Low.below=1\n"));
+        assertEquals("Rule Low: missing property alertType", missing.getMessage());
+
+        IllegalArgumentException type = assertThrows(IllegalArgumentException.class, () -> parse(
+                "rules=Low\nrule.Low.type=median\n"));
+        assertTrue(type.getMessage().startsWith("Rule Low: invalid value for property type"));
+
+        assertThrows(IllegalArgumentException.class, () -> parse(
+                "rules=Peak\nrule.Peak.type=windowAggregate\nrule.Peak.signals=ECG\n"
+                        + "rule.Peak.window=ten\nrule.Peak.factor=2\nrule.Peak.alertType=ECG\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse(
+                "rules=Low\nrule.Low.type=threshold\nrule.Low.signals=A\nrule.Low.below=1\n"
+                        + "rule.Low.alertType=Test\nrule.Low.priority=urgent\n"));
+
+        IllegalArgumentException limits = assertThrows(IllegalArgumentException.class, () -> parse(
+                "rules=Low\nrule.Low.type=threshold\nrule.Low.signals=A\nrule.Low.alertType=Test\n"));
+        assertEquals("Rule Low: missing property above or below", limits.getMessage());
+
+        IllegalArgumentException window = assertThrows(IllegalArgumentException.class, () -> parse(
+                "rules=Peak\nrule.Peak.type=windowAggregate\nrule.Peak.signals=ECG\n"
+                        + "rule.Peak.window=2.5\nrule.Peak.factor=2\nrule.Peak.alertType=ECG\n"));
+        assertEquals("Rule Peak: invalid value for property window: 2.5", window.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> parse(
+                "rules=Rising\nrule.Rising.type=trend\nrule.Rising.signals=A\nrule.Rising.step=10\n"
+                        + "rule.Rising.readings=3.7\nrule.Rising.alertType=Test\n"));
+
+        IllegalArgumentException duplicate = assertThrows(IllegalArgumentException.class, () -> parse(
+                "rules=Low,Low\nrule.Low.type=threshold\nrule.Low.signals=A\nrule.Low.below=1\n"
+                        + "rule.Low.alertType=Test\n"));
+        assertEquals("Rule Low: listed twice in rules", duplicate.getMessage());
+    }
+
+    @Test
+    void testChangesMustBePositive() {
+        String rapid = "rules=Rapid\nrule.Rapid.type=rateOfChange\nrule.Rapid.signals=HeartRate\n"
+                + "rule.Rapid.windowMillis=1000\nrule.Rapid.alertType=ECG\n";
+        IllegalArgumentException both = assertThrows(IllegalArgumentException.class, () -> parse(
+                rapid + "rule.Rapid.rise=30\nrule.Rapid.drop=30\n"));
+        assertEquals("Rule Rapid: both properties rise and drop", both.getMessage());
+        IllegalArgumentException neither = assertThrows(IllegalArgumentException.class, () -> parse(rapid));
+        assertEquals("Rule Rapid: missing property drop or rise", neither.getMessage());
+        for (String change : new String[]{"0", "-5", "NaN", "Infinity"}) {
+            IllegalArgumentException invalid = assertThrows(IllegalArgumentException.class, () -> parse(
+                    rapid + "rule.Rapid.rise=" + change + "\n"));
+            assertEquals("Rule Rapid: invalid value for property rise: " + change, invalid.getMessage());
+            assertThrows(IllegalArgumentException.class, () -> parse(rapid + "rule.Rapid.drop=" + change + "\n"));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> parse(
+                "rules=Rising\nrule.Rising.type=trend\nrule.Rising.signals=A\nrule.Rising.step=0\n"
+                        + "rule.Rising.readings=3\nrule.Rising.alertType=Test\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse(
+                "rules=Peak\nrule.Peak.type=windowAggregate\nrule.Peak.signals=ECG\n"
+                        + "rule.Peak.window=10\nrule.Peak.factor=-2\nrule.Peak.alertType=ECG\n"));
+    }
+
+    @Test
+    void testWatcherReloadsAndKeepsRulesOnError(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("rules.properties");
+        Files.writeString(file, "rules=\n");
+        AtomicReference<RuleSet> current = new AtomicReference<>();
+        RuleFileWatcher watcher = new RuleFileWatcher(file, current::set);
+        assertFalse(watcher.checkForChanges());
+
+        Files.writeString(file, "rules=Low\nrule.Low.type=threshold\nrule.Low.signals=A\n"
+                + "rule.Low.below=1\nrule.Low.alertType=Test\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        assertTrue(watcher.checkForChanges());
+        RuleSet loaded = current.get();
+        assertEquals("Low", loaded.getRules().get(0).getCondition());
+
+        Files.writeString(file, "rules=Low\nrule.Low.type=threshold\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 20_000));
+        assertFalse(watcher.checkForChanges());
+        assertSame(loaded, current.get());
+    }
+
+    @Test
+    void testGeneratorSwapsRulesForNewReadings() {
+        DataStorage storage = new DataStorage();
+        AlertGenerator generator = new AlertGenerator(storage, new AlertStateTracker());
+        List<String> before = logged(() -> {
+            storage.addPatientData(7, 170, "BloodPressureSystolic", 1000);
+            generator.evaluateData(7);
+        });
+        assertTrue(before.isEmpty());
+
+        List<String> messages = logged(() -> {
+            generator.updateRules(parse("rules=Systolic\n"
+                    + "rule.Systolic.type=threshold\n"
+                    + "rule.Systolic.signals=BloodPressureSystolic\n"
+                    + "rule.Systolic.above=160\n"
+                    + "rule.Systolic.alertType=BloodPressure\n"));
+            storage.addPatientData(7, 165, "BloodPressureSystolic", 2000);
+            generator.evaluateData(7);
+        });
+
+        // The reading seen under the old rules is not evaluated again
+        assertEquals(List.of("Alert triggered: Patient 7, Condition: Systolic, Type: BloodPressure, Timestamp: 2000"),
+                messages);
+    }
+
+    @Test
+    void testReloadKeepsStateOfUnchangedRules() {
+        String rise = "rule.Rise.type=trend\n"
+                + "rule.Rise.signals=HeartRate\n"
+                + "rule.Rise.readings=3\n"
+                + "rule.Rise.alertType=HeartRate\n";
+        DataStorage storage = new DataStorage();
+        AlertGenerator generator = new AlertGenerator(storage, new AlertStateTracker());
+        generator.updateRules(parse("rules=Rise\n" + rise + "rule.Rise.step=10\n"));
+        List<String> messages = logged(() -> {
+            for (int patientId = 7; patientId <= 8; patientId++) {
+                storage.addPatientData(patientId, 60, "HeartRate", 1000);
+                storage.addPatientData(patientId, 75, "HeartRate", 2000);
+                generator.evaluateData(patientId);
+            }
+
+            generator.updateRules(parse("rules=Rise,Low\n" + rise + "rule.Rise.step=10\n"
+                    + "rule.Low.type=threshold\n"
+                    + "rule.Low.signals=HeartRate\n"
+                    + "rule.Low.below=40\n"
+                    + "rule.Low.alertType=HeartRate\n"));
+            storage.addPatientData(7, 90, "HeartRate", 3000);
+            generator.evaluateData(7);
+
+            generator.updateRules(parse("rules=Rise\n" + rise + "rule.Rise.step=5\n"));
+            storage.addPatientData(8, 90, "HeartRate", 3000);
+            generator.evaluateData(8);
+        });
+
+        // Patient 7 kept the trend across the added rule; patient 8's changed rule started over
+        assertEquals(List.of("Alert triggered: Patient 7, Condition: Rise, Type: HeartRate, Timestamp: 3000"),
+                messages);
+    }
+
+    private static List<String> logged(Runnable action) {
+        return LogCapture.capture(AlertGenerator.class.getName(), action);
+    }
+
+    private void feed(CompiledRule<?> rule, String recordType, double... values) {
+        Object state = rule.newState(1);
+        for (int i = 0; i < values.length; i++) {
+            push(rule, state, recordType, i * 1000L, values[i]);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S> void push(CompiledRule<S> rule, Object state, String recordType, long timestamp, double value) {
+        rule.onRecord((S) state, recordType, timestamp, value, sink);
+    }
+
+    private static RuleSet parse(String definitions) {
+        Properties properties = new Properties();
+        try {
+            properties.load(new StringReader(definitions));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return AlertRules.parse(properties);
+    }
+}
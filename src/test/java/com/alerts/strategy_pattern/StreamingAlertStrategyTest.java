@@ -0,0 +1,84 @@
+package com.alerts.strategy_pattern;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingAlertStrategyTest {
+    private final List<String> raised = new ArrayList<>();
+    private final AlertSink sink = (patientId, condition, timestamp) ->
+            raised.add(patientId + ":" + condition + "@" + timestamp);
+
+    @Test
+    void testBloodPressureTrendKeptPerType() {
+        BloodPressureStrategy strategy = new BloodPressureStrategy();
+        BloodPressureStrategy.State state = strategy.newState(1);
+        // Interleaved diastolic readings must not break the systolic trend
+        strategy.onRecord(state, "BloodPressureSystolic", 1000, 130, sink);
+        strategy.onRecord(state, "BloodPressureDiastolic", 1001, 80, sink);
+        strategy.onRecord(state, "BloodPressureSystolic", 2000, 141, sink);
+        strategy.onRecord(state, "BloodPressureDiastolic", 2001, 81, sink);
+        strategy.onRecord(state, "BloodPressureSystolic", 3000, 152, sink);
+
+        assertEquals(List.of("1:BloodPressureTrend@3000"), raised);
+    }
+
+    @Test
+    void testRapidDropUsesTenMinuteWindow() {
+        OxygenSaturationStrategy strategy = new OxygenSaturationStrategy();
+        OxygenSaturationStrategy.State state = strategy.newState(2);
+        strategy.onRecord(state, "BloodSaturation", 0, 99, sink);
+        strategy.onRecord(state, "BloodSaturation", 60000, 97, sink);
+        strategy.onRecord(state, "BloodSaturation", 120000, 94, sink);
+        // The 99 reading has left the window, so a drop to 93 from 97 is not rapid
+        strategy.onRecord(state, "BloodSaturation", 660001, 93, sink);
+
+        assertEquals(List.of("2:RapidDropSaturation@120000"), raised);
+    }
+
+    @Test
+    void testEcgPeakNeedsFullWindow() {
+        HeartRateStrategy strategy = new HeartRateStrategy();
+        HeartRateStrategy.State state = strategy.newState(3);
+        for (int i = 0; i < 9; i++) {
+            strategy.onRecord(state, "ECG", i, 1.0, sink);
+        }
+        strategy.onRecord(state, "ECG", 9, 5.0, sink);
+        assertTrue(raised.isEmpty());
+
+        strategy.onRecord(state, "ECG", 10, 9.0, sink);
+        assertEquals(1, raised.size());
+        assertTrue(raised.get(0).startsWith("3:"));
+        assertTrue(raised.get(0).endsWith("@10"));
+    }
+
+    @Test
+    void testSlidingWindowAverage() {
+        SlidingWindow window = new SlidingWindow(3);
+        window.add(1);
+        window.add(2);
+        assertFalse(window.isFull());
+        assertEquals(1.5, window.average(), 1e-9);
+        window.add(3);
+        window.add(10);
+        assertTrue(window.isFull());
+        assertEquals(5.0, window.average(), 1e-9);
+    }
+
+    @Test
+    void testTimeWindowMaxExpiresOldValues() {
+        TimeWindowMax windowMax = new TimeWindowMax(100);
+        for (int i = 0; i < 40; i++) {
+            windowMax.advanceTo(i);
+            windowMax.add(i, 40 - i);
+        }
+        assertEquals(40.0, windowMax.max(), 1e-9);
+        windowMax.advanceTo(120);
+        assertEquals(20.0, windowMax.max(), 1e-9);
+        windowMax.advanceTo(1000);
+        assertTrue(windowMax.isEmpty());
+    }
+}
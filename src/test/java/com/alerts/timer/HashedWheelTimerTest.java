@@ -0,0 +1,96 @@
+package com.alerts.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedWheelTimerTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final HashedWheelTimer timer = new HashedWheelTimer(10, 8, clock::get);
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void testTimeoutsFireInOrderAcrossRounds() {
+        timer.schedule(() -> fired.add("b"), 250);
+        timer.schedule(() -> fired.add("a"), 25);
+        timer.schedule(() -> fired.add("c"), 900);
+
+        advanceTo(20);
+        assertTrue(fired.isEmpty());
+        advanceTo(30);
+        assertEquals(List.of("a"), fired);
+        advanceTo(249);
+        assertEquals(List.of("a"), fired);
+        advanceTo(260);
+        assertEquals(List.of("a", "b"), fired);
+        advanceTo(1000);
+        assertEquals(List.of("a", "b", "c"), fired);
+    }
+
+    @Test
+    void testCancelledTimeoutDoesNotFire() {
+        HashedWheelTimer.Timeout timeout = timer.schedule(() -> fired.add("cancelled"), 50);
+        timer.schedule(() -> fired.add("kept"), 50);
+        advanceTo(20);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        advanceTo(100);
+
+        assertEquals(List.of("kept"), fired);
+        assertTrue(timeout.isCancelled());
+    }
+
+    @Test
+    void testTaskCanRescheduleItself() {
+        Runnable[] repeat = new Runnable[1];
+        repeat[0] = () -> {
+            fired.add("tick@" + clock.get());
+            if (fired.size() < 3) {
+                timer.schedule(repeat[0], 100);
+            }
+        };
+        timer.schedule(repeat[0], 100);
+        for (long time = 0; time <= 1000; time += 10) {
+            advanceTo(time);
+        }
+        assertEquals(List.of("tick@110", "tick@220", "tick@330"), fired);
+    }
+
+    @Test
+    void testManyTimeouts() {
+        int[] count = new int[1];
+        List<HashedWheelTimer.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            timeouts.add(timer.schedule(() -> count[0]++, i % 5000));
+        }
+        for (int i = 0; i < timeouts.size(); i += 2) {
+            timeouts.get(i).cancel();
+        }
+        advanceTo(6000);
+        assertEquals(50_000, count[0]);
+    }
+
+    @Test
+    void testWorkerThreadFiresTimeouts() throws InterruptedException {
+        HashedWheelTimer realTimer = new HashedWheelTimer(5, 64);
+        CountDownLatch latch = new CountDownLatch(1);
+        realTimer.start();
+        try {
+            realTimer.schedule(latch::countDown, 20);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            realTimer.stop();
+        }
+    }
+
+    private void advanceTo(long time) {
+        clock.set(time);
+        timer.expireDue();
+    }
+}
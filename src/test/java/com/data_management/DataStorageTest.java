@@ -2,7 +2,9 @@ package com.data_management;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,4 +35,67 @@ class DataStorageTest {
         assertTrue(records.isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    void testConcurrentIngestKeepsAllRecords() throws InterruptedException {
+        DataStorage storage = new DataStorage();
+        int threadCount = 4;
+        int readingsPerThread = 5000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < readingsPerThread; i++) {
+                    storage.addPatientData(i % 10, i, "ECG", i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        int total = 0;
+        for (Patient patient : storage.getAllPatients()) {
+            total += storage.getRecords(patient.getPatientId(), 0L, Long.MAX_VALUE).size();
+        }
+        assertEquals(10, storage.getAllPatients().size());
+        assertEquals(threadCount * readingsPerThread, total);
+    }
+
+    @Test
+    void testAddBatchGroupsByPatientInOrder() {
+        DataStorage storage = new DataStorage();
+        List<String> notified = new ArrayList<>();
+        storage.addRecordListener((patientId, recordType, timestamp) -> notified.add(patientId + "@" + timestamp));
+        RecordBatch batch = new RecordBatch(2);
+        batch.add(1, 80.0, "HeartRate", 1000);
+        batch.add(2, 97.0, "BloodSaturation", 1000);
+        batch.add(1, 120.0, "BloodPressureSystolic", 1500);
+        batch.add(1, 81.0, "HeartRate", 2000);
+        batch.add(-3, 0.5, "ECG", 3000);
+
+        storage.addPatientData(batch);
+
+        List<PatientRecord> first = storage.getRecords(1, 0, Long.MAX_VALUE);
+        assertEquals(3, first.size());
+        assertEquals(80.0, first.get(0).getMeasurementValue());
+        assertEquals(120.0, first.get(1).getMeasurementValue());
+        assertEquals(81.0, first.get(2).getMeasurementValue());
+        assertEquals(1, storage.getRecords(2, 0, Long.MAX_VALUE).size());
+        assertEquals(1, storage.getRecords(-3, 0, Long.MAX_VALUE).size());
+        assertEquals(2000, storage.getSnapshot(1).getWatermark());
+        assertEquals(List.of("1@1000", "2@1000", "1@1500", "1@2000", "-3@3000"), notified);
+
+        batch.clear();
+        assertTrue(batch.isEmpty());
+        batch.add(2, 96.0, "BloodSaturation", 2000);
+        storage.addPatientData(batch);
+        assertEquals(2, storage.getRecords(2, 0, Long.MAX_VALUE).size());
+    }
+}
@@ -0,0 +1,177 @@
+package com.data_management;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestQueueTest {
+
+    @Test
+    void testRingKeepsEveryMessageOnceAcrossThreads() throws InterruptedException {
+        MessageRing ring = new MessageRing(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(producer + ":" + i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        int[] lastSeen = new int[producers];
+        Arrays.fill(lastSeen, -1);
+        int received = 0;
+        threads.forEach(Thread::start);
+        while (received < producers * perProducer) {
+            Object polled = ring.poll();
+            if (polled == null) {
+                Thread.yield();
+                continue;
+            }
+            String message = polled.toString();
+            int separator = message.indexOf(':');
+            int producer = Integer.parseInt(message.substring(0, separator));
+            int sequence = Integer.parseInt(message.substring(separator + 1));
+            assertEquals(lastSeen[producer] + 1, sequence, "Messages of a producer must stay in order");
+            lastSeen[producer] = sequence;
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(ring.poll());
+        assertEquals(0, ring.size());
+    }
+
+    @Test
+    void testDropOldestKeepsNewestMessages() throws InterruptedException {
+        IngestQueue queue = new IngestQueue(4, OverflowPolicy.DROP_OLDEST);
+        for (int i = 0; i < 6; i++) {
+            assertTrue(queue.offer("m" + i, false));
+        }
+        assertEquals(4, queue.size());
+        assertEquals(2, queue.getDroppedCount());
+        assertEquals("m2", queue.poll());
+    }
+
+    @Test
+    void testDropByPriorityEvictsLowPriorityFirst() throws InterruptedException {
+        IngestQueue queue = new IngestQueue(4, OverflowPolicy.DROP_BY_PRIORITY);
+        queue.offer("ecg1", true);
+        queue.offer("bp1", false);
+        queue.offer("ecg2", true);
+        queue.offer("bp2", false);
+
+        assertFalse(queue.offer("ecg3", true), "A low-priority message is dropped when full");
+        assertTrue(queue.offer("bp3", false), "A high-priority message replaces a low-priority one");
+        assertEquals("bp1", queue.poll());
+        assertTrue(queue.offer("ecg4", true));
+        assertTrue(queue.offer("bp4", false));
+
+        assertEquals(3, queue.getDroppedCount());
+        assertEquals(3, queue.getDroppedLowPriorityCount());
+        assertEquals(List.of("bp2", "bp3", "ecg4", "bp4"), drain(queue), "The rest keeps its arrival order");
+
+        for (int i = 0; i < 4; i++) {
+            queue.offer("hr" + i, false);
+        }
+        assertFalse(queue.offer("hr4", false), "Without low-priority messages, the new message is dropped");
+        assertEquals(4, queue.getDroppedCount());
+    }
+
+    @Test
+    void testDropByPriorityKeepsArrivalOrderUnderLoad() throws InterruptedException {
+        IngestQueue queue = new IngestQueue(64, OverflowPolicy.DROP_BY_PRIORITY);
+        int total = 200_000;
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < total; i++) {
+                    queue.offer(i, i % 3 != 0);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        int last = -1;
+        int received = 0;
+        while (producer.isAlive() || queue.size() > 0) {
+            Object message = queue.poll();
+            if (message == null) {
+                Thread.yield();
+                continue;
+            }
+            int sequence = (Integer) message;
+            assertTrue(sequence > last, "Messages must stay in arrival order");
+            last = sequence;
+            received++;
+        }
+        producer.join();
+        assertNull(queue.poll());
+        assertEquals(total, received + queue.getDroppedCount());
+    }
+
+    @Test
+    void testReceiveTimeTravelsWithMessage() throws InterruptedException {
+        IngestQueue queue = new IngestQueue(4, OverflowPolicy.DROP_BY_PRIORITY);
+        queue.offer("1,1000,ECG,0.5", 10L, true);
+        queue.offer("1,2000,HeartRate,80", 20L, false);
+
+        long[] received = new long[1];
+        assertEquals("1,1000,ECG,0.5", queue.poll(received));
+        assertEquals(10L, received[0]);
+        assertEquals("1,2000,HeartRate,80", queue.poll(received));
+        assertEquals(20L, received[0]);
+        assertNull(queue.poll(received));
+    }
+
+    @Test
+    void testBlockWaitsForConsumer() throws Exception {
+        IngestQueue queue = new IngestQueue(2, OverflowPolicy.BLOCK);
+        queue.offer("m0", false);
+        queue.offer("m1", false);
+        Thread producer = new Thread(() -> {
+            try {
+                queue.offer("m2", false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive(), "The producer must wait while the queue is full");
+
+        assertEquals("m0", queue.poll());
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        assertEquals(0, queue.getDroppedCount());
+        assertEquals("m1", queue.poll());
+        assertEquals("m2", queue.poll());
+    }
+
+    @Test
+    void testRoutesAndClassifiesMessages() {
+        assertEquals(WebSocketClient.workerOf("17,1000,ECG,0.5", 4), WebSocketClient.workerOf("17,2000,HeartRate,70", 4));
+        String[] lowPriority = {"ECG"};
+        assertTrue(WebSocketClient.isLowPriority("1,1000,ECG,0.5", lowPriority));
+        assertFalse(WebSocketClient.isLowPriority("1,1000,ECGX,0.5", lowPriority));
+        assertFalse(WebSocketClient.isLowPriority("1,1000,HeartRate,70", lowPriority));
+        assertFalse(WebSocketClient.isLowPriority("invalid_message", lowPriority));
+    }
+
+    private static List<Object> drain(IngestQueue queue) {
+        List<Object> drained = new ArrayList<>();
+        for (Object message; (message = queue.poll()) != null; ) {
+            drained.add(message);
+        }
+        return drained;
+    }
+}
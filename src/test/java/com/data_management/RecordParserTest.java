@@ -0,0 +1,98 @@
+package com.data_management;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordParserTest {
+    private final RecordParser messages = new RecordParser(RecordParser.Layout.MESSAGE);
+    private final RecordParser csv = new RecordParser(RecordParser.Layout.CSV);
+
+    @Test
+    void testParsesBothLayouts() {
+        assertTrue(messages.parse("1,1700000000000,BloodPressureSystolic,120"));
+        assertEquals(1, messages.getPatientId());
+        assertEquals(1700000000000L, messages.getTimestamp());
+        assertEquals("BloodPressureSystolic", messages.getLabel());
+        assertEquals(120.0, messages.getValue());
+        assertNull(messages.getError());
+
+        assertTrue(csv.parse("-7,-0.25,ECG,42"));
+        assertEquals(-7, csv.getPatientId());
+        assertEquals(-0.25, csv.getValue());
+        assertEquals("ECG", csv.getLabel());
+        assertEquals(42L, csv.getTimestamp());
+    }
+
+    @Test
+    void testAcceptsPercentAndSpaces() {
+        assertTrue(messages.parse(" 3 , 1000 ,Saturation, 97.5% "));
+        assertEquals(3, messages.getPatientId());
+        assertEquals(1000L, messages.getTimestamp());
+        assertEquals(97.5, messages.getValue());
+    }
+
+    @Test
+    void testRejectsMalformedLines() {
+        assertFalse(messages.parse("invalid_message"));
+        assertEquals("Expected 4 fields", messages.getError());
+        assertFalse(messages.parse("1,2,ECG,3,4"));
+        assertFalse(messages.parse("x,1000,ECG,1.0"));
+        assertEquals("Invalid patient ID", messages.getError());
+        assertFalse(messages.parse("1,10.5,ECG,1.0"));
+        assertEquals("Invalid timestamp", messages.getError());
+        assertFalse(messages.parse("1,1000,,1.0"));
+        assertEquals("Missing label", messages.getError());
+        assertFalse(messages.parse("1,1000,Alert,triggered"));
+        assertEquals("Invalid value", messages.getError());
+        assertFalse(messages.parse("1,1000,ECG,"));
+        assertFalse(messages.parse("2147483648,1000,ECG,1.0"));
+        assertFalse(messages.parse("1,9223372036854775808,ECG,1.0"));
+
+        assertTrue(messages.parse("1,-9223372036854775808,ECG,1.0"));
+        assertEquals(Long.MIN_VALUE, messages.getTimestamp());
+    }
+
+    @Test
+    void testValuesMatchParseDouble() {
+        String[] special = {"0", "-0.0", "1e3", "2.5E-4", "1.7976931348623157E308", "4.9E-324", "NaN",
+                "-Infinity", "0.30000000000000004", "123456789012345678901234567890", ".5", "5."};
+        for (String text : special) {
+            assertParsedValue(text);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            assertParsedValue(Double.toString(random.nextGaussian() * Math.pow(10, random.nextInt(12) - 4)));
+            assertParsedValue(String.format(Locale.ROOT, "%.2f", random.nextDouble() * 200));
+        }
+    }
+
+    @Test
+    void testInternsLabels() {
+        assertTrue(messages.parse(new StringBuilder("1,1000,HeartRate,72")));
+        String first = messages.getLabel();
+        assertTrue(csv.parse("2,80,HeartRate,2000"));
+        assertSame(first, csv.getLabel());
+    }
+
+    @Test
+    void testParsesAsciiBytes() {
+        byte[] bytes = "header\n5,99.5,BloodSaturation,3000\n".getBytes(StandardCharsets.US_ASCII);
+        assertTrue(csv.parse(ByteBuffer.wrap(bytes), 7, bytes.length - 1));
+        assertEquals(5, csv.getPatientId());
+        assertEquals(99.5, csv.getValue());
+        assertEquals("BloodSaturation", csv.getLabel());
+        assertEquals(3000L, csv.getTimestamp());
+    }
+
+    private void assertParsedValue(String text) {
+        assertTrue(messages.parse("1,1000,ECG," + text), text);
+        assertEquals(Double.doubleToLongBits(Double.parseDouble(text)), Double.doubleToLongBits(messages.getValue()),
+                text);
+    }
+}
@@ -0,0 +1,267 @@
+package com.data_management;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordSeriesTest {
+    @Test
+    void testAddGrowsBeyondInitialCapacity() {
+        RecordSeries series = new RecordSeries(1, "ECG");
+        for (int i = 0; i < 100; i++) {
+            series.add(1000L + i, i);
+        }
+        SeriesSnapshot snapshot = series.snapshot();
+        assertEquals(100, snapshot.size());
+        assertEquals(1099L, snapshot.getTimestamp(99));
+        assertEquals(99.0, snapshot.getValue(99));
+    }
+
+    @Test
+    void testCollectRecordsBuildsViews() {
+        RecordSeries series = new RecordSeries(7, "BloodSaturation");
+        series.add(1000L, 97.0);
+        series.add(2000L, 95.0);
+        series.add(3000L, 93.0);
+        List<PatientRecord> records = new ArrayList<>();
+        series.snapshot().collectRecords(1500L, 3000L, records);
+        assertEquals(2, records.size());
+        assertEquals(7, records.get(0).getPatientId());
+        assertEquals("BloodSaturation", records.get(0).getRecordType());
+        assertEquals(95.0, records.get(0).getMeasurementValue());
+        assertEquals(3000L, records.get(1).getTimestamp());
+    }
+
+    @Test
+    void testPatientMergesSeriesByTimestamp() {
+        Patient patient = new Patient(1);
+        patient.addRecord(120.0, "BloodPressureSystolic", 1000L);
+        patient.addRecord(97.0, "BloodSaturation", 500L);
+        patient.addRecord(125.0, "BloodPressureSystolic", 1500L);
+        List<PatientRecord> records = patient.getRecords(0L, Long.MAX_VALUE);
+        assertEquals(3, records.size());
+        assertEquals("BloodSaturation", records.get(0).getRecordType());
+        assertEquals(1000L, records.get(1).getTimestamp());
+        assertEquals(1500L, records.get(2).getTimestamp());
+    }
+
+    @Test
+    void testLateArrivalIsInsertedInOrder() {
+        RecordSeries series = new RecordSeries(1, "ECG");
+        series.add(1000L, 1.0);
+        series.add(3000L, 3.0);
+        series.add(2000L, 2.0);
+        series.add(2000L, 2.5);
+        SeriesSnapshot snapshot = series.snapshot();
+        assertEquals(1000L, snapshot.getTimestamp(0));
+        assertEquals(2.0, snapshot.getValue(1));
+        assertEquals(2.5, snapshot.getValue(2));
+        assertEquals(3000L, snapshot.getTimestamp(3));
+    }
+
+    @Test
+    void testLateArrivalsAfterSnapshotKeepSnapshotIntact() {
+        RecordSeries series = new RecordSeries(1, "ECG");
+        for (int i = 0; i < 8; i++) {
+            series.add(i * 10L, i);
+        }
+        SeriesSnapshot before = series.snapshot();
+        series.add(25L, 2.5);
+        series.add(15L, 1.5);
+        series.add(45L, 4.5);
+        SeriesSnapshot after = series.snapshot();
+        assertEquals(8, before.size());
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i * 10L, before.getTimestamp(i));
+        }
+        assertEquals(11, after.size());
+        assertEquals(1.5, after.getValue(2));
+        assertEquals(2.5, after.getValue(4));
+        assertEquals(4.5, after.getValue(7));
+        assertEquals(70L, after.getTimestamp(10));
+    }
+
+    @Test
+    void testBoundsFindRangeEnds() {
+        RecordSeries series = new RecordSeries(1, "ECG");
+        for (int i = 0; i < 50; i++) {
+            series.add(i * 10L, i);
+        }
+        SeriesSnapshot snapshot = series.snapshot();
+        assertEquals(0, snapshot.lowerBound(-5L));
+        assertEquals(2, snapshot.lowerBound(20L));
+        assertEquals(3, snapshot.upperBound(20L));
+        assertEquals(3, snapshot.lowerBound(25L));
+        assertEquals(50, snapshot.upperBound(1000L));
+        List<PatientRecord> records = new ArrayList<>();
+        snapshot.collectRecords(95L, 125L, records);
+        assertEquals(3, records.size());
+        assertEquals(100L, records.get(0).getTimestamp());
+        assertEquals(120L, records.get(2).getTimestamp());
+    }
+
+    @Test
+    void testSnapshotIsNotAffectedByLaterWrites() {
+        RecordSeries series = new RecordSeries(1, "ECG");
+        for (int i = 0; i < 16; i++) {
+            series.add(1000L + i, i);
+        }
+        SeriesSnapshot snapshot = series.snapshot();
+        series.add(500L, -1.0);
+        series.add(5000L, 99.0);
+        assertEquals(16, snapshot.size());
+        assertEquals(1000L, snapshot.getTimestamp(0));
+        assertEquals(15.0, snapshot.getValue(15));
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.getTimestamp(16));
+        assertEquals(18, series.snapshot().size());
+    }
+
+    @Test
+    void testPatientSnapshotIsCutAtWatermark() {
+        Patient patient = new Patient(1);
+        patient.addRecord(120.0, "BloodPressureSystolic", 1000L);
+        patient.addRecord(97.0, "BloodSaturation", 2000L);
+        PatientSnapshot snapshot = patient.snapshot();
+        patient.addRecord(96.0, "BloodSaturation", 3000L);
+        patient.addRecord(110.0, "BloodPressureSystolic", 1500L);
+        assertEquals(2000L, snapshot.getWatermark());
+        assertEquals(2, snapshot.getRecords(0L, Long.MAX_VALUE).size());
+        assertEquals(1, snapshot.getSeries("BloodSaturation").size());
+        assertNull(snapshot.getSeries("ECG"));
+        assertEquals(4, patient.snapshot().getRecords(0L, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void testCountRetentionKeepsCapacityBounded() {
+        RecordSeries series = new RecordSeries(1, "ECG", RetentionPolicy.maxCount(100));
+        for (int i = 0; i < 10_000; i++) {
+            series.add(i, i);
+        }
+        SeriesSnapshot snapshot = series.snapshot();
+        assertEquals(100, snapshot.size());
+        assertEquals(9900L, snapshot.getTimestamp(0));
+        assertEquals(9999L, snapshot.getTimestamp(99));
+        assertEquals(128, series.capacity());
+    }
+
+    @Test
+    void testTimeRetentionEvictsExpiredReadings() {
+        RecordSeries series = new RecordSeries(1, "ECG", RetentionPolicy.maxAge(Duration.ofSeconds(10)));
+        for (int i = 0; i < 1000; i++) {
+            series.add(i * 1000L, i);
+        }
+        SeriesSnapshot snapshot = series.snapshot();
+        assertEquals(11, snapshot.size());
+        assertEquals(989_000L, snapshot.getTimestamp(0));
+        assertTrue(series.capacity() <= 16);
+        series.add(100L, -1.0);
+        assertEquals(11, series.size(), "Late reading outside the retention window should be dropped");
+        series.add(995_500L, 0.5);
+        assertEquals(12, series.size());
+        assertEquals(995_500L, series.snapshot().getTimestamp(7));
+    }
+
+    @Test
+    void testCursorStreamsEveryReadingOnce() {
+        Patient patient = new Patient(1);
+        StreamCursor cursor = new StreamCursor();
+        List<String> streamed = new ArrayList<>();
+        RecordVisitor visitor = (recordType, timestamp, value) -> streamed.add(recordType + "@" + timestamp);
+        patient.addRecord(1.0, "HeartRate", 1000L);
+        patient.addRecord(2.0, "HeartRate", 2000L);
+        patient.snapshot().forEachNew(cursor, visitor);
+        assertEquals(List.of("HeartRate@1000", "HeartRate@2000"), streamed);
+
+        streamed.clear();
+        patient.addRecord(3.0, "HeartRate", 2000L);
+        patient.addRecord(4.0, "HeartRate", 1500L);
+        patient.addRecord(5.0, "ECG", 500L);
+        patient.addRecord(6.0, "HeartRate", 3000L);
+        patient.snapshot().forEachNew(cursor, visitor);
+        assertEquals(List.of("HeartRate@1500", "ECG@500", "HeartRate@2000", "HeartRate@3000"), streamed);
+
+        streamed.clear();
+        patient.snapshot().forEachNew(cursor, visitor);
+        assertTrue(streamed.isEmpty());
+    }
+
+    @Test
+    void testSnapshotRecutsWhenSlotsAreOverwritten() {
+        RecordSeries series = new RecordSeries(1, "ECG", RetentionPolicy.maxCount(12));
+        for (int i = 0; i < 12; i++) {
+            series.add(i, i);
+        }
+        SeriesSnapshot snapshot = series.snapshot();
+        assertEquals(0L, snapshot.getTimestamp(0));
+        for (int i = 12; i < 40; i++) {
+            series.add(i, i);
+        }
+        assertEquals(28L, snapshot.getTimestamp(0));
+        assertEquals(12, snapshot.size());
+        assertEquals(39L, series.snapshot().getTimestamp(11));
+    }
+
+    @Test
+    void testPatientSnapshotKeepsWatermarkAfterRecut() {
+        RetentionPolicies policies = new RetentionPolicies();
+        policies.setPolicy("ECG", RetentionPolicy.maxCount(12));
+        Patient patient = new Patient(1, policies);
+        for (int i = 0; i < 12; i++) {
+            patient.addRecord(i, "ECG", i);
+        }
+        PatientSnapshot snapshot = patient.snapshot();
+        for (int i = 12; i < 17; i++) {
+            patient.addRecord(i, "ECG", i);
+        }
+        SeriesSnapshot ecg = snapshot.getSeries("ECG");
+        assertEquals(5L, ecg.getTimestamp(0));
+        assertEquals(7, ecg.size(), "Only the retained readings up to the watermark remain");
+        assertEquals(7, snapshot.getRecords(0L, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void testGetRecordsWhileWriterWrapsTheRing() throws InterruptedException {
+        RetentionPolicies policies = new RetentionPolicies();
+        policies.setDefaultPolicy(RetentionPolicy.maxCount(16));
+        Patient patient = new Patient(1, policies);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (long timestamp = 0; running.get(); timestamp++) {
+                patient.addRecord(timestamp * 2, "ECG", timestamp);
+                patient.addRecord(timestamp * 3, "HeartRate", timestamp);
+            }
+        });
+        writer.start();
+        try {
+            long deadline = System.nanoTime() + 300_000_000L;
+            PatientSnapshot snapshot = patient.snapshot();
+            for (int i = 0; System.nanoTime() < deadline; i++) {
+                if (i % 64 == 0) {
+                    snapshot = patient.snapshot();
+                }
+                long previous = Long.MIN_VALUE;
+                Map<String, Long> newest = new HashMap<>();
+                for (PatientRecord record : snapshot.getRecords(0, Long.MAX_VALUE)) {
+                    long timestamp = record.getTimestamp();
+                    int factor = record.getRecordType().equals("ECG") ? 2 : 3;
+                    assertEquals(timestamp * factor, record.getMeasurementValue(), "A reading must not be torn");
+                    assertTrue(timestamp >= previous, "Records must stay in timestamp order");
+                    Long last = newest.put(record.getRecordType(), timestamp);
+                    assertTrue(last == null || last < timestamp, "A reading must not repeat or shift");
+                    assertTrue(timestamp <= snapshot.getWatermark());
+                    previous = timestamp;
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+}
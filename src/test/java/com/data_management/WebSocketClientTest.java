@@ -1,5 +1,7 @@
 package com.data_management;
 
+import com.cardio_generator.outputs.WebSocketOutputStrategy;
+import com.protocol.ReadingCodec;
 import org.java_websocket.server.WebSocketServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -7,6 +9,8 @@ import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.logging.Logger;
 
@@ -61,6 +65,70 @@ class WebSocketClientTest {
         assertTrue(dataStorage.getRecords(1, 0, Long.MAX_VALUE).isEmpty(), "Expected no records for invalid message");
     }
 
+    @Test
+    void testNegotiatesBinaryReadings() throws Exception {
+        int port = 8085;
+        WebSocketOutputStrategy simulator = new WebSocketOutputStrategy(port);
+        awaitServer(port);
+        WebSocketClient binaryClient = new WebSocketClient("ws://localhost:" + port);
+        try {
+            binaryClient.readData(dataStorage);
+            assertTrue(binaryClient.isBinary(), "Expected the simulator to accept the binary protocol");
+            simulator.output(2, 1700000000000L, "ECG", 0.5);
+            simulator.output(2, 1700000000001L, "Saturation", "97.0%");
+            long deadline = System.currentTimeMillis() + 5000;
+            while (dataStorage.getRecords(2, 0, Long.MAX_VALUE).size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            List<PatientRecord> records = dataStorage.getRecords(2, 0, Long.MAX_VALUE);
+            assertEquals(2, records.size());
+            assertEquals("ECG", records.get(0).getRecordType());
+            assertEquals(0.5, records.get(0).getMeasurementValue());
+            assertEquals(97.0, records.get(1).getMeasurementValue());
+        } finally {
+            try {
+                binaryClient.close();
+            } finally {
+                simulator.stop();
+            }
+        }
+    }
+
+    @Test
+    void testDecodesTextRecordsInBinaryFrames() {
+        RecordParser parser = new RecordParser(RecordParser.Layout.MESSAGE);
+        RecordBatch batch = new RecordBatch(4);
+        WebSocketClient.decodeFrame(ByteBuffer.wrap(ReadingCodec.encode(4, 1000L, "Temperature", 36.6)), parser, batch);
+        assertEquals(1, batch.size());
+        assertEquals("Temperature", batch.getRecordType(0));
+        assertEquals(36.6, batch.getMeasurementValue(0));
+        assertThrows(IllegalArgumentException.class, () -> WebSocketClient.decodeFrame(
+                ByteBuffer.wrap(ReadingCodec.encode(4, 1000L, "Alert", "triggered")), parser, batch));
+        assertEquals(1, batch.size());
+
+        byte[] valid = ReadingCodec.encode(4, 2000L, "ECG", 0.5);
+        byte[] truncated = ReadingCodec.encode(4, 3000L, "ECG", 0.7);
+        ByteBuffer frame = ByteBuffer.allocate(valid.length + truncated.length - 1);
+        frame.put(valid).put(truncated, 0, truncated.length - 1).flip();
+        assertThrows(IllegalArgumentException.class, () -> WebSocketClient.decodeFrame(frame, parser, batch));
+        assertEquals(1, batch.size(), "A rejected frame must not leave readings in the batch");
+    }
+
+    /**
+     * Waits for a server that starts asynchronously to accept connections.
+     */
+    private static void awaitServer(int port) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            try {
+                new Socket("localhost", port).close();
+                return;
+            } catch (IOException e) {
+                Thread.sleep(100);
+            }
+        }
+        fail("Server on port " + port + " did not start");
+    }
+
     static class TestWebSocketServer extends WebSocketServer {
         private static final Logger LOGGER = Logger.getLogger(TestWebSocketServer.class.getName());
 
@@ -50,4 +50,65 @@ class FileDataReaderTest {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testBulkLoadMatchesLineByLine(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("export.csv");
+        StringBuilder csv = new StringBuilder("patientId,measurementValue,recordType,timestamp\r\n");
+        // Readings of one patient and type share a timestamp within each run of 50 lines, and
+        // every 97th line is late, so only the line order tells their values apart
+        for (int i = 0; i < 5000; i++) {
+            long timestamp = 1700000000000L + i / 50 - (i % 97 == 0 ? 20 : 0);
+            csv.append(i % 7).append(',').append(i).append(".5,").append(i % 2 == 0 ? "ECG" : "HeartRate")
+                    .append(',').append(timestamp).append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i == 2500) {
+                csv.append("3,not-a-number,ECG,1\n");
+            }
+        }
+        Files.writeString(file, csv);
+
+        DataStorage expected = new DataStorage();
+        FileDataReader lineByLine = new FileDataReader(file.toString());
+        try {
+            lineByLine.readData(expected);
+        } finally {
+            lineByLine.close();
+        }
+        DataStorage actual = new DataStorage();
+        MappedFileLoader loader = new MappedFileLoader(file, 3, 4096);
+        loader.load(actual);
+
+        assertEquals(5000, loader.getRecordCount());
+        assertEquals(1, loader.getMalformedCount());
+        assertEquals(5000, lineByLine.getRecordCount());
+        assertEquals(1, lineByLine.getMalformedCount());
+        for (int patient = 0; patient < 7; patient++) {
+            List<PatientRecord> wanted = expected.getRecords(patient, 0, Long.MAX_VALUE);
+            List<PatientRecord> loaded = actual.getRecords(patient, 0, Long.MAX_VALUE);
+            assertEquals(wanted.size(), loaded.size());
+            for (int i = 0; i < wanted.size(); i++) {
+                assertEquals(wanted.get(i).getTimestamp(), loaded.get(i).getTimestamp());
+                assertEquals(wanted.get(i).getMeasurementValue(), loaded.get(i).getMeasurementValue(),
+                        "Readings of patient " + patient + " must keep their line order");
+                assertEquals(wanted.get(i).getRecordType(), loaded.get(i).getRecordType());
+            }
+        }
+    }
+
+    @Test
+    void testBulkModeThroughReader(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("export.csv");
+        Files.writeString(file, "patientId,measurementValue,recordType,timestamp\n1,120.0,BloodPressure,1700000000000");
+
+        DataStorage storage = new DataStorage();
+        FileDataReader reader = new FileDataReader(file.toString(), 2);
+        try {
+            reader.readData(storage);
+        } finally {
+            reader.close();
+        }
+
+        assertEquals(1, reader.getRecordCount());
+        assertEquals(120.0, storage.getRecords(1, 0L, Long.MAX_VALUE).get(0).getMeasurementValue());
+    }
+}
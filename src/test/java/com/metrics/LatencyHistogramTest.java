@@ -0,0 +1,76 @@
+package com.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsCoverValuesWithBoundedError() {
+        long previousUpper = -1;
+        for (int bucket = 0; bucket <= LatencyHistogram.bucketOf(1L << 40); bucket++) {
+            long upper = LatencyHistogram.upperBound(bucket);
+            long lower = previousUpper + 1;
+            // Buckets are contiguous, and every value maps back to its bucket
+            assertEquals(bucket, LatencyHistogram.bucketOf(lower));
+            assertEquals(bucket, LatencyHistogram.bucketOf(upper));
+            assertTrue(upper - lower <= Math.max(1, lower / 16), "bucket " + bucket);
+            previousUpper = upper;
+        }
+    }
+
+    @Test
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5.0, histogram.getPercentileMillis(0.5), 5.0 * 0.07);
+        assertEquals(9.9, histogram.getPercentileMillis(0.99), 9.9 * 0.07);
+        assertEquals(9.99, histogram.getPercentileMillis(0.999), 9.99 * 0.07);
+        assertEquals(10.0, histogram.getMaxMillis(), 1e-9);
+        assertEquals(5.0005, histogram.getMeanMillis(), 1e-9);
+        assertTrue(histogram.toString().startsWith("test: count=10000, p50="));
+    }
+
+    @Test
+    void testEmptyAndOutOfRangeValues() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        assertEquals(0, histogram.getPercentileMillis(0.99));
+
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.getPercentileMillis(0.5));
+        // Values beyond the range land in the last bucket, but the maximum stays exact
+        assertEquals(((1L << 41) - 1) / 1e6, histogram.getPercentileMillis(1.0), 1e-6);
+        assertEquals(Long.MAX_VALUE / 1e6, histogram.getMaxMillis(), 1e6);
+    }
+
+    @Test
+    void testConcurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = LatencyMetrics.getInstance().histogram("test.concurrent");
+        assertSame(histogram, LatencyMetrics.getInstance().histogram("test.concurrent"));
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 25_000; i++) {
+                    histogram.record(i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100_000, histogram.getCount());
+        assertTrue(LatencyMetrics.getInstance().report().contains("test.concurrent: count=100000"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.management.AttributeNotFoundException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+    private final LatencyMetrics latencies = new LatencyMetrics();
+    private final MetricsRegistry registry = new MetricsRegistry(latencies);
+
+    @Test
+    void testConcurrentCountersAndRate() throws InterruptedException {
+        Counter counter = registry.counter("test_events_total", "Test events");
+        assertSame(counter, registry.counter("test_events_total", "Test events"));
+        registry.sampleRates();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.increment();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        registry.sampleRates();
+
+        assertEquals(40_000, counter.get());
+        assertTrue(counter.getRatePerSecond() > 0);
+    }
+
+    @Test
+    void testScrapeFormat() {
+        registry.counter("test_events_total", "Test events").add(3);
+        registry.gauge("test_patients", "Test patients", () -> 2.5);
+        latencies.histogram(LatencyMetrics.EVALUATE).record(2_000_000);
+        latencies.ruleHistogram("ECGPeak").record(1000);
+
+        String text = registry.scrape();
+        assertTrue(text.contains("# TYPE test_events_total counter\ntest_events_total 3\n"), text);
+        assertTrue(text.contains("test_patients 2.50000000\n"), text);
+        assertTrue(text.contains("# TYPE evaluate_seconds summary\n"), text);
+        assertTrue(text.contains("evaluate_seconds_count 1\n"), text);
+        assertTrue(text.contains("rule_seconds{rule=\"ECGPeak\",quantile=\"0.99\"} "), text);
+        assertTrue(text.contains("rule_seconds_count{rule=\"ECGPeak\"} 1\n"), text);
+    }
+
+    @Test
+    void testMBeanAttributes() throws Exception {
+        registry.counter("test_events_total", "Test events").add(7);
+        registry.gauge("test_patients", "Test patients", () -> 4);
+        latencies.histogram(LatencyMetrics.DISPATCH).record(1_000_000);
+        MetricsMBean bean = new MetricsMBean(registry);
+
+        assertEquals(7L, bean.getAttribute("test_events_total"));
+        assertEquals(4.0, bean.getAttribute("test_patients"));
+        assertEquals(1L, bean.getAttribute("dispatch_count"));
+        assertEquals(1.0, assertInstanceOf(Double.class, bean.getAttribute("dispatch_p99_ms")), 0.07);
+        assertThrows(AttributeNotFoundException.class, () -> bean.getAttribute("missing"));
+        ReflectionException operation = assertThrows(ReflectionException.class,
+                () -> bean.invoke("reset", new Object[0], new String[0]));
+        assertInstanceOf(NoSuchMethodException.class, operation.getTargetException());
+        List<String> names = new ArrayList<>();
+        for (MBeanAttributeInfo attribute : bean.getMBeanInfo().getAttributes()) {
+            names.add(attribute.getName());
+        }
+        assertTrue(names.containsAll(List.of("test_events_total", "test_events_total_rate", "dispatch_p999_ms")));
+
+        MetricsRegistry.getInstance().registerMBean();
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(MetricsRegistry.OBJECT_NAME)));
+    }
+
+    @Test
+    void testHttpEndpoint() throws IOException {
+        registry.counter("test_events_total", "Test events").increment();
+        MetricsHttpServer server = new MetricsHttpServer(registry, 0);
+        try {
+            HttpURLConnection connection = (HttpURLConnection)
+                    new URL("http://localhost:" + server.getPort() + "/metrics").openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertTrue(connection.getContentType().startsWith("text/plain"));
+            try (InputStream in = connection.getInputStream()) {
+                String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                assertTrue(body.contains("test_events_total 1\n"), body);
+            }
+        } finally {
+            server.stop();
+        }
+    }
+}
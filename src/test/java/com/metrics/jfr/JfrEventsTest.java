@@ -0,0 +1,96 @@
+package com.metrics.jfr;
+
+import com.alerts.AlertGenerator;
+import com.alerts.AlertStateTracker;
+import com.data_management.DataStorage;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrEventsTest {
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        JfrEvents.setActive(true);
+    }
+
+    @Test
+    void testEventsCarryPatientContext() throws IOException {
+        List<RecordedEvent> events = record(() -> {
+            DataStorage storage = new DataStorage();
+            storage.addPatientData(42, 190, "BloodPressureSystolic", 1000);
+            storage.addPatientData(42, 80, "BloodPressureDiastolic", 1000);
+            new AlertGenerator(storage, new AlertStateTracker()).evaluateData(42);
+        });
+
+        List<RecordedEvent> stores = ofType(events, "com.signal_project.Store");
+        assertEquals(2, stores.size());
+        assertEquals(42, stores.get(0).getInt("patientId"));
+        assertEquals("BloodPressureSystolic", stores.get(0).getString("recordType"));
+        assertEquals(1, stores.get(0).getInt("recordCount"));
+
+        List<RecordedEvent> evaluations = ofType(events, "com.signal_project.Evaluation");
+        assertEquals(1, evaluations.size());
+        assertEquals(42, evaluations.get(0).getInt("patientId"));
+        assertEquals(2, evaluations.get(0).getLong("readings"));
+        assertTrue(evaluations.get(0).getInt("rules") > 0);
+    }
+
+    @Test
+    void testSwitchedOffEventsAreSkipped() throws IOException {
+        JfrEvents.setActive(false);
+        assertNull(StoreEvent.start());
+        List<RecordedEvent> events = record(() ->
+                new DataStorage().addPatientData(43, 190, "BloodPressureSystolic", 1000));
+
+        assertTrue(ofType(events, "com.signal_project.Store").isEmpty());
+    }
+
+    @Test
+    void testEventsAreOnlyCreatedWhileRecorded() throws IOException {
+        assertTrue(JfrEvents.active());
+        assertNull(StoreEvent.start());
+        assertNull(ParseEvent.start());
+
+        record(() -> {
+            assertNotNull(StoreEvent.start());
+            assertNotNull(ParseEvent.start());
+        });
+        assertNull(StoreEvent.start());
+    }
+
+    private List<RecordedEvent> record(Runnable work) throws IOException {
+        Path file = directory.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            for (Class<?> type : List.of(ParseEvent.class, StoreEvent.class, EvaluationEvent.class,
+                    DispatchEvent.class)) {
+                recording.enable(type.getAnnotation(Name.class).value()).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            work.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,51 @@
+package com.protocol;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadingCodecTest {
+
+    @Test
+    void testEncodesNumericReadingsInFixedLayout() {
+        ByteBuffer reading = ByteBuffer.wrap(ReadingCodec.encode(17, 1700000000000L, "ECG", -0.25));
+        assertEquals(ReadingCodec.READING_BYTES, reading.remaining());
+        assertEquals(ReadingCodec.READING_BYTES, ReadingCodec.recordLength(reading, 0));
+        assertEquals(17, ReadingCodec.getPatientId(reading, 0));
+        assertEquals(1700000000000L, ReadingCodec.getTimestamp(reading, 0));
+        assertEquals("ECG", ReadingCodec.labelOf(ReadingCodec.getLabelCode(reading, 0)));
+        assertEquals(-0.25, ReadingCodec.getValue(reading, 0));
+    }
+
+    @Test
+    void testEncodesNumericTextAsValue() {
+        ByteBuffer reading = ByteBuffer.wrap(ReadingCodec.encode(3, 1000L, "Saturation", "97.0%"));
+        assertEquals(ReadingCodec.READING_BYTES, reading.remaining());
+        assertEquals(97.0, ReadingCodec.getValue(reading, 0));
+    }
+
+    @Test
+    void testFallsBackToTextRecords() {
+        ByteBuffer alert = ByteBuffer.wrap(ReadingCodec.encode(3, 1000L, "Alert", "triggered"));
+        assertEquals(ReadingCodec.TEXT, ReadingCodec.getLabelCode(alert, 0));
+        assertEquals(alert.remaining(), ReadingCodec.recordLength(alert, 0));
+        assertEquals("Alert,triggered", ReadingCodec.getText(alert, 0));
+        assertEquals(3, ReadingCodec.getPatientId(alert, 0));
+
+        ByteBuffer unknown = ByteBuffer.wrap(ReadingCodec.encode(3, 1000L, "Temperature", 36.6));
+        assertEquals("Temperature,36.6", ReadingCodec.getText(unknown, 0));
+    }
+
+    @Test
+    void testRejectsTruncatedRecords() {
+        byte[] reading = ReadingCodec.encode(1, 1000L, "HeartRate", 72.0);
+        ByteBuffer truncated = ByteBuffer.wrap(reading, 0, reading.length - 1).slice();
+        assertThrows(IllegalArgumentException.class, () -> ReadingCodec.recordLength(truncated, 0));
+
+        byte[] text = ReadingCodec.encode(1, 1000L, "Alert", "resolved");
+        ByteBuffer truncatedText = ByteBuffer.wrap(text, 0, text.length - 1).slice();
+        assertThrows(IllegalArgumentException.class, () -> ReadingCodec.recordLength(truncatedText, 0));
+    }
+}